@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+
+/**
+ * Dispatches bus messages to the {@link GroupAddressListener}s of their destination group address.
+ *
+ * The listeners are indexed by their group addresses on registration, so a telegram only costs a lookup.
+ * Each listener has a queue of pending notifications that is processed by a single task on the executor.
+ * A new task is only scheduled if there is none pending or running for the listener already, so telegrams
+ * arriving in a burst are delivered in one batch and in the order of their arrival.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class BusMessageDispatcher {
+    private final Logger logger = LoggerFactory.getLogger(BusMessageDispatcher.class);
+
+    private final Executor executor;
+    private final Map<GroupAddressListener, ListenerQueue> queues = new ConcurrentHashMap<>();
+    private final Map<GroupAddress, Set<ListenerQueue>> index = new ConcurrentHashMap<>();
+    private final AtomicLong scheduledTasks = new AtomicLong();
+
+    /**
+     * The pending notifications of a listener.
+     */
+    private class ListenerQueue implements Runnable {
+        final GroupAddressListener listener;
+        volatile Set<GroupAddress> groupAddresses;
+        final Queue<Consumer<BusMessageListener>> pending = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed = false;
+
+        ListenerQueue(GroupAddressListener listener, Set<GroupAddress> groupAddresses) {
+            this.listener = listener;
+            this.groupAddresses = groupAddresses;
+        }
+
+        void add(Consumer<BusMessageListener> notification) {
+            pending.add(notification);
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this);
+                    scheduledTasks.incrementAndGet();
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    logger.debug("Could not deliver a bus message, the scheduler is shut down");
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                Consumer<BusMessageListener> notification;
+                while (!closed && (notification = pending.poll()) != null) {
+                    try {
+                        notification.accept(listener);
+                    } catch (RuntimeException e) {
+                        logger.warn("A listener failed to process a bus message", e);
+                    }
+                }
+                scheduled.set(false);
+                // A notification may have been added after the last poll, but before the flag was reset
+            } while (!closed && !pending.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param executor Delivers the notifications. The KNX scheduler for example.
+     */
+    public BusMessageDispatcher(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Registers a listener for its current group addresses. Registering an already registered listener again updates
+     * the indexed group addresses of the listener. The listener keeps its queue, so pending notifications are still
+     * delivered once and in order.
+     *
+     * @param listener The listener
+     * @return {@code true} if it wasn't registered before
+     */
+    public synchronized boolean register(GroupAddressListener listener) {
+        Set<GroupAddress> groupAddresses = new HashSet<>(listener.getGroupAddresses());
+        ListenerQueue queue = queues.get(listener);
+        if (queue == null) {
+            queue = new ListenerQueue(listener, groupAddresses);
+            queues.put(listener, queue);
+            addToIndex(queue, groupAddresses);
+            return true;
+        }
+        Set<GroupAddress> previousGroupAddresses = queue.groupAddresses;
+        if (!previousGroupAddresses.equals(groupAddresses)) {
+            queue.groupAddresses = groupAddresses;
+            addToIndex(queue, groupAddresses);
+            Set<GroupAddress> removedGroupAddresses = new HashSet<>(previousGroupAddresses);
+            removedGroupAddresses.removeAll(groupAddresses);
+            removeFromIndex(queue, removedGroupAddresses);
+        }
+        return false;
+    }
+
+    /**
+     * Removes a listener. Pending notifications of the listener are dropped.
+     *
+     * @param listener The listener
+     * @return {@code true} if it was registered
+     */
+    public synchronized boolean unregister(GroupAddressListener listener) {
+        ListenerQueue queue = queues.remove(listener);
+        if (queue == null) {
+            return false;
+        }
+        queue.closed = true;
+        removeFromIndex(queue, queue.groupAddresses);
+        return true;
+    }
+
+    private void addToIndex(ListenerQueue queue, Set<GroupAddress> groupAddresses) {
+        for (GroupAddress groupAddress : groupAddresses) {
+            index.computeIfAbsent(groupAddress, ga -> new CopyOnWriteArraySet<>()).add(queue);
+        }
+    }
+
+    private void removeFromIndex(ListenerQueue queue, Set<GroupAddress> groupAddresses) {
+        for (GroupAddress groupAddress : groupAddresses) {
+            index.computeIfPresent(groupAddress, (ga, listeners) -> {
+                listeners.remove(queue);
+                return listeners.isEmpty() ? null : listeners;
+            });
+        }
+    }
+
+    /**
+     * Hands a bus message to all listeners of the destination group address.
+     *
+     * @param destination The destination group address of the telegram
+     * @param notification Notifies a listener about the bus message
+     * @return The number of listeners of the group address
+     */
+    public int dispatch(GroupAddress destination, Consumer<BusMessageListener> notification) {
+        Set<ListenerQueue> listeners = index.get(destination);
+        if (listeners == null) {
+            return 0;
+        }
+        for (ListenerQueue queue : listeners) {
+            queue.add(notification);
+        }
+        return listeners.size();
+    }
+
+    /**
+     * Returns the number of registered listeners.
+     */
+    public int getListenerCount() {
+        return queues.size();
+    }
+
+    /**
+     * Returns the number of tasks that have been scheduled to deliver bus messages.
+     */
+    public long getScheduledTaskCount() {
+        return scheduledTasks.get();
+    }
+}
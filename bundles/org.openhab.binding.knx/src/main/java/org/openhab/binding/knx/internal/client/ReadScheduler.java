@@ -0,0 +1,372 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Schedules the read requests of datapoints to the KNX bus.
+ *
+ * There is at most one read request per group address queued or awaiting its answer. Group addresses without a known
+ * state are read first, followed by the refreshes of known ones and finally the retries of unanswered requests.
+ * A read request is answered by any value telegram to its group address, which also makes a queued request for the
+ * group address obsolete.
+ *
+ * {@link #next()} is called by the bus job every reading pause. The pause grows if the link reports negative
+ * confirmations, failed requests or a busy bus and shrinks again with positive confirmations and answers.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class ReadScheduler {
+
+    /** the highest multiple of the reading pause between two read requests */
+    static final int MAX_PAUSE_FACTOR = 8;
+
+    /** the maximum number of read requests awaiting their answer */
+    static final int MAX_READS_IN_FLIGHT = 32;
+
+    /** the number of telegrams per second at which the bus is considered busy, about 80% of a TP1 line */
+    static final int BUSY_TELEGRAMS_PER_SECOND = 40;
+
+    private static final int UNKNOWN_STATE = 0;
+    private static final int REFRESH = 1;
+    private static final int RETRY = 2;
+
+    private final Logger logger = LoggerFactory.getLogger(ReadScheduler.class);
+
+    private final long responseTimeoutNanos;
+    private final int readRetriesLimit;
+    private final LongSupplier clock;
+
+    private final Map<GroupAddress, Entry> entries = new HashMap<>();
+    private final List<ArrayDeque<Entry>> queues = new ArrayList<>();
+    private final List<Entry> inFlight = new ArrayList<>();
+    private final Set<GroupAddress> knownGroupAddresses = new HashSet<>();
+
+    private int pauseFactor = 1;
+    private int ticksToSkip = 0;
+    private long busLoadSecond;
+    private int telegramsThisSecond = 0;
+    private int busLoad = 0;
+
+    private long requestCount = 0;
+    private long answeredCount = 0;
+    private long obsoleteCount = 0;
+    private long retryCount = 0;
+    private long failedCount = 0;
+
+    private static class Entry {
+        final ReadDatapoint readDatapoint;
+        int priority;
+        boolean sent = false;
+        long deadline;
+
+        Entry(ReadDatapoint readDatapoint, int priority) {
+            this.readDatapoint = readDatapoint;
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param responseTimeout the time in seconds to wait for the answer to a read request
+     * @param readRetriesLimit the maximum number of read requests per datapoint
+     */
+    public ReadScheduler(int responseTimeout, int readRetriesLimit) {
+        this(responseTimeout, readRetriesLimit, System::nanoTime);
+    }
+
+    ReadScheduler(int responseTimeout, int readRetriesLimit, LongSupplier clock) {
+        this.responseTimeoutNanos = TimeUnit.SECONDS.toNanos(responseTimeout);
+        this.readRetriesLimit = readRetriesLimit;
+        this.clock = clock;
+        this.busLoadSecond = TimeUnit.NANOSECONDS.toSeconds(clock.getAsLong());
+        for (int priority = UNKNOWN_STATE; priority <= RETRY; priority++) {
+            queues.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Queues a read request for the datapoint.
+     *
+     * @param datapoint the datapoint
+     * @return {@code true} if there was no read request for the group address of the datapoint yet
+     */
+    public synchronized boolean schedule(Datapoint datapoint) {
+        GroupAddress groupAddress = datapoint.getMainAddress();
+        int priority = knownGroupAddresses.contains(groupAddress) ? REFRESH : UNKNOWN_STATE;
+        Entry entry = entries.get(groupAddress);
+        if (entry != null) {
+            if (priority < entry.priority && !entry.sent) {
+                // Promote the queued request, its old queue entry is skipped
+                entry.priority = priority;
+                queues.get(priority).add(entry);
+            }
+            return false;
+        }
+        entry = new Entry(new ReadDatapoint(datapoint, readRetriesLimit), priority);
+        entries.put(groupAddress, entry);
+        queues.get(priority).add(entry);
+        return true;
+    }
+
+    /**
+     * Returns the datapoint to send the next read request for. To be called every reading pause.
+     *
+     * @return the datapoint or {@code null} if there is nothing to read or the pacing requires a pause
+     */
+    public synchronized @Nullable Datapoint next() {
+        long now = clock.getAsLong();
+        expireReads(now);
+        if (ticksToSkip > 0) {
+            ticksToSkip--;
+            return null;
+        }
+        if (inFlight.size() >= MAX_READS_IN_FLIGHT) {
+            return null;
+        }
+        Entry entry = poll();
+        if (entry == null) {
+            return null;
+        }
+        ReadDatapoint readDatapoint = entry.readDatapoint;
+        readDatapoint.incrementRetries();
+        if (readDatapoint.getRetries() > 1) {
+            retryCount++;
+        }
+        requestCount++;
+        entry.sent = true;
+        entry.deadline = now + responseTimeoutNanos;
+        inFlight.add(entry);
+        updateBusLoad(now);
+        ticksToSkip = Math.max(pauseFactor, busLoad >= BUSY_TELEGRAMS_PER_SECOND ? 2 : 1) - 1;
+        return readDatapoint.getDatapoint();
+    }
+
+    private @Nullable Entry poll() {
+        for (int priority = UNKNOWN_STATE; priority <= RETRY; priority++) {
+            ArrayDeque<Entry> queue = queues.get(priority);
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                // Skip obsolete and promoted entries
+                if (entries.get(entry.readDatapoint.getDatapoint().getMainAddress()) == entry
+                        && entry.priority == priority && !entry.sent) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private void expireReads(long now) {
+        Iterator<Entry> iterator = inFlight.iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.deadline - now > 0) {
+                continue;
+            }
+            iterator.remove();
+            retryOrGiveUp(entry, "no answer");
+        }
+    }
+
+    private void retryOrGiveUp(Entry entry, @Nullable String reason) {
+        ReadDatapoint readDatapoint = entry.readDatapoint;
+        GroupAddress groupAddress = readDatapoint.getDatapoint().getMainAddress();
+        entry.sent = false;
+        if (readDatapoint.getRetries() < readDatapoint.getLimit()) {
+            logger.debug("Could not read value for datapoint {}: {}. Going to retry.", groupAddress, reason);
+            entry.priority = RETRY;
+            queues.get(RETRY).add(entry);
+        } else {
+            logger.warn("Giving up reading datapoint {}, the number of maximum retries ({}) is reached.",
+                    groupAddress, readDatapoint.getLimit());
+            entries.remove(groupAddress);
+            failedCount++;
+        }
+    }
+
+    /**
+     * Reports that sending the read request of a datapoint failed. The request is retried, if the limit is not
+     * reached yet, and the pause is increased.
+     *
+     * @param datapoint the datapoint returned by {@link #next()}
+     * @param reason the reason for the log
+     */
+    public synchronized void sendFailed(Datapoint datapoint, @Nullable String reason) {
+        Entry entry = entries.get(datapoint.getMainAddress());
+        if (entry != null && inFlight.remove(entry)) {
+            retryOrGiveUp(entry, reason);
+        }
+        backOff();
+    }
+
+    /**
+     * Reports a value telegram, a group write or a group read response, to a group address. It answers the read
+     * request of the group address.
+     *
+     * @param groupAddress the destination of the telegram
+     */
+    public synchronized void valueReceived(GroupAddress groupAddress) {
+        knownGroupAddresses.add(groupAddress);
+        Entry entry = entries.remove(groupAddress);
+        if (entry == null) {
+            return;
+        }
+        if (inFlight.remove(entry)) {
+            answeredCount++;
+            speedUp();
+        } else {
+            obsoleteCount++;
+        }
+    }
+
+    /**
+     * Reports a telegram on the bus, to measure the bus load.
+     */
+    public synchronized void telegramReceived() {
+        updateBusLoad(clock.getAsLong());
+        telegramsThisSecond++;
+    }
+
+    private void updateBusLoad(long now) {
+        long second = TimeUnit.NANOSECONDS.toSeconds(now);
+        if (second != busLoadSecond) {
+            busLoad = second == busLoadSecond + 1 ? telegramsThisSecond : 0;
+            busLoadSecond = second;
+            telegramsThisSecond = 0;
+        }
+    }
+
+    /**
+     * Reports the confirmation of a telegram sent by the link.
+     *
+     * @param positive whether the telegram was confirmed positively
+     */
+    public synchronized void confirmationReceived(boolean positive) {
+        if (positive) {
+            speedUp();
+        } else {
+            backOff();
+        }
+    }
+
+    private void speedUp() {
+        if (pauseFactor > 1 && busLoad < BUSY_TELEGRAMS_PER_SECOND) {
+            pauseFactor--;
+        }
+    }
+
+    private void backOff() {
+        pauseFactor = Math.min(MAX_PAUSE_FACTOR, pauseFactor * 2);
+    }
+
+    /**
+     * Drops all queued read requests and the ones awaiting an answer, e.g. when the connection is lost.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        inFlight.clear();
+        queues.forEach(ArrayDeque::clear);
+        ticksToSkip = 0;
+    }
+
+    /**
+     * Returns the number of datapoints waiting for their read request to be sent or answered.
+     */
+    public synchronized int getPendingCount() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of read requests awaiting an answer.
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Returns the number of sent read requests, including retries.
+     */
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of answered read requests.
+     */
+    public synchronized long getAnsweredCount() {
+        return answeredCount;
+    }
+
+    /**
+     * Returns the number of queued read requests that became obsolete because of a value telegram on the bus.
+     */
+    public synchronized long getObsoleteCount() {
+        return obsoleteCount;
+    }
+
+    /**
+     * Returns the number of retried read requests.
+     */
+    public synchronized long getRetryCount() {
+        return retryCount;
+    }
+
+    /**
+     * Returns the number of datapoints that could not be read within the retries limit.
+     */
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Returns the current pause between two read requests as multiple of the reading pause.
+     */
+    public synchronized int getPauseFactor() {
+        return Math.max(pauseFactor, busLoad >= BUSY_TELEGRAMS_PER_SECOND ? 2 : 1);
+    }
+
+    /**
+     * Returns the number of telegrams on the bus in the last full second.
+     */
+    public synchronized int getBusLoad() {
+        return busLoad;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d pending (%d in flight), %d requests, %d answered, %d obsolete, %d retries, "
+                + "%d failed, pause x%d, bus load %d telegrams/s", entries.size(), inFlight.size(), requestCount,
+                answeredCount, obsoleteCount, retryCount, failedCount, getPauseFactor(), busLoad);
+    }
+}
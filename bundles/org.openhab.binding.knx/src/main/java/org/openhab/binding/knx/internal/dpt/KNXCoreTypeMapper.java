@@ -24,6 +24,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.smarthome.core.library.types.DateTimeType;
 import org.eclipse.smarthome.core.library.types.DecimalType;
@@ -39,6 +40,7 @@ import org.eclipse.smarthome.core.types.Type;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.openhab.binding.knx.internal.KNXTypeMapper;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -107,6 +109,21 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
     /** stores the default KNX DPT to use for each openHAB type */
     private final Map<Class<? extends Type>, String> defaultDptMap;
 
+    /**
+     * stores a translator per datapoint type, because translators are created by reflection. They are not
+     * thread-safe, data is only set on a translator while holding its lock.
+     */
+    private final Map<String, DPTXlator> translators = new ConcurrentHashMap<>();
+
+    /** formats 4 byte float values of a large magnitude, see {@link #toType(Datapoint, byte[])} */
+    private static final ThreadLocal<NumberFormat> EXPONENT_FORMAT = ThreadLocal.withInitial(() -> {
+        NumberFormat dcf = NumberFormat.getInstance(Locale.US);
+        if (dcf instanceof DecimalFormat) {
+            ((DecimalFormat) dcf).applyPattern("0.#####E0");
+        }
+        return dcf;
+    });
+
     public KNXCoreTypeMapper() {
 
         @SuppressWarnings("unused")
@@ -587,8 +604,7 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         }
 
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(mainNumber, dptID);
-            dpt = translator.getType();
+            dpt = getTranslator(mainNumber, dptID).getType();
         } catch (KNXException e) {
             return null;
         }
@@ -672,13 +688,48 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         return null;
     }
 
+    @Deactivate
+    protected void deactivate() {
+        translators.clear();
+    }
+
     @Override
     public Type toType(Datapoint datapoint, byte[] data) {
         try {
-            DPTXlator translator = TranslatorTypes.createTranslator(datapoint.getMainNumber(), datapoint.getDPT());
-            translator.setData(data);
-            String value = translator.getValue();
+            // The translator validates the datapoint type, the most frequent ones are decoded without using it
+            String id = getTranslator(datapoint.getMainNumber(), datapoint.getDPT()).getType().getID();
+            Type type = decode(getMainNumber(id), getSubNumber(id), data);
+            if (type != null) {
+                return type;
+            }
+        } catch (KNXException e) {
+            // Reported by translate()
+        }
+        return translate(datapoint, data);
+    }
 
+    /**
+     * Converts the data of a telegram into an openHAB type with the translator of the datapoint type.
+     *
+     * @param datapoint the datapoint
+     * @param data the data of the telegram
+     * @return the openHAB type or {@code null} if the data couldn't be converted
+     */
+    Type translate(Datapoint datapoint, byte[] data) {
+        DPTXlator translator;
+        try {
+            translator = getTranslator(datapoint.getMainNumber(), datapoint.getDPT());
+        } catch (KNXException e) {
+            logger.warn("Failed creating a translator for datapoint type '{}'.", datapoint.getDPT(), e);
+            return null;
+        }
+        synchronized (translator) {
+            return translate(datapoint, translator, data);
+        }
+    }
+
+    private Type translate(Datapoint datapoint, DPTXlator translator, byte[] data) {
+        try {
             String id = translator.getType().getID();
             logger.trace("toType datapoint DPT = {}", datapoint.getDPT());
 
@@ -692,6 +743,8 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                 logger.debug("toType: couldn't identify sub number in dptID: {}.", id);
                 return null;
             }
+            translator.setData(data);
+            String value = translator.getValue();
             /*
              * Following code section deals with specific mapping of values from KNX to openHAB types were the String
              * received from the DPTXlator is not sufficient to set the openHAB type or has bugs
@@ -746,11 +799,7 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
                     if (Math.abs(f) < 100000) {
                         value = String.valueOf(f);
                     } else {
-                        NumberFormat dcf = NumberFormat.getInstance(Locale.US);
-                        if (dcf instanceof DecimalFormat) {
-                            ((DecimalFormat) dcf).applyPattern("0.#####E0");
-                        }
-                        value = dcf.format(f);
+                        value = EXPONENT_FORMAT.get().format(f);
                     }
                     break;
                 case 18:
@@ -841,9 +890,12 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
 
             if (typeClass.equals(HSBType.class)) {
                 // value has format of "r:<red value> g:<green value> b:<blue value>"
-                int r = Integer.parseInt(value.split(" ")[0].split(":")[1]);
-                int g = Integer.parseInt(value.split(" ")[1].split(":")[1]);
-                int b = Integer.parseInt(value.split(" ")[2].split(":")[1]);
+                int gStart = value.indexOf(" g:");
+                int bStart = value.indexOf(" b:", gStart + 1);
+                int r = Integer.parseInt(value.substring(value.indexOf(':') + 1, gStart));
+                int g = Integer.parseInt(value.substring(gStart + 3, bStart));
+                int bEnd = value.indexOf(' ', bStart + 3);
+                int b = Integer.parseInt(value.substring(bStart + 3, bEnd < 0 ? value.length() : bEnd));
 
                 return HSBType.fromRGB(r, g, b);
             }
@@ -854,13 +906,110 @@ public class KNXCoreTypeMapper implements KNXTypeMapper {
         } catch (KNXIllegalArgumentException kiae) {
             logger.info("Translator couldn't parse data for datapoint type '{}' (KNXIllegalArgumentException).",
                     datapoint.getDPT());
-        } catch (KNXException e) {
-            logger.warn("Failed creating a translator for datapoint type '{}'.", datapoint.getDPT(), e);
         }
 
         return null;
     }
 
+    /**
+     * Decodes the data of the most frequent datapoint types directly, without going through the string
+     * representation of the translator. The results are the same as the ones of the translator.
+     *
+     * @param mainNumber the main number of the datapoint type
+     * @param subNumber the sub number of the datapoint type
+     * @param data the data of the telegram
+     * @return the openHAB type or {@code null} if the datapoint type can't be decoded directly or the size of the data
+     *         doesn't match the datapoint type
+     */
+    private Type decode(int mainNumber, int subNumber, byte[] data) {
+        switch (mainNumber) {
+            case 1:
+                if (data.length != 1) {
+                    return null;
+                }
+                boolean bit = (data[0] & 0x01) != 0;
+                switch (subNumber) {
+                    case 8:
+                        return bit ? UpDownType.DOWN : UpDownType.UP;
+                    case 9:
+                    case 19:
+                        return bit ? OpenClosedType.OPEN : OpenClosedType.CLOSED;
+                    case 10:
+                        return bit ? StopMoveType.MOVE : StopMoveType.STOP;
+                    case 22:
+                        return DecimalType.valueOf(bit ? "1" : "0");
+                    default:
+                        return bit ? OnOffType.ON : OnOffType.OFF;
+                }
+            case 5:
+                if (data.length != 1) {
+                    return null;
+                }
+                int unsigned = data[0] & 0xff;
+                switch (subNumber) {
+                    case 1: // * 5.001: Scaling, values: 0...100 %
+                        return new PercentType(BigDecimal.valueOf(Math.round(unsigned * 100.0 / 255)));
+                    case 4: // * 5.004: Percent, values: 0...255 %
+                        return new PercentType(BigDecimal.valueOf(unsigned));
+                    case 5: // * 5.005: Decimal factor
+                    case 6: // * 5.006: Tariff information
+                    case 10: // * 5.010: Counter pulses
+                        return new DecimalType((double) unsigned);
+                    default:
+                        // 5.003 and others are scaled by the translator
+                        return null;
+                }
+            case 9:
+                if (data.length != 2) {
+                    return null;
+                }
+                // MEEEEMMM MMMMMMMM, value is 0.01 * M * 2^E with M as 12 bit two's complement
+                int mantissa = (data[0] & 0x07) << 8 | (data[1] & 0xff);
+                if ((data[0] & 0x80) != 0) {
+                    mantissa -= 0x800;
+                }
+                int exponent = (data[0] & 0x78) >> 3;
+                double value = (1 << exponent) * mantissa * 0.01;
+                if (subNumber == 7) { // * 9.007: Humidity, values: 0...670760 %
+                    return new PercentType(BigDecimal.valueOf(Math.round(value)));
+                }
+                return new DecimalType(value);
+            case 14:
+                if (data.length != 4) {
+                    return null;
+                }
+                int bits = (data[0] & 0xff) << 24 | (data[1] & 0xff) << 16 | (data[2] & 0xff) << 8 | (data[3] & 0xff);
+                return new DecimalType((double) Float.intBitsToFloat(bits));
+            case 232:
+                if (subNumber != 600 || data.length != 3) {
+                    return null;
+                }
+                return HSBType.fromRGB(data[0] & 0xff, data[1] & 0xff, data[2] & 0xff);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Returns the shared translator for a datapoint type. The translator is created on the first use.
+     *
+     * @param mainNumber the main number of the datapoint type, or 0 to take it from the datapoint type id
+     * @param dptID the datapoint type id
+     * @return the translator
+     * @throws KNXException if the datapoint type is not supported
+     */
+    private DPTXlator getTranslator(int mainNumber, String dptID) throws KNXException {
+        DPTXlator translator = translators.get(dptID);
+        if (translator == null) {
+            translator = TranslatorTypes.createTranslator(mainNumber, dptID);
+            DPTXlator previous = translators.putIfAbsent(dptID, translator);
+            if (previous != null) {
+                translator = previous;
+            }
+        }
+        return translator;
+    }
+
     /**
      * Converts a datapoint type id into an openHAB type class
      *
@@ -0,0 +1,273 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.knx.internal.handler.GroupAddressListener;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.IndividualAddress;
+
+/**
+ * Tests cases for {@link BusMessageDispatcher}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class BusMessageDispatcherTest {
+
+    private static final IndividualAddress SOURCE = new IndividualAddress(1, 1, 1);
+
+    /**
+     * Executes the submitted tasks on request, like a busy scheduler
+     */
+    private static class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new LinkedList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private static class TestListener implements GroupAddressListener {
+        final Set<GroupAddress> groupAddresses;
+        final List<GroupAddress> received = new ArrayList<>();
+
+        TestListener(GroupAddress... groupAddresses) {
+            this.groupAddresses = new HashSet<>(Arrays.asList(groupAddresses));
+        }
+
+        @Override
+        public boolean listensTo(GroupAddress destination) {
+            return groupAddresses.contains(destination);
+        }
+
+        @Override
+        public Set<GroupAddress> getGroupAddresses() {
+            return groupAddresses;
+        }
+
+        @Override
+        public void onGroupWrite(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+            received.add(destination);
+        }
+
+        @Override
+        public void onGroupRead(AbstractKNXClient client, IndividualAddress source, GroupAddress destination,
+                byte[] asdu) {
+        }
+
+        @Override
+        public void onGroupReadResponse(AbstractKNXClient client, IndividualAddress source,
+                GroupAddress destination, byte[] asdu) {
+        }
+    }
+
+    private ManualExecutor executor;
+    private BusMessageDispatcher dispatcher;
+
+    @Before
+    public void setUp() {
+        executor = new ManualExecutor();
+        dispatcher = new BusMessageDispatcher(executor);
+    }
+
+    private static int groupWrite(BusMessageDispatcher dispatcher, GroupAddress destination) {
+        byte[] asdu = new byte[] { 1 };
+        return dispatcher.dispatch(destination,
+                listener -> listener.onGroupWrite(null, SOURCE, destination, asdu));
+    }
+
+    @Test
+    public void testDispatch_onlyListenersOfGroupAddress() {
+        GroupAddress ga1 = new GroupAddress(1, 0, 1);
+        GroupAddress ga2 = new GroupAddress(1, 0, 2);
+        TestListener listener1 = new TestListener(ga1);
+        TestListener listener2 = new TestListener(ga1, ga2);
+        assertTrue(dispatcher.register(listener1));
+        assertTrue(dispatcher.register(listener2));
+
+        assertThat(groupWrite(dispatcher, ga2), is(1));
+        assertThat(groupWrite(dispatcher, new GroupAddress(1, 0, 3)), is(0));
+        executor.runAll();
+
+        assertTrue(listener1.received.isEmpty());
+        assertThat(listener2.received, is(Arrays.asList(ga2)));
+    }
+
+    @Test
+    public void testDispatch_burstDeliveredInOneTaskInOrder() {
+        List<GroupAddress> burst = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            burst.add(new GroupAddress(2, 0, i));
+        }
+        TestListener listener = new TestListener(burst.toArray(new GroupAddress[0]));
+        dispatcher.register(listener);
+
+        for (GroupAddress ga : burst) {
+            groupWrite(dispatcher, ga);
+        }
+        assertThat(executor.tasks.size(), is(1));
+        executor.runAll();
+        assertThat(listener.received, is(burst));
+
+        // A new task is scheduled for the next telegram
+        groupWrite(dispatcher, burst.get(0));
+        assertThat(executor.tasks.size(), is(1));
+        assertThat(dispatcher.getScheduledTaskCount(), is(2L));
+    }
+
+    @Test
+    public void testRegister_updatesIndex() {
+        GroupAddress ga1 = new GroupAddress(3, 0, 1);
+        GroupAddress ga2 = new GroupAddress(3, 0, 2);
+        TestListener listener = new TestListener(ga1);
+        assertTrue(dispatcher.register(listener));
+        assertFalse(dispatcher.register(listener));
+
+        listener.groupAddresses.clear();
+        listener.groupAddresses.add(ga2);
+        assertFalse(dispatcher.register(listener));
+        assertThat(groupWrite(dispatcher, ga1), is(0));
+        assertThat(groupWrite(dispatcher, ga2), is(1));
+        assertThat(dispatcher.getListenerCount(), is(1));
+
+        // Pending notifications are dropped on unregister
+        assertTrue(dispatcher.unregister(listener));
+        assertFalse(dispatcher.unregister(listener));
+        executor.runAll();
+        assertTrue(listener.received.isEmpty());
+        assertThat(groupWrite(dispatcher, ga2), is(0));
+    }
+
+    @Test
+    public void testRegister_keepsPendingNotificationsInOrder() {
+        GroupAddress ga1 = new GroupAddress(3, 1, 1);
+        GroupAddress ga2 = new GroupAddress(3, 1, 2);
+        GroupAddress ga3 = new GroupAddress(3, 1, 3);
+        TestListener listener = new TestListener(ga1, ga2);
+        dispatcher.register(listener);
+        groupWrite(dispatcher, ga1);
+        groupWrite(dispatcher, ga2);
+
+        // Registered again while the notifications are pending
+        listener.groupAddresses.remove(ga1);
+        listener.groupAddresses.add(ga3);
+        assertFalse(dispatcher.register(listener));
+        assertThat(groupWrite(dispatcher, ga1), is(0));
+        groupWrite(dispatcher, ga3);
+
+        assertThat(executor.tasks.size(), is(1));
+        executor.runAll();
+        assertThat(listener.received, is(Arrays.asList(ga1, ga2, ga3)));
+    }
+
+    /**
+     * Replays bus traffic of an installation with 250 things and compares asking every listener with one task per
+     * matching listener with the group address index with batched tasks. Both deliver the same notifications, the
+     * index with fewer tasks.
+     *
+     * The traffic is generated with a fixed seed: most telegrams are status updates of a few busy group addresses
+     * like sensors and meters, the others are spread over all group addresses, with some central group addresses
+     * shared by many things.
+     */
+    @Test
+    public void testReplayBusTraffic() {
+        final int thingCount = 250;
+        final int addressesPerThing = 8;
+        final int telegramCount = 50000;
+        final int telegramsPerSchedulerRun = 20;
+        Random random = new Random(4711);
+
+        List<GroupAddress> allAddresses = new ArrayList<>();
+        List<TestListener> listeners = new ArrayList<>();
+        GroupAddress central = new GroupAddress(0, 0, 1);
+        for (int i = 0; i < thingCount; i++) {
+            TestListener listener = new TestListener();
+            for (int j = 0; j < addressesPerThing; j++) {
+                GroupAddress ga = new GroupAddress(1 + i / 100, i % 8, (i % 100) * 2 + j);
+                listener.groupAddresses.add(ga);
+                allAddresses.add(ga);
+            }
+            if (i % 10 == 0) {
+                listener.groupAddresses.add(central);
+            }
+            listeners.add(listener);
+        }
+        allAddresses.add(central);
+        List<GroupAddress> busyAddresses = allAddresses.subList(0, 20);
+        List<GroupAddress> trace = new ArrayList<>(telegramCount);
+        for (int i = 0; i < telegramCount; i++) {
+            List<GroupAddress> source = random.nextInt(10) < 7 ? busyAddresses : allAddresses;
+            trace.add(source.get(random.nextInt(source.size())));
+        }
+
+        // Ask every listener, one task per matching listener
+        Set<GroupAddressListener> listenerSet = new CopyOnWriteArraySet<>(listeners);
+        long legacyTasks = 0;
+        for (GroupAddress destination : trace) {
+            for (GroupAddressListener listener : listenerSet) {
+                if (listener.listensTo(destination)) {
+                    executor.execute(() -> listener.onGroupWrite(null, SOURCE, destination, new byte[] { 1 }));
+                    legacyTasks++;
+                }
+            }
+            if (executor.tasks.size() >= telegramsPerSchedulerRun) {
+                executor.runAll();
+            }
+        }
+        executor.runAll();
+        long legacyDeliveries = listeners.stream().mapToLong(l -> l.received.size()).sum();
+        listeners.forEach(l -> l.received.clear());
+
+        // Group address index, one batched task per listener
+        listeners.forEach(dispatcher::register);
+        long deliveries = 0;
+        int sinceSchedulerRun = 0;
+        for (GroupAddress destination : trace) {
+            deliveries += groupWrite(dispatcher, destination);
+            if (++sinceSchedulerRun >= telegramsPerSchedulerRun) {
+                executor.runAll();
+                sinceSchedulerRun = 0;
+            }
+        }
+        executor.runAll();
+
+        assertThat(deliveries, is(legacyDeliveries));
+        assertThat(listeners.stream().mapToLong(l -> l.received.size()).sum(), is(legacyDeliveries));
+        assertTrue(dispatcher.getScheduledTaskCount() < legacyTasks);
+    }
+}
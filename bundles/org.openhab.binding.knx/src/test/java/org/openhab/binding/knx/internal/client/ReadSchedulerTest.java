@@ -0,0 +1,212 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.knx.internal.client;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+
+/**
+ * Tests cases for {@link ReadScheduler}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class ReadSchedulerTest {
+
+    private static final int RESPONSE_TIMEOUT = 10;
+    private static final int READ_RETRIES_LIMIT = 3;
+    private static final int READING_PAUSE = 50;
+
+    private long now;
+    private ReadScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        now = 0;
+        scheduler = new ReadScheduler(RESPONSE_TIMEOUT, READ_RETRIES_LIMIT, () -> now);
+    }
+
+    private static Datapoint datapoint(int subGroup) {
+        return new CommandDP(new GroupAddress(1, 0, subGroup), "test", 0, "9.001");
+    }
+
+    private static GroupAddress next(ReadScheduler scheduler) {
+        Datapoint datapoint = scheduler.next();
+        return datapoint == null ? null : datapoint.getMainAddress();
+    }
+
+    @Test
+    public void testSchedule_dedupedByGroupAddress() {
+        assertTrue(scheduler.schedule(datapoint(1)));
+        assertFalse(scheduler.schedule(datapoint(1)));
+        assertThat(next(scheduler), is(new GroupAddress(1, 0, 1)));
+        // Awaiting the answer
+        assertFalse(scheduler.schedule(datapoint(1)));
+        assertNull(next(scheduler));
+        assertThat(scheduler.getRequestCount(), is(1L));
+
+        scheduler.valueReceived(new GroupAddress(1, 0, 1));
+        assertThat(scheduler.getAnsweredCount(), is(1L));
+        assertThat(scheduler.getPendingCount(), is(0));
+        assertTrue(scheduler.schedule(datapoint(1)));
+    }
+
+    @Test
+    public void testNext_unknownStatesFirst() {
+        scheduler.valueReceived(new GroupAddress(1, 0, 1));
+        scheduler.schedule(datapoint(1));
+        scheduler.schedule(datapoint(2));
+        assertThat(next(scheduler), is(new GroupAddress(1, 0, 2)));
+        assertThat(next(scheduler), is(new GroupAddress(1, 0, 1)));
+    }
+
+    @Test
+    public void testValueReceived_queuedReadObsolete() {
+        scheduler.schedule(datapoint(1));
+        scheduler.valueReceived(new GroupAddress(1, 0, 1));
+        assertNull(next(scheduler));
+        assertThat(scheduler.getObsoleteCount(), is(1L));
+        assertThat(scheduler.getRequestCount(), is(0L));
+    }
+
+    @Test
+    public void testNext_retriesUnansweredUntilLimit() {
+        scheduler.schedule(datapoint(1));
+        for (int i = 0; i < READ_RETRIES_LIMIT; i++) {
+            assertThat(next(scheduler), is(new GroupAddress(1, 0, 1)));
+            assertNull(next(scheduler));
+            now += TimeUnit.SECONDS.toNanos(RESPONSE_TIMEOUT);
+        }
+        assertNull(next(scheduler));
+        assertThat(scheduler.getRetryCount(), is((long) READ_RETRIES_LIMIT - 1));
+        assertThat(scheduler.getFailedCount(), is(1L));
+        assertThat(scheduler.getPendingCount(), is(0));
+    }
+
+    @Test
+    public void testNext_pacedByConfirmationsAndBusLoad() {
+        for (int i = 0; i < 4; i++) {
+            scheduler.schedule(datapoint(i));
+        }
+        scheduler.confirmationReceived(false);
+        assertThat(scheduler.getPauseFactor(), is(2));
+        assertNotNull(next(scheduler));
+        assertNull(next(scheduler));
+        assertNotNull(next(scheduler));
+
+        scheduler.confirmationReceived(true);
+        assertThat(scheduler.getPauseFactor(), is(1));
+
+        for (int i = 0; i < ReadScheduler.BUSY_TELEGRAMS_PER_SECOND; i++) {
+            scheduler.telegramReceived();
+        }
+        now += TimeUnit.SECONDS.toNanos(1);
+        assertNull(next(scheduler));
+        assertNotNull(next(scheduler));
+        assertThat(scheduler.getBusLoad(), is(ReadScheduler.BUSY_TELEGRAMS_PER_SECOND));
+        assertThat(scheduler.getPauseFactor(), is(2));
+        assertNull(next(scheduler));
+        assertNotNull(next(scheduler));
+    }
+
+    @Test
+    public void testNext_limitedReadsInFlight() {
+        for (int i = 0; i < ReadScheduler.MAX_READS_IN_FLIGHT + 1; i++) {
+            scheduler.schedule(datapoint(i));
+        }
+        for (int i = 0; i < ReadScheduler.MAX_READS_IN_FLIGHT; i++) {
+            assertNotNull(next(scheduler));
+        }
+        assertNull(next(scheduler));
+        scheduler.valueReceived(new GroupAddress(1, 0, 0));
+        assertNotNull(next(scheduler));
+        assertThat(scheduler.getInFlightCount(), is(ReadScheduler.MAX_READS_IN_FLIGHT));
+    }
+
+    /**
+     * Simulates the reading after a restart of 2,000 group addresses, each requested twice by the things, with
+     * 5% of the group addresses never answering. Compares the time until all states are known for one blocking read
+     * per reading pause, like the former queue of the client, and for the scheduler.
+     */
+    @Test
+    public void testStartupStorm() {
+        final int groupAddressCount = 2000;
+        final long answerDelay = TimeUnit.MILLISECONDS.toNanos(40);
+        final long readingPause = TimeUnit.MILLISECONDS.toNanos(READING_PAUSE);
+        final long responseTimeout = TimeUnit.SECONDS.toNanos(RESPONSE_TIMEOUT);
+        Random random = new Random(4711);
+        List<Datapoint> requests = new ArrayList<>();
+        Map<GroupAddress, Integer> indexes = new HashMap<>();
+        boolean[] silent = new boolean[groupAddressCount];
+        int silentCount = 0;
+        for (int i = 0; i < groupAddressCount; i++) {
+            silent[i] = random.nextInt(100) < 5;
+            silentCount += silent[i] ? 1 : 0;
+            GroupAddress groupAddress = new GroupAddress(2, i / 256, i % 256);
+            indexes.put(groupAddress, i);
+            requests.add(new CommandDP(groupAddress, "test", 0, "9.001"));
+        }
+        requests.addAll(new ArrayList<>(requests));
+
+        // One blocking read per reading pause, retries at the tail of the queue
+        long legacyNanos = 0;
+        long legacyRequests = 0;
+        for (int i = 0; i < groupAddressCount; i++) {
+            int attempts = silent[i] ? READ_RETRIES_LIMIT : 1;
+            legacyRequests += attempts;
+            legacyNanos += attempts * (readingPause + (silent[i] ? responseTimeout : answerDelay));
+        }
+
+        // The scheduler, called every reading pause, with the answers arriving after a delay
+        requests.forEach(scheduler::schedule);
+        PriorityQueue<long[]> answers = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        int maxInFlight = 0;
+        while (scheduler.getPendingCount() > 0) {
+            while (!answers.isEmpty() && answers.peek()[0] <= now) {
+                int i = (int) answers.poll()[1];
+                scheduler.valueReceived(new GroupAddress(2, i / 256, i % 256));
+            }
+            Datapoint datapoint = scheduler.next();
+            if (datapoint != null) {
+                scheduler.confirmationReceived(true);
+                int i = indexes.get(datapoint.getMainAddress());
+                if (!silent[i]) {
+                    answers.add(new long[] { now + answerDelay, i });
+                }
+            }
+            maxInFlight = Math.max(maxInFlight, scheduler.getInFlightCount());
+            now += readingPause;
+        }
+
+        assertThat(scheduler.getRequestCount(), is(legacyRequests));
+        assertThat(scheduler.getAnsweredCount(), is((long) groupAddressCount - silentCount));
+        assertThat(scheduler.getFailedCount(), is((long) silentCount));
+        assertTrue(maxInFlight <= ReadScheduler.MAX_READS_IN_FLIGHT);
+        // The simulated time until all states are known
+        assertTrue(now < legacyNanos);
+    }
+}
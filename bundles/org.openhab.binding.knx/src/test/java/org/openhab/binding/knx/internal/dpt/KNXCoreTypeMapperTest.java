@@ -12,11 +12,29 @@
  */
 package org.openhab.binding.knx.internal.dpt;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
 
 import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.types.Type;
 import org.junit.Test;
 
+import tuwien.auto.calimero.GroupAddress;
+import tuwien.auto.calimero.KNXException;
+import tuwien.auto.calimero.datapoint.CommandDP;
+import tuwien.auto.calimero.datapoint.Datapoint;
+import tuwien.auto.calimero.dptxlator.DPT;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes;
+import tuwien.auto.calimero.dptxlator.TranslatorTypes.MainType;
+
 /**
  *
  * @author Simon Kaufmann - initial contribution and API
@@ -24,10 +42,105 @@ import org.junit.Test;
  */
 public class KNXCoreTypeMapperTest {
 
+    private static final GroupAddress GROUP_ADDRESS = new GroupAddress(1, 2, 3);
+
+    private final KNXCoreTypeMapper mapper = new KNXCoreTypeMapper();
+
     @Test
     public void testToDPTValue_trailingZeroesStrippedOff() {
         assertEquals("3", new KNXCoreTypeMapper().toDPTValue(new DecimalType("3"), "17.001"));
         assertEquals("3", new KNXCoreTypeMapper().toDPTValue(new DecimalType("3.0"), "17.001"));
     }
 
+    @Test
+    public void testToType_hotDatapointTypes() {
+        assertEquals(OnOffType.ON, mapper.toType(datapoint(1, "1.001"), new byte[] { 1 }));
+        assertEquals(new PercentType(100), mapper.toType(datapoint(5, "5.001"), new byte[] { (byte) 0xff }));
+        assertEquals(21.5,
+                ((DecimalType) mapper.toType(datapoint(9, "9.001"), new byte[] { 0x0c, 0x33 })).doubleValue(), 0.001);
+        assertEquals(-1.5, ((DecimalType) mapper.toType(datapoint(14, "14.019"),
+                new byte[] { (byte) 0xbf, (byte) 0xc0, 0, 0 })).doubleValue(), 0.001);
+        assertEquals(HSBType.fromRGB(255, 128, 0),
+                mapper.toType(datapoint(232, "232.600"), new byte[] { (byte) 0xff, (byte) 0x80, 0 }));
+    }
+
+    @Test
+    public void testToDPTValue_cachedTranslator() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals("1", mapper.toDPTValue(OnOffType.ON, "1.001"));
+            assertEquals("r:255 g:0 b:0", mapper.toDPTValue(HSBType.fromRGB(255, 0, 0), "232.600"));
+        }
+        assertNull(mapper.toDPTValue(OnOffType.ON, "1.9999"));
+    }
+
+    /**
+     * The direct decoding of the frequent datapoint types must give the same results as the translators, for all
+     * values of the small datapoint types and random values of the others.
+     */
+    @Test
+    public void testToType_directDecodingMatchesTranslator() throws KNXException {
+        Random random = new Random(42);
+        for (DPT dpt : getSupportedDPTs()) {
+            Datapoint datapoint = datapoint(getMainNumber(dpt), dpt.getID());
+            for (byte[] data : samples(dpt, random)) {
+                String message = dpt.getID() + " " + Arrays.toString(data);
+                assertEquals(message, convert(() -> mapper.translate(datapoint, data)),
+                        convert(() -> mapper.toType(datapoint, data)));
+            }
+        }
+    }
+
+    private static Datapoint datapoint(int mainNumber, String dptID) {
+        return new CommandDP(GROUP_ADDRESS, "test", mainNumber, dptID);
+    }
+
+    private static Object convert(Supplier<Type> conversion) {
+        try {
+            return String.valueOf(conversion.get());
+        } catch (RuntimeException e) {
+            return e.getClass();
+        }
+    }
+
+    private List<DPT> getSupportedDPTs() throws KNXException {
+        List<DPT> dpts = new ArrayList<>();
+        for (MainType mainType : TranslatorTypes.getAllMainTypes().values()) {
+            for (DPT dpt : mainType.getSubTypes().values()) {
+                if (mapper.toTypeClass(dpt.getID()) != null) {
+                    dpts.add(dpt);
+                }
+            }
+        }
+        return dpts;
+    }
+
+    private static int getMainNumber(DPT dpt) {
+        return Integer.parseInt(dpt.getID().substring(0, dpt.getID().indexOf('.')));
+    }
+
+    /**
+     * Returns all values of one byte datapoint types and of 2 byte floats or random telegrams of other datapoint types,
+     * and one telegram with an unexpected length.
+     */
+    private static List<byte[]> samples(DPT dpt, Random random) throws KNXException {
+        int mainNumber = getMainNumber(dpt);
+        int size = Math.max(1, TranslatorTypes.createTranslator(mainNumber, dpt.getID()).getTypeSize());
+        List<byte[]> samples = new ArrayList<>();
+        if (size == 1 || mainNumber == 9) {
+            for (int value = 0; value < 1 << (8 * size); value++) {
+                samples.add(size == 1 ? new byte[] { (byte) value } : new byte[] { (byte) (value >> 8), (byte) value });
+            }
+        } else {
+            for (int i = 0; i < 1000; i++) {
+                byte[] data = new byte[size];
+                random.nextBytes(data);
+                samples.add(data);
+            }
+        }
+        byte[] data = new byte[2 * size];
+        random.nextBytes(data);
+        samples.add(data);
+        return samples;
+    }
+
 }
@@ -30,7 +30,10 @@ import org.eclipse.smarthome.core.types.Command;
 import org.eclipse.smarthome.core.types.TypeParser;
 import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
 import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.openhab.binding.mqtt.generic.tools.JsonFieldFanOut;
 import org.openhab.binding.mqtt.generic.values.Value;
+import org.openhab.binding.mqtt.publish.MqttPublishQueue;
+import org.openhab.binding.mqtt.subscription.MqttTopicRouter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +64,7 @@ public class ChannelState implements MqttMessageSubscriber {
     protected boolean hasSubscribed = false;
     private @Nullable ScheduledFuture<?> scheduledFuture;
     private CompletableFuture<@Nullable Void> future = new CompletableFuture<>();
+    private @Nullable JsonFieldFanOut jsonFieldFanOut;
 
     /**
      * Creates a new channel state.
@@ -110,6 +114,27 @@ public class ChannelState implements MqttMessageSubscriber {
     public void clearTransformations() {
         transformationsIn.clear();
         transformationsOut.clear();
+        jsonFieldFanOut = null;
+    }
+
+    /**
+     * Returns the JSON path of the first incoming transformation, if that is a JSONPATH transformation.
+     */
+    public @Nullable String getIncomingJsonPath() {
+        if (transformationsIn.isEmpty() || !"JSONPATH".equals(transformationsIn.get(0).serviceName)) {
+            return null;
+        }
+        return transformationsIn.get(0).pattern;
+    }
+
+    /**
+     * Shares the parsing of JSON payloads with other channels of the same state topic. The fan-out replaces the
+     * first incoming transformation, see {@link #getIncomingJsonPath()}, whenever it can extract a value.
+     *
+     * @param jsonFieldFanOut A fan-out that contains the path of the first incoming transformation
+     */
+    public void setJsonFieldFanOut(@Nullable JsonFieldFanOut jsonFieldFanOut) {
+        this.jsonFieldFanOut = jsonFieldFanOut;
     }
 
     /**
@@ -152,10 +177,22 @@ public class ChannelState implements MqttMessageSubscriber {
             return;
         }
 
-        // String value: Apply transformations
-        String strvalue = new String(payload, StandardCharsets.UTF_8);
-        for (ChannelStateTransformation t : transformationsIn) {
-            strvalue = t.processValue(strvalue);
+        // String value: Apply transformations. The result of a leading JSONPATH transformation might be extracted
+        // from a payload parsed for another channel already.
+        String strvalue = null;
+        int firstTransformation = 0;
+        final JsonFieldFanOut jsonFieldFanOut = this.jsonFieldFanOut;
+        final String jsonPath = getIncomingJsonPath();
+        if (jsonFieldFanOut != null && jsonPath != null) {
+            strvalue = jsonFieldFanOut.extract(payload, jsonPath);
+            firstTransformation = 1;
+        }
+        if (strvalue == null) {
+            strvalue = new String(payload, StandardCharsets.UTF_8);
+            firstTransformation = 0;
+        }
+        for (int i = firstTransformation; i < transformationsIn.size(); i++) {
+            strvalue = transformationsIn.get(i).processValue(strvalue);
         }
 
         // Is trigger?: Special handling
@@ -235,7 +272,11 @@ public class ChannelState implements MqttMessageSubscriber {
     public CompletableFuture<@Nullable Void> stop() {
         final MqttBrokerConnection connection = this.connection;
         if (connection != null && StringUtils.isNotBlank(config.stateTopic)) {
-            return connection.unsubscribe(config.stateTopic, this).thenRun(this::internalStop);
+            final MqttTopicRouter router = MqttTopicRouter.forConnection(connection);
+            final CompletableFuture<Boolean> unsubscribed = router != null
+                    ? router.unsubscribe(config.stateTopic, this)
+                    : connection.unsubscribe(config.stateTopic, this);
+            return unsubscribed.thenRun(this::internalStop);
         } else {
             internalStop();
             return CompletableFuture.completedFuture(null);
@@ -291,7 +332,11 @@ public class ChannelState implements MqttMessageSubscriber {
         }
 
         this.future = new CompletableFuture<>();
-        connection.subscribe(config.stateTopic, this).thenRun(() -> {
+        // Channels reading the same topic share a single subscription, if the broker handler provides a router
+        final MqttTopicRouter router = MqttTopicRouter.forConnection(connection);
+        final CompletableFuture<Boolean> subscribed = router != null ? router.subscribe(config.stateTopic, this)
+                : connection.subscribe(config.stateTopic, this);
+        subscribed.thenRun(() -> {
             hasSubscribed = true;
             logger.debug("Subscribed channel {} to topic: {}", this.channelUID, config.stateTopic);
             if (timeout > 0 && !future.isDone()) {
@@ -353,7 +398,11 @@ public class ChannelState implements MqttMessageSubscriber {
         for (ChannelStateTransformation t : transformationsOut) {
             mqttCommandValue = t.processValue(mqttCommandValue);
         }
-        // Send retained messages if this is a stateful channel
+        // Send retained messages if this is a stateful channel. Use the publish queue of the broker, if configured.
+        final MqttPublishQueue publishQueue = MqttPublishQueue.forConnection(connection);
+        if (publishQueue != null) {
+            return publishQueue.publish(config.commandTopic, mqttCommandValue.getBytes(), 1, config.retained);
+        }
         return connection.publish(config.commandTopic, mqttCommandValue.getBytes(), 1, config.retained);
     }
 
@@ -16,6 +16,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +43,7 @@ import org.openhab.binding.mqtt.generic.ChannelStateTransformation;
 import org.openhab.binding.mqtt.generic.ChannelStateUpdateListener;
 import org.openhab.binding.mqtt.generic.MqttChannelStateDescriptionProvider;
 import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
+import org.openhab.binding.mqtt.generic.tools.JsonFieldFanOut;
 import org.openhab.binding.mqtt.generic.values.Value;
 import org.openhab.binding.mqtt.generic.values.ValueFactory;
 import org.slf4j.Logger;
@@ -143,6 +146,29 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
         return state;
     }
 
+    /**
+     * Channels that read different fields of the same JSON state topic, for example of a zigbee2mqtt device, share a
+     * single parse of each payload instead of running their JSONPATH transformation on their own.
+     */
+    protected void shareJsonParsing() {
+        Map<String, List<ChannelState>> channelsByStateTopic = channelStateByChannelUID.values().stream()
+                .filter(c -> StringUtils.isNotBlank(c.getStateTopic()) && !c.getCache().isBinary())
+                .filter(c -> {
+                    String jsonPath = c.getIncomingJsonPath();
+                    return jsonPath != null && JsonFieldFanOut.isSupported(jsonPath);
+                }).collect(Collectors.groupingBy(ChannelState::getStateTopic));
+        channelsByStateTopic.forEach((topic, channels) -> {
+            if (channels.size() < 2) {
+                return;
+            }
+            Set<String> paths = channels.stream().map(ChannelState::getIncomingJsonPath).filter(Objects::nonNull)
+                    .collect(Collectors.toSet());
+            JsonFieldFanOut fanOut = new JsonFieldFanOut(paths);
+            channels.forEach(c -> c.setJsonFieldFanOut(fanOut));
+            logger.debug("{} channels share the JSON parsing of topic {}", channels.size(), topic);
+        });
+    }
+
     @Override
     public void initialize() {
         List<ChannelUID> configErrors = new ArrayList<>();
@@ -166,6 +192,8 @@ public class GenericMQTTThingHandler extends AbstractMQTTThingHandler implements
             }
         }
 
+        shareJsonParsing();
+
         // If some channels could not start up, put the entire thing offline and display the channels
         // in question to the user.
         if (configErrors.isEmpty()) {
@@ -0,0 +1,215 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Extracts the values of several JSON paths from a MQTT payload with a single streaming parse.
+ *
+ * Channels reading different fields of the same JSON state topic share one instance. The first channel asking for a
+ * field of a payload parses the payload, the following channels get their values from the result of that parse, as
+ * long as they ask for the same payload object.
+ *
+ * Only simple paths like <code>$.device.status.temperature</code>, <code>$['device'].values[2]</code> are supported,
+ * see {@link #isSupported(String)}. Only primitive values are extracted. Numbers are formatted like the JSONPATH
+ * transformation does. For missing fields, <code>null</code>, objects and arrays, and for payloads that are no valid
+ * JSON, no value is returned and the caller should fall back to the regular transformation.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class JsonFieldFanOut {
+    private static final Pattern SIMPLE_PATH = Pattern
+            .compile("\\$(?:\\.[A-Za-z_][\\w-]*|\\['[^'\\\\]+'\\]|\\[\"[^\"\\\\]+\"\\]|\\[\\d+\\])+");
+    private static final Pattern PATH_SEGMENT = Pattern
+            .compile("\\.([A-Za-z_][\\w-]*)|\\['([^'\\\\]+)'\\]|\\[\"([^\"\\\\]+)\"\\]|\\[(\\d+)\\]");
+
+    /**
+     * A node of the tree of requested paths. Object members are stored by name, array elements by their index in
+     * decimal notation.
+     */
+    private static class PathNode {
+        final Map<String, PathNode> children = new HashMap<>();
+        @Nullable
+        String path;
+    }
+
+    private final PathNode root = new PathNode();
+
+    // The payload parsed last and its extracted values
+    private byte @Nullable [] lastPayload;
+    private Map<String, String> lastValues = new HashMap<>();
+    private int parseCount = 0;
+
+    /**
+     * Creates a fan-out for the given paths.
+     *
+     * @param paths Simple JSON paths
+     * @throws IllegalArgumentException If a path is not supported
+     */
+    public JsonFieldFanOut(Collection<String> paths) {
+        for (String path : paths) {
+            PathNode node = root;
+            for (String segment : segments(path)) {
+                node = node.children.computeIfAbsent(segment, s -> new PathNode());
+            }
+            node.path = path;
+        }
+    }
+
+    /**
+     * Returns true if the path only consists of member and array index selectors, without wildcards, filters or deep
+     * scans.
+     *
+     * @param path A JSON path
+     */
+    public static boolean isSupported(String path) {
+        return SIMPLE_PATH.matcher(path).matches();
+    }
+
+    private static List<String> segments(String path) {
+        if (!isSupported(path)) {
+            throw new IllegalArgumentException("Unsupported JSON path " + path);
+        }
+        List<String> segments = new ArrayList<>();
+        Matcher matcher = PATH_SEGMENT.matcher(path);
+        while (matcher.find()) {
+            for (int group = 1; group <= matcher.groupCount(); group++) {
+                String segment = matcher.group(group);
+                if (segment != null) {
+                    segments.add(group == 4 ? String.valueOf(Integer.parseInt(segment)) : segment);
+                    break;
+                }
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Returns the value of the path in the payload. The payload is only parsed if it is not the one of the last call.
+     *
+     * @param payload A MQTT payload, UTF-8 encoded JSON
+     * @param path One of the paths of this fan-out
+     * @return The value as string or null if the value is missing, not a primitive or the payload no valid JSON
+     */
+    public synchronized @Nullable String extract(byte[] payload, String path) {
+        if (payload != lastPayload) {
+            lastValues = parse(payload);
+            lastPayload = payload;
+        }
+        return lastValues.get(path);
+    }
+
+    /**
+     * Returns how often a payload was parsed.
+     */
+    public synchronized int getParseCount() {
+        return parseCount;
+    }
+
+    private Map<String, String> parse(byte[] payload) {
+        parseCount++;
+        Map<String, String> values = new HashMap<>();
+        try (JsonReader reader = new JsonReader(
+                new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8))) {
+            read(reader, root, values);
+        } catch (IOException | JsonParseException | IllegalStateException | NumberFormatException e) {
+            // Not valid JSON: Let the regular transformations deal with the payload
+            values.clear();
+        }
+        return values;
+    }
+
+    /**
+     * Reads the next value of the reader. Only the subtrees of requested paths are visited, everything else is
+     * skipped.
+     */
+    private void read(JsonReader reader, PathNode node, Map<String, String> values) throws IOException {
+        JsonToken token = reader.peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    PathNode child = node.children.get(reader.nextName());
+                    if (child == null) {
+                        reader.skipValue();
+                    } else {
+                        read(reader, child, values);
+                    }
+                }
+                reader.endObject();
+                break;
+            case BEGIN_ARRAY:
+                reader.beginArray();
+                for (int index = 0; reader.hasNext(); index++) {
+                    PathNode child = node.children.get(String.valueOf(index));
+                    if (child == null) {
+                        reader.skipValue();
+                    } else {
+                        read(reader, child, values);
+                    }
+                }
+                reader.endArray();
+                break;
+            case STRING:
+                store(node, reader.nextString(), values);
+                break;
+            case NUMBER:
+                store(node, formatNumber(reader.nextString()), values);
+                break;
+            case BOOLEAN:
+                store(node, String.valueOf(reader.nextBoolean()), values);
+                break;
+            default:
+                reader.skipValue();
+                break;
+        }
+    }
+
+    private static void store(PathNode node, String value, Map<String, String> values) {
+        final String path = node.path;
+        if (path != null) {
+            values.put(path, value);
+        }
+    }
+
+    /**
+     * Formats a number literal like the JSONPATH transformation: Integral numbers without fraction and exponent,
+     * decimal numbers as double value.
+     */
+    private static String formatNumber(String literal) {
+        if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+            return new BigInteger(literal).toString();
+        }
+        return String.valueOf(Double.parseDouble(literal));
+    }
+}
@@ -19,11 +19,17 @@ import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.openhab.binding.mqtt.generic.internal.handler.ThingChannelConstants.*;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import javax.naming.ConfigurationException;
 
 import org.eclipse.smarthome.config.core.Configuration;
+import org.eclipse.smarthome.core.thing.Channel;
+import org.eclipse.smarthome.core.thing.ChannelUID;
 import org.eclipse.smarthome.core.thing.Thing;
 import org.eclipse.smarthome.core.thing.ThingStatus;
 import org.eclipse.smarthome.core.thing.ThingStatusDetail;
@@ -132,4 +138,30 @@ public class ChannelStateTransformationTests {
         verify(callback).stateUpdated(eq(textChannelUID), argThat(arg -> "23.2".equals(arg.toString())));
         assertThat(channelConfig.getCache().getChannelState().toString(), is("23.2"));
     }
+
+    @SuppressWarnings("null")
+    @Test
+    public void processMessageWithSharedJsonParsing() throws Exception {
+        Map<String, Object> data = new HashMap<>();
+        data.put("stateTopic", "test/state");
+        data.put("transformationPattern", "JSONPATH:$.device.status.humidity");
+        List<Channel> channels = new ArrayList<>(thingChannelListWithJson);
+        channels.add(cb("humidity", "NumberType", new Configuration(data), numberChannel));
+        when(thing.getChannels()).thenReturn(channels);
+
+        thingHandler.initialize();
+        ChannelState temperature = thingHandler.getChannelState(textChannelUID);
+        ChannelState humidity = thingHandler.getChannelState(new ChannelUID(testGenericThing, "humidity"));
+        temperature.setChannelStateUpdateListener(thingHandler);
+        humidity.setChannelStateUpdateListener(thingHandler);
+
+        byte payload[] = "{ \"device\": { \"status\": { \"temperature\": 23.2, \"humidity\": 48 }}}".getBytes();
+        temperature.processMessage(temperature.getStateTopic(), payload);
+        humidity.processMessage(humidity.getStateTopic(), payload);
+
+        // The payload is parsed once for both channels, the transformation service is not involved
+        verify(jsonPathService, never()).transform(any(), any());
+        assertThat(temperature.getCache().getChannelState().toString(), is("23.2"));
+        assertThat(humidity.getCache().getChannelState().toString(), is("48"));
+    }
 }
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.generic.tools;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Tests cases for {@link JsonFieldFanOut}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class JsonFieldFanOutTests {
+    private static final String ZIGBEE_PAYLOAD = "{\"battery\":97,\"voltage\":3005,\"temperature\":21.50,"
+            + "\"humidity\":48.2,\"pressure\":1013,\"linkquality\":65,\"contact\":true,\"state\":\"ON\","
+            + "\"update\":{\"state\":\"idle\"},\"color\":{\"x\":0.7,\"y\":0.2},\"values\":[1,2,3],\"name\":null}";
+
+    private static byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void supportedPaths() {
+        assertThat(JsonFieldFanOut.isSupported("$.device.status.temperature"), is(true));
+        assertThat(JsonFieldFanOut.isSupported("$['device'].values[2]"), is(true));
+        assertThat(JsonFieldFanOut.isSupported("$[\"a b\"]"), is(true));
+        assertThat(JsonFieldFanOut.isSupported("$"), is(false));
+        assertThat(JsonFieldFanOut.isSupported("$..temperature"), is(false));
+        assertThat(JsonFieldFanOut.isSupported("$.values[*]"), is(false));
+        assertThat(JsonFieldFanOut.isSupported("$.values[?(@ > 1)]"), is(false));
+        assertThat(JsonFieldFanOut.isSupported("device.status"), is(false));
+    }
+
+    @Test
+    public void extractsValuesWithOneParse() {
+        JsonFieldFanOut fanOut = new JsonFieldFanOut(Arrays.asList("$.battery", "$.temperature", "$.contact",
+                "$.state", "$.update.state", "$['color'].x", "$.values[1]", "$.name", "$.color", "$.missing"));
+        byte[] payload = bytes(ZIGBEE_PAYLOAD);
+
+        assertThat(fanOut.extract(payload, "$.battery"), is("97"));
+        assertThat(fanOut.extract(payload, "$.temperature"), is("21.5"));
+        assertThat(fanOut.extract(payload, "$.contact"), is("true"));
+        assertThat(fanOut.extract(payload, "$.state"), is("ON"));
+        assertThat(fanOut.extract(payload, "$.update.state"), is("idle"));
+        assertThat(fanOut.extract(payload, "$['color'].x"), is("0.7"));
+        assertThat(fanOut.extract(payload, "$.values[1]"), is("2"));
+        // Values left to the regular transformation
+        assertThat(fanOut.extract(payload, "$.name"), is(nullValue()));
+        assertThat(fanOut.extract(payload, "$.color"), is(nullValue()));
+        assertThat(fanOut.extract(payload, "$.missing"), is(nullValue()));
+        assertThat(fanOut.getParseCount(), is(1));
+
+        // A new payload is parsed again, even with equal content
+        assertThat(fanOut.extract(bytes(ZIGBEE_PAYLOAD), "$.battery"), is("97"));
+        assertThat(fanOut.getParseCount(), is(2));
+    }
+
+    @Test
+    public void invalidJson() {
+        JsonFieldFanOut fanOut = new JsonFieldFanOut(Arrays.asList("$.state"));
+        assertThat(fanOut.extract(bytes("ON"), "$.state"), is(nullValue()));
+        assertThat(fanOut.extract(bytes("{\"state\":"), "$.state"), is(nullValue()));
+        assertThat(fanOut.extract(bytes("[\"state\"]"), "$.state"), is(nullValue()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedPath() {
+        new JsonFieldFanOut(Arrays.asList("$..state"));
+    }
+
+    /**
+     * 15 channels read fields of the same topic. Compares a parse per channel, like the JSONPATH transformation of
+     * every channel does, with a single shared parse for a synthetic load of 1000 messages.
+     */
+    @Test
+    public void sharedParseWithFifteenChannels() {
+        final int messageCount = 1000;
+        List<String> fields = Arrays.asList("battery", "voltage", "temperature", "humidity", "pressure",
+                "linkquality", "contact", "state");
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < 15; i++) {
+            paths.add(i < fields.size() ? "$." + fields.get(i) : "$.update.state");
+        }
+        List<byte[]> payloads = new ArrayList<>();
+        for (int i = 0; i < messageCount; i++) {
+            payloads.add(bytes(ZIGBEE_PAYLOAD.replace("\"voltage\":3005", "\"voltage\":" + (3000 + i))));
+        }
+
+        List<String> perChannelValues = new ArrayList<>();
+        for (byte[] payload : payloads) {
+            for (String path : paths) {
+                JsonElement element = new JsonParser().parse(new String(payload, StandardCharsets.UTF_8));
+                for (String field : path.substring(2).split("\\.")) {
+                    element = element.getAsJsonObject().get(field);
+                }
+                // Decimal numbers are formatted as double value, like by the JSONPATH transformation
+                JsonPrimitive value = element.getAsJsonPrimitive();
+                if (value.isNumber() && value.getAsString().contains(".")) {
+                    perChannelValues.add(String.valueOf(value.getAsDouble()));
+                } else {
+                    perChannelValues.add(value.getAsString());
+                }
+            }
+        }
+
+        JsonFieldFanOut fanOut = new JsonFieldFanOut(paths);
+        List<String> sharedValues = new ArrayList<>();
+        for (byte[] payload : payloads) {
+            for (String path : paths) {
+                sharedValues.add(fanOut.extract(payload, path));
+            }
+        }
+
+        assertThat(sharedValues, is(perChannelValues));
+        assertThat(fanOut.getParseCount(), is(messageCount));
+    }
+}
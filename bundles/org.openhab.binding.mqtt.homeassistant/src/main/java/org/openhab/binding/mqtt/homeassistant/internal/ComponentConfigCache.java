@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.storage.Storage;
+import org.eclipse.smarthome.core.storage.StorageService;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+
+/**
+ * Caches the HomeAssistant component configurations received on the "config" topics of a broker connection,
+ * keyed by the broker bridge and the topic.
+ *
+ * A configuration is identified by the hash code of its JSON string, like {@link AbstractComponent#getConfigHash()}.
+ * Retained configurations received again after a restart are recognized as unchanged and do not need to be parsed
+ * again. The configurations are persisted with the {@link StorageService}, if available, so Things can build their
+ * components from the cache right away on startup.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@Component(service = ComponentConfigCache.class)
+@NonNullByDefault
+public class ComponentConfigCache {
+    static final String STORAGE_NAME = "mqtt.homeassistant.components";
+    private static final String KEY_SEPARATOR = " ";
+
+    private final Logger logger = LoggerFactory.getLogger(ComponentConfigCache.class);
+
+    private static class Entry {
+        final String configJSON;
+        final int configHash;
+        @Nullable
+        BaseChannelConfiguration baseConfiguration;
+
+        Entry(String configJSON) {
+            this.configJSON = configJSON;
+            this.configHash = configJSON.hashCode();
+        }
+
+        boolean matches(String configJSON) {
+            return configHash == configJSON.hashCode() && this.configJSON.equals(configJSON);
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile @Nullable Storage<String> storage;
+
+    @Reference(cardinality = ReferenceCardinality.OPTIONAL, policy = ReferencePolicy.DYNAMIC)
+    public void setStorageService(StorageService storageService) {
+        Storage<String> storage = storageService.getStorage(STORAGE_NAME, getClass().getClassLoader());
+        for (String key : storage.getKeys()) {
+            String configJSON = storage.get(key);
+            if (configJSON != null) {
+                entries.putIfAbsent(key, new Entry(configJSON));
+            }
+        }
+        // Persist configurations received before the storage was available
+        entries.forEach((key, entry) -> {
+            if (!entry.configJSON.equals(storage.get(key))) {
+                storage.put(key, entry.configJSON);
+            }
+        });
+        logger.debug("Restored {} HomeAssistant component configurations", entries.size());
+        this.storage = storage;
+    }
+
+    public void unsetStorageService(StorageService storageService) {
+        this.storage = null;
+    }
+
+    private static String key(ThingUID bridgeUID, String topic) {
+        return bridgeUID.getAsString() + KEY_SEPARATOR + topic;
+    }
+
+    /**
+     * Stores the configuration of a topic, if it is new or changed.
+     *
+     * @param bridgeUID The broker bridge
+     * @param topic A HomeAssistant "config" topic
+     * @param configJSON The received configuration
+     * @return True if the configuration is new or changed
+     */
+    public boolean update(ThingUID bridgeUID, String topic, String configJSON) {
+        String key = key(bridgeUID, topic);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.matches(configJSON)) {
+            return false;
+        }
+        entries.put(key, new Entry(configJSON));
+        final Storage<String> storage = this.storage;
+        if (storage != null) {
+            storage.put(key, configJSON);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the base properties of the configuration of a topic. The configuration is only parsed if it is not
+     * known yet or changed.
+     *
+     * @param bridgeUID The broker bridge
+     * @param topic A HomeAssistant "config" topic
+     * @param configJSON The received configuration
+     * @param gson A Gson instance able to parse component configurations
+     * @return The base configuration
+     */
+    public BaseChannelConfiguration getBaseConfiguration(ThingUID bridgeUID, String topic, String configJSON,
+            Gson gson) {
+        update(bridgeUID, topic, configJSON);
+        Entry entry = entries.get(key(bridgeUID, topic));
+        if (entry == null || !entry.matches(configJSON)) {
+            // Replaced concurrently
+            return BaseChannelConfiguration.fromString(configJSON, gson);
+        }
+        BaseChannelConfiguration baseConfiguration = entry.baseConfiguration;
+        if (baseConfiguration == null) {
+            baseConfiguration = BaseChannelConfiguration.fromString(configJSON, gson);
+            entry.baseConfiguration = baseConfiguration;
+        }
+        return baseConfiguration;
+    }
+
+    /**
+     * Removes the configuration of a topic.
+     *
+     * @param bridgeUID The broker bridge
+     * @param topic A HomeAssistant "config" topic
+     */
+    public void remove(ThingUID bridgeUID, String topic) {
+        String key = key(bridgeUID, topic);
+        if (entries.remove(key) != null) {
+            final Storage<String> storage = this.storage;
+            if (storage != null) {
+                storage.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached configurations of all components of a HomeAssistant object.
+     *
+     * @param bridgeUID The broker bridge
+     * @param objectID The object, the component of the ID is ignored. See {@link HaID#fromConfig(HandlerConfiguration)}.
+     * @return The configuration JSON strings by "config" topic
+     */
+    public Map<String, String> getComponentConfigs(ThingUID bridgeUID, HaID objectID) {
+        String prefix = bridgeUID.getAsString() + KEY_SEPARATOR;
+        Map<String, String> configs = new HashMap<>();
+        entries.forEach((key, entry) -> {
+            if (!key.startsWith(prefix)) {
+                return;
+            }
+            String topic = key.substring(prefix.length());
+            try {
+                HaID haID = new HaID(topic);
+                if (haID.baseTopic.equals(objectID.baseTopic) && haID.nodeID.equals(objectID.nodeID)
+                        && haID.objectID.equals(objectID.objectID)) {
+                    configs.put(topic, entry.configJSON);
+                }
+            } catch (IllegalArgumentException e) {
+                logger.debug("Ignoring cached configuration of invalid topic {}", topic);
+            }
+        });
+        return configs;
+    }
+
+    /**
+     * Returns the number of cached configurations.
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -13,7 +13,12 @@
 package org.openhab.binding.mqtt.homeassistant.internal;
 
 import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -38,6 +43,12 @@ import com.google.gson.Gson;
  */
 @NonNullByDefault
 public class DiscoverComponents implements MqttMessageSubscriber {
+    /**
+     * The time in milliseconds after subscribing, in which the retained configurations of components restored from
+     * the cache have to be received again. Used if the discovery is not time limited.
+     */
+    static final int CACHE_CONFIRMATION_TIME = 10000;
+
     private final Logger logger = LoggerFactory.getLogger(DiscoverComponents.class);
     private final ThingUID thingUID;
     private final ScheduledExecutorService scheduler;
@@ -53,11 +64,27 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     private int discoverTime;
     private String topic = "";
 
+    // The configuration hashes of the components found so far, by "config" topic. Unchanged configurations are
+    // skipped, for example the retained configurations received again after subscribing.
+    private final Map<String, Integer> processedConfigHashes = new ConcurrentHashMap<>();
+    private @Nullable ComponentConfigCache configCache;
+    private @Nullable ThingUID bridgeUID;
+    // The components restored from the cache by "config" topic, that have not been received again since
+    private final Map<String, AbstractComponent<?>> unconfirmedCachedComponents = new ConcurrentHashMap<>();
+    private @Nullable ScheduledFuture<?> cacheExpiryFuture;
+
     /**
      * Implement this to get notified of new components
      */
     public static interface ComponentDiscovered {
         void componentDiscovered(HaID homeAssistantTopicID, AbstractComponent<?> component);
+
+        /**
+         * Called for a component restored from the cache, that has not been announced again. The component has been
+         * removed while the binding was not running.
+         */
+        default void componentRemoved(HaID homeAssistantTopicID, AbstractComponent<?> component) {
+        }
     }
 
     /**
@@ -83,10 +110,33 @@ public class DiscoverComponents implements MqttMessageSubscriber {
             return;
         }
         HaID haID = new HaID(topic);
-        String config = new String(payload);
+        String config = new String(payload, StandardCharsets.UTF_8);
+        unconfirmedCachedComponents.remove(topic);
+        final ComponentConfigCache configCache = this.configCache;
+        final ThingUID bridgeUID = this.bridgeUID;
+        if (payload.length == 0) {
+            // An empty retained message removes the component
+            if (configCache != null && bridgeUID != null) {
+                configCache.remove(bridgeUID, topic);
+            }
+            processedConfigHashes.remove(topic);
+            logger.trace("Configuration of HomeAssistant thing {} component {} removed", haID.objectID,
+                    haID.component);
+            return;
+        }
+        if (configCache != null && bridgeUID != null) {
+            configCache.update(bridgeUID, topic, config);
+        }
+        Integer processedConfigHash = processedConfigHashes.get(topic);
+        if (processedConfigHash != null && processedConfigHash == config.hashCode()) {
+            logger.trace("Configuration of HomeAssistant thing {} component {} unchanged", haID.objectID,
+                    haID.component);
+            return;
+        }
         AbstractComponent<?> component = CFactory.createComponent(thingUID, haID, config, updateListener, gson,
                 transformationServiceProvider);
         if (component != null) {
+            processedConfigHashes.put(topic, component.getConfigHash());
             logger.trace("Found HomeAssistant thing {} component {}", haID.objectID, haID.component);
             if (discoveredListener != null) {
                 discoveredListener.componentDiscovered(haID, component);
@@ -96,6 +146,42 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         }
     }
 
+    /**
+     * Creates the components of a HomeAssistant object from the cached configurations, without waiting for the
+     * configuration topics. The cache is also kept up to date with the configurations received by
+     * {@link #startDiscovery(MqttBrokerConnection, int, HaID, ComponentDiscovered)} from now on. Cached
+     * configurations that are not received again within the discovery time after subscribing, or within
+     * {@link #CACHE_CONFIRMATION_TIME} if the discovery is not time limited, are removed from the cache.
+     *
+     * @param configCache The component configuration cache
+     * @param bridgeUID The broker bridge of the Thing
+     * @param topicDescription Contains the object-id (=device id) and potentially a node-id as well.
+     * @return The components created from the cache
+     */
+    public List<AbstractComponent<?>> restoreFromCache(ComponentConfigCache configCache, ThingUID bridgeUID,
+            HaID topicDescription) {
+        this.configCache = configCache;
+        this.bridgeUID = bridgeUID;
+
+        List<AbstractComponent<?>> components = new ArrayList<>();
+        configCache.getComponentConfigs(bridgeUID, topicDescription).forEach((configTopic, config) -> {
+            Integer processedConfigHash = processedConfigHashes.get(configTopic);
+            if (processedConfigHash != null && processedConfigHash == config.hashCode()) {
+                return;
+            }
+            AbstractComponent<?> component = CFactory.createComponent(thingUID, new HaID(configTopic), config,
+                    updateListener, gson, transformationServiceProvider);
+            if (component != null) {
+                processedConfigHashes.put(configTopic, component.getConfigHash());
+                unconfirmedCachedComponents.put(configTopic, component);
+                components.add(component);
+            }
+        });
+        logger.debug("Restored {} components of HomeAssistant thing {} from cache", components.size(),
+                topicDescription.objectID);
+        return components;
+    }
+
     /**
      * Start a components discovery.
      *
@@ -129,6 +215,11 @@ public class DiscoverComponents implements MqttMessageSubscriber {
     }
 
     private void subscribeSuccess() {
+        // The retained configurations are received right after subscribing
+        if (!unconfirmedCachedComponents.isEmpty()) {
+            this.cacheExpiryFuture = scheduler.schedule(this::expireUnconfirmedCachedConfigs,
+                    discoverTime > 0 ? discoverTime : CACHE_CONFIRMATION_TIME, TimeUnit.MILLISECONDS);
+        }
         final MqttBrokerConnection connection = connectionRef.get();
         // Set up a scheduled future that will stop the discovery after the given time
         if (connection != null && discoverTime > 0) {
@@ -144,12 +235,44 @@ public class DiscoverComponents implements MqttMessageSubscriber {
         }
     }
 
+    /**
+     * Removes the cached configurations restored by {@link #restoreFromCache(ComponentConfigCache, ThingUID, HaID)},
+     * that have not been received again. The components have been removed while the binding was not running, the
+     * discovery listener is informed to remove them as well.
+     */
+    void expireUnconfirmedCachedConfigs() {
+        this.cacheExpiryFuture = null;
+        final ComponentConfigCache configCache = this.configCache;
+        final ThingUID bridgeUID = this.bridgeUID;
+        if (configCache == null || bridgeUID == null) {
+            return;
+        }
+        final ComponentDiscovered discoveredListener = this.discoveredListener;
+        for (String configTopic : unconfirmedCachedComponents.keySet()) {
+            AbstractComponent<?> component = unconfirmedCachedComponents.remove(configTopic);
+            if (component == null) {
+                continue; // Received meanwhile
+            }
+            logger.debug("Removing cached configuration of {}, it has not been received again", configTopic);
+            configCache.remove(bridgeUID, configTopic);
+            processedConfigHashes.remove(configTopic);
+            if (discoveredListener != null) {
+                discoveredListener.componentRemoved(new HaID(configTopic), component);
+            }
+        }
+    }
+
     private @Nullable Void subscribeFail(Throwable e) {
         final ScheduledFuture<?> scheduledFuture = this.stopDiscoveryFuture;
         if (scheduledFuture != null) { // Cancel timeout
             scheduledFuture.cancel(false);
             this.stopDiscoveryFuture = null;
         }
+        final ScheduledFuture<?> cacheExpiryFuture = this.cacheExpiryFuture;
+        if (cacheExpiryFuture != null) {
+            cacheExpiryFuture.cancel(false);
+            this.cacheExpiryFuture = null;
+        }
         this.discoveredListener = null;
         final MqttBrokerConnection connection = connectionRef.get();
         if (connection != null) {
@@ -34,6 +34,7 @@ import org.openhab.binding.mqtt.discovery.MQTTTopicDiscoveryService;
 import org.openhab.binding.mqtt.homeassistant.generic.internal.MqttBindingConstants;
 import org.openhab.binding.mqtt.homeassistant.internal.BaseChannelConfiguration;
 import org.openhab.binding.mqtt.homeassistant.internal.ChannelConfigurationTypeAdapterFactory;
+import org.openhab.binding.mqtt.homeassistant.internal.ComponentConfigCache;
 import org.openhab.binding.mqtt.homeassistant.internal.HaID;
 import org.openhab.binding.mqtt.homeassistant.internal.HandlerConfiguration;
 import org.osgi.service.component.annotations.Component;
@@ -93,6 +94,18 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         this.mqttTopicDiscovery = null;
     }
 
+    @NonNullByDefault({})
+    protected ComponentConfigCache configCache;
+
+    @Reference
+    public void setComponentConfigCache(ComponentConfigCache configCache) {
+        this.configCache = configCache;
+    }
+
+    public void unsetComponentConfigCache(ComponentConfigCache configCache) {
+        this.configCache = null;
+    }
+
     @Override
     protected MQTTTopicDiscoveryService getDiscoveryService() {
         return mqttTopicDiscovery;
@@ -132,6 +145,10 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         // We will of course find multiple of the same unique Thing IDs, for each different component another one.
         // Therefore the components are assembled into a list and given to the DiscoveryResult label for the user to
         // easily recognize object capabilities.
+        // Keep the component configuration cache up to date. Unchanged configurations are not parsed again.
+        final String configJSON = new String(payload, StandardCharsets.UTF_8);
+        configCache.update(connectionBridge, topic, configJSON);
+
         HaID topicParts = determineTopicParts(topic);
         final String thingID = topicParts.objectID;
         final ThingUID thingUID = new ThingUID(MqttBindingConstants.HOMEASSISTANT_MQTT_THING, connectionBridge,
@@ -157,8 +174,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         final String componentNames = components.stream().map(c -> HA_COMP_TO_NAME.getOrDefault(c, c))
                 .collect(Collectors.joining(","));
 
-        BaseChannelConfiguration config = BaseChannelConfiguration
-                .fromString(new String(payload, StandardCharsets.UTF_8), gson);
+        BaseChannelConfiguration config = configCache.getBaseConfiguration(connectionBridge, topic, configJSON, gson);
 
         Map<String, Object> properties = new HashMap<>();
         HandlerConfiguration handlerConfig = topicParts.toHandlerConfiguration();
@@ -177,6 +193,7 @@ public class HomeAssistantDiscovery extends AbstractMQTTDiscovery {
         if (!topic.endsWith("/config")) {
             return;
         }
+        configCache.remove(connectionBridge, topic);
         final String thingID = determineTopicParts(topic).objectID;
         componentsPerThingID.remove(thingID);
         thingRemoved(new ThingUID(MqttBindingConstants.HOMEASSISTANT_MQTT_THING, connectionBridge, thingID));
@@ -41,6 +41,7 @@ import org.openhab.binding.mqtt.homeassistant.internal.AbstractComponent;
 import org.openhab.binding.mqtt.homeassistant.internal.CChannel;
 import org.openhab.binding.mqtt.homeassistant.internal.CFactory;
 import org.openhab.binding.mqtt.homeassistant.internal.ChannelConfigurationTypeAdapterFactory;
+import org.openhab.binding.mqtt.homeassistant.internal.ComponentConfigCache;
 import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents;
 import org.openhab.binding.mqtt.homeassistant.internal.HaID;
 import org.openhab.binding.mqtt.homeassistant.internal.HandlerConfiguration;
@@ -57,7 +58,8 @@ import com.google.gson.GsonBuilder;
  * adds any new appearing components over time.<br>
  * <br>
  *
- * The specification does not cover the case of disappearing Components. This handler doesn't as well therefore.<br>
+ * The specification does not cover the case of disappearing Components. Only Components restored from the
+ * configuration cache, that are not announced again, are removed together with their channels.<br>
  * <br>
  *
  * A Component Instance equals an ESH Channel Group and the Component parts equal ESH Channels.<br>
@@ -84,6 +86,7 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
     private HaID discoveryHomeAssistantID = new HaID();
 
     protected final TransformationServiceProvider transformationServiceProvider;
+    protected final @Nullable ComponentConfigCache configCache;
 
     /**
      * Create a new thing handler for HomeAssistant MQTT components.
@@ -93,11 +96,14 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
      * @param channelTypeProvider A channel type provider
      * @param subscribeTimeout Timeout for the entire tree parsing and subscription. In milliseconds.
      * @param attributeReceiveTimeout The timeout per attribute field subscription. In milliseconds.
+     * @param configCache A cache of component configurations to create components from without waiting for the
+     *            configuration topics. Can be null.
      */
     public HomeAssistantThingHandler(Thing thing, MqttChannelTypeProvider channelTypeProvider,
             TransformationServiceProvider transformationServiceProvider, int subscribeTimeout,
-            int attributeReceiveTimeout) {
+            int attributeReceiveTimeout, @Nullable ComponentConfigCache configCache) {
         super(thing, subscribeTimeout);
+        this.configCache = configCache;
         this.gson = new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory()).create();
         this.channelTypeProvider = channelTypeProvider;
         this.transformationServiceProvider = transformationServiceProvider;
@@ -190,6 +196,20 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
                     return null;
                 });
 
+        // Components with cached configurations are added right away. The discovery below only adds new and changed
+        // components then.
+        final ComponentConfigCache configCache = this.configCache;
+        final ThingUID bridgeUID = thing.getBridgeUID();
+        if (configCache != null && bridgeUID != null) {
+            future = future.thenRun(() -> {
+                List<AbstractComponent<?>> cached = discoverComponents.restoreFromCache(configCache, bridgeUID,
+                        discoveryHomeAssistantID);
+                if (!cached.isEmpty()) {
+                    accept(cached);
+                }
+            });
+        }
+
         return future
                 .thenCompose(b -> discoverComponents.startDiscovery(connection, 0, discoveryHomeAssistantID, this));
     }
@@ -231,6 +251,36 @@ public class HomeAssistantThingHandler extends AbstractMQTTThingHandler
         delayedProcessing.accept(component);
     }
 
+    /**
+     * Callback of {@link DiscoverComponents}.
+     * Remove a component restored from the cache, that has not been announced again, and its channels from the Thing.
+     */
+    @Override
+    public void componentRemoved(HaID homeAssistantTopicID, AbstractComponent<?> component) {
+        AbstractComponent<?> known;
+        List<Channel> channels = new ArrayList<>();
+        synchronized (haComponents) { // sync whenever discoverComponents is started
+            known = haComponents.get(component.uid().getId());
+            // A newer configuration may have replaced the cached one meanwhile
+            if (known == null || known.getConfigHash() != component.getConfigHash()) {
+                return;
+            }
+            haComponents.remove(component.uid().getId());
+
+            for (AbstractComponent<?> e : haComponents.values()) {
+                for (CChannel entry : e.channelTypes().values()) {
+                    channels.add(entry.getChannel());
+                }
+            }
+        }
+
+        // Don't wait for the future to complete. We are also not interested in failures.
+        known.stop();
+        known.removeChannelTypes(channelTypeProvider);
+        channelTypeProvider.removeChannelGroupType(known.groupTypeUID());
+        updateThing(editThing().withChannels(channels).build());
+    }
+
     /**
      * Callback of {@link DelayedBatchProcessing}.
      * Add all newly discovered components to the Thing and start the components.
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.homeassistant.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.core.storage.Storage;
+import org.eclipse.smarthome.core.storage.StorageService;
+import org.eclipse.smarthome.core.thing.ThingUID;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openhab.binding.mqtt.generic.TransformationServiceProvider;
+import org.openhab.binding.mqtt.homeassistant.internal.DiscoverComponents.ComponentDiscovered;
+import org.openhab.binding.mqtt.homeassistant.generic.internal.MqttBindingConstants;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Tests cases for {@link ComponentConfigCache} and the use of the cache by {@link DiscoverComponents}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class ComponentConfigCacheTests {
+    private static final ThingUID BRIDGE_UID = new ThingUID("mqtt", "broker", "local");
+    private static final String SWITCH_TOPIC = "homeassistant/switch/node/lamp/config";
+    private static final String SENSOR_TOPIC = "homeassistant/sensor/node/lamp/config";
+    private static final String OTHER_TOPIC = "homeassistant/switch/other/config";
+    private static final String SWITCH_CONFIG = "{\"name\":\"Lamp\",\"state_topic\":\"lamp/state\","
+            + "\"command_topic\":\"lamp/set\"}";
+    private static final String SENSOR_CONFIG = "{\"name\":\"Power\",\"state_topic\":\"lamp/power\"}";
+
+    private final Gson gson = new GsonBuilder().registerTypeAdapterFactory(new ChannelConfigurationTypeAdapterFactory())
+            .create();
+
+    /**
+     * A storage service with a map backed storage
+     */
+    @SuppressWarnings("unchecked")
+    private static StorageService storageService(Map<String, String> data) {
+        Storage<String> storage = mock(Storage.class);
+        when(storage.getKeys()).thenAnswer(i -> new ArrayList<>(data.keySet()));
+        when(storage.get(anyString())).thenAnswer(i -> data.get(i.getArgument(0)));
+        when(storage.put(anyString(), anyString())).thenAnswer(i -> data.put(i.getArgument(0), i.getArgument(1)));
+        when(storage.remove(anyString())).thenAnswer(i -> data.remove(i.getArgument(0)));
+        StorageService storageService = mock(StorageService.class);
+        doReturn(storage).when(storageService).getStorage(anyString(), any());
+        return storageService;
+    }
+
+    @Test
+    public void updateDetectsChanges() {
+        ComponentConfigCache cache = new ComponentConfigCache();
+        assertThat(cache.update(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG), is(true));
+        assertThat(cache.update(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG), is(false));
+        assertThat(cache.update(BRIDGE_UID, SWITCH_TOPIC, SENSOR_CONFIG), is(true));
+        assertThat(cache.update(new ThingUID("mqtt", "broker", "other"), SWITCH_TOPIC, SENSOR_CONFIG), is(true));
+        assertThat(cache.size(), is(2));
+
+        cache.remove(BRIDGE_UID, SWITCH_TOPIC);
+        assertThat(cache.size(), is(1));
+        assertThat(cache.update(BRIDGE_UID, SWITCH_TOPIC, SENSOR_CONFIG), is(true));
+    }
+
+    @Test
+    public void baseConfigurationParsedOnce() {
+        ComponentConfigCache cache = new ComponentConfigCache();
+        BaseChannelConfiguration config = cache.getBaseConfiguration(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG, gson);
+        assertThat(config.name, is("Lamp"));
+        assertThat(cache.getBaseConfiguration(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG, gson), is(sameInstance(config)));
+
+        BaseChannelConfiguration changed = cache.getBaseConfiguration(BRIDGE_UID, SWITCH_TOPIC, SENSOR_CONFIG, gson);
+        assertThat(changed.name, is("Power"));
+    }
+
+    @Test
+    public void componentConfigsOfObject() {
+        ComponentConfigCache cache = new ComponentConfigCache();
+        cache.update(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG);
+        cache.update(BRIDGE_UID, SENSOR_TOPIC, SENSOR_CONFIG);
+        cache.update(BRIDGE_UID, OTHER_TOPIC, SWITCH_CONFIG);
+
+        HandlerConfiguration handlerConfig = new HaID(SWITCH_TOPIC).toHandlerConfiguration();
+        Map<String, String> configs = cache.getComponentConfigs(BRIDGE_UID, HaID.fromConfig(handlerConfig));
+        assertThat(configs.size(), is(2));
+        assertThat(configs.get(SWITCH_TOPIC), is(SWITCH_CONFIG));
+        assertThat(configs.get(SENSOR_TOPIC), is(SENSOR_CONFIG));
+
+        assertThat(cache.getComponentConfigs(new ThingUID("mqtt", "broker", "other"), HaID.fromConfig(handlerConfig))
+                .isEmpty(), is(true));
+    }
+
+    @Test
+    public void persistedWithStorageService() {
+        Map<String, String> data = new HashMap<>();
+        ComponentConfigCache cache = new ComponentConfigCache();
+        cache.update(BRIDGE_UID, OTHER_TOPIC, SWITCH_CONFIG);
+        cache.setStorageService(storageService(data));
+        cache.update(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG);
+        assertThat(data.size(), is(2));
+
+        // Restored after a restart
+        ComponentConfigCache restored = new ComponentConfigCache();
+        restored.setStorageService(storageService(data));
+        assertThat(restored.size(), is(2));
+        assertThat(restored.update(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG), is(false));
+
+        restored.remove(BRIDGE_UID, SWITCH_TOPIC);
+        assertThat(data.size(), is(1));
+    }
+
+    @Test
+    public void discoverComponentsSkipsUnchangedConfigs() {
+        ComponentConfigCache cache = new ComponentConfigCache();
+        cache.update(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG);
+        ThingUID thingUID = new ThingUID(MqttBindingConstants.HOMEASSISTANT_MQTT_THING, BRIDGE_UID, "lamp");
+        DiscoverComponents discover = new DiscoverComponents(thingUID, mock(ScheduledExecutorService.class), null,
+                gson, mock(TransformationServiceProvider.class));
+
+        HandlerConfiguration handlerConfig = new HaID(SWITCH_TOPIC).toHandlerConfiguration();
+        List<AbstractComponent<?>> restored = discover.restoreFromCache(cache, BRIDGE_UID,
+                HaID.fromConfig(handlerConfig));
+        assertThat(restored.size(), is(1));
+        assertThat(restored.get(0), is(instanceOf(ComponentSwitch.class)));
+
+        List<AbstractComponent<?>> discovered = new ArrayList<>();
+        discover.discoveredListener = (haID, component) -> discovered.add(component);
+
+        // The retained configuration received after subscribing is known already
+        discover.processMessage(SWITCH_TOPIC, SWITCH_CONFIG.getBytes());
+        assertThat(discovered.isEmpty(), is(true));
+
+        // New components are discovered and cached
+        discover.processMessage(SENSOR_TOPIC, SENSOR_CONFIG.getBytes());
+        assertThat(discovered.size(), is(1));
+        assertThat(cache.size(), is(2));
+    }
+
+    @Test
+    public void discoverComponentsRemovesEmptyConfigs() {
+        ComponentConfigCache cache = new ComponentConfigCache();
+        cache.update(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG);
+        ThingUID thingUID = new ThingUID(MqttBindingConstants.HOMEASSISTANT_MQTT_THING, BRIDGE_UID, "lamp");
+        DiscoverComponents discover = new DiscoverComponents(thingUID, mock(ScheduledExecutorService.class), null,
+                gson, mock(TransformationServiceProvider.class));
+        discover.restoreFromCache(cache, BRIDGE_UID, HaID.fromConfig(new HaID(SWITCH_TOPIC).toHandlerConfiguration()));
+
+        discover.processMessage(SWITCH_TOPIC, new byte[0]);
+        assertThat(cache.size(), is(0));
+    }
+
+    @Test
+    public void discoverComponentsExpiresConfigsNotReceivedAgain() {
+        ComponentConfigCache cache = new ComponentConfigCache();
+        cache.update(BRIDGE_UID, SWITCH_TOPIC, SWITCH_CONFIG);
+        cache.update(BRIDGE_UID, SENSOR_TOPIC, SENSOR_CONFIG);
+        cache.update(BRIDGE_UID, OTHER_TOPIC, SWITCH_CONFIG);
+        ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), anyLong(), any());
+        MqttBrokerConnection connection = mock(MqttBrokerConnection.class);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        ThingUID thingUID = new ThingUID(MqttBindingConstants.HOMEASSISTANT_MQTT_THING, BRIDGE_UID, "lamp");
+        DiscoverComponents discover = new DiscoverComponents(thingUID, scheduler, null, gson,
+                mock(TransformationServiceProvider.class));
+
+        HaID objectID = HaID.fromConfig(new HaID(SWITCH_TOPIC).toHandlerConfiguration());
+        assertThat(discover.restoreFromCache(cache, BRIDGE_UID, objectID).size(), is(2));
+        ComponentDiscovered listener = mock(ComponentDiscovered.class);
+        discover.startDiscovery(connection, 0, objectID, listener);
+        ArgumentCaptor<Runnable> expiry = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(expiry.capture(), eq((long) DiscoverComponents.CACHE_CONFIRMATION_TIME),
+                eq(TimeUnit.MILLISECONDS));
+
+        // Only the switch is still announced, the sensor has been removed while the binding was not running
+        discover.processMessage(SWITCH_TOPIC, SWITCH_CONFIG.getBytes());
+        expiry.getValue().run();
+
+        assertThat(cache.getComponentConfigs(BRIDGE_UID, objectID).keySet(), is(Collections.singleton(SWITCH_TOPIC)));
+        // Configurations of other objects are kept
+        assertThat(cache.size(), is(2));
+        // The expired component is removed from the Thing as well
+        verify(listener).componentRemoved(eq(new HaID(SENSOR_TOPIC)), any());
+        verify(listener, never()).componentRemoved(eq(new HaID(SWITCH_TOPIC)), any());
+    }
+}
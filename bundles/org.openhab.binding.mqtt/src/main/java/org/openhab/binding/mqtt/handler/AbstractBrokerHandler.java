@@ -34,11 +34,15 @@ import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionObserver;
 import org.eclipse.smarthome.io.transport.mqtt.MqttConnectionState;
 import org.eclipse.smarthome.io.transport.mqtt.MqttService;
 import org.openhab.binding.mqtt.action.MQTTActions;
+import org.openhab.binding.mqtt.publish.MqttPublishQueue;
+import org.openhab.binding.mqtt.subscription.MqttTopicRouter;
 
 /**
  * This base implementation handles connection changes of the {@link MqttBrokerConnection}
  * and puts the Thing on or offline. It also handles adding/removing notifications of the
  * {@link MqttService} and provides a basic dispose() implementation.
+ * A {@link MqttTopicRouter} is registered for the connection, to share subscriptions between channels.
+ * A {@link MqttPublishQueue} registered for the connection is stopped on dispose.
  *
  * @author David Graeff - Initial contribution
  */
@@ -76,6 +80,15 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         return connection;
     }
 
+    /**
+     * Returns the queue for outgoing messages of the connection, if one is configured. It provides the queue depth
+     * and drop counters, which the {@link BrokerHandler} publishes as Thing properties.
+     */
+    public @Nullable MqttPublishQueue getPublishQueue() {
+        final MqttBrokerConnection connection = this.connection;
+        return connection != null ? MqttPublishQueue.forConnection(connection) : null;
+    }
+
     /**
      * Does nothing in the base implementation.
      */
@@ -96,6 +109,7 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
             channelStateByChannelUID.put(channel.getUID(), c);
         }
 
+        MqttTopicRouter.register(connection);
         connection.addConnectionObserver(this);
 
         connection.start().exceptionally(e -> {
@@ -139,6 +153,8 @@ public abstract class AbstractBrokerHandler extends BaseBridgeHandler implements
         channelStateByChannelUID.values().forEach(c -> c.stop());
         channelStateByChannelUID.clear();
         connection.removeConnectionObserver(this);
+        MqttTopicRouter.unregister(connection);
+        MqttPublishQueue.unregister(connection);
         this.connection = null;
         connectionFuture = new CompletableFuture<>();
         super.dispose();
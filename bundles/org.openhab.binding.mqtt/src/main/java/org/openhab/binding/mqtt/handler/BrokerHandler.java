@@ -13,7 +13,9 @@
 package org.openhab.binding.mqtt.handler;
 
 import java.security.NoSuchAlgorithmException;
+import java.util.Map;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -34,6 +36,7 @@ import org.openhab.binding.mqtt.internal.ssl.PinTrustManager;
 import org.openhab.binding.mqtt.internal.ssl.PinType;
 import org.openhab.binding.mqtt.internal.ssl.PinnedCallback;
 import org.openhab.binding.mqtt.internal.ssl.PinningSSLContextProvider;
+import org.openhab.binding.mqtt.publish.MqttPublishQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,8 +50,17 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class BrokerHandler extends AbstractBrokerHandler implements PinnedCallback {
+    public static final String PROPERTY_PUBLISH_QUEUE_DEPTH = "publish_queue_depth";
+    public static final String PROPERTY_PUBLISHED_MESSAGES = "published_messages";
+    public static final String PROPERTY_COALESCED_MESSAGES = "coalesced_messages";
+    public static final String PROPERTY_DROPPED_MESSAGES = "dropped_messages";
+    /** interval in seconds to update the publish queue properties */
+    private static final int PUBLISH_QUEUE_PROPERTIES_INTERVAL = 60;
+
     private final Logger logger = LoggerFactory.getLogger(BrokerHandler.class);
     protected BrokerHandlerConfig config = new BrokerHandlerConfig();
+    private @Nullable ScheduledFuture<?> publishQueuePropertiesFuture;
+    private long reportedDroppedCount = 0;
 
     public BrokerHandler(Bridge thing) {
         super(thing);
@@ -110,6 +122,11 @@ public class BrokerHandler extends AbstractBrokerHandler implements PinnedCallba
 
     @Override
     public void dispose() {
+        final ScheduledFuture<?> publishQueuePropertiesFuture = this.publishQueuePropertiesFuture;
+        if (publishQueuePropertiesFuture != null) {
+            publishQueuePropertiesFuture.cancel(false);
+            this.publishQueuePropertiesFuture = null;
+        }
         try {
             connection.stop().get(1000, TimeUnit.MILLISECONDS);
         } catch (InterruptedException | ExecutionException | TimeoutException ignore) {
@@ -222,6 +239,37 @@ public class BrokerHandler extends AbstractBrokerHandler implements PinnedCallba
         config = getConfigAs(BrokerHandlerConfig.class);
         connection = createBrokerConnection();
         assignSSLContextProvider(config, connection, this);
+        if (config.publishCoalesceTime > 0 || config.publishRate > 0) {
+            MqttPublishQueue.register(connection,
+                    new MqttPublishQueue(connection, scheduler, config.publishCoalesceTime, config.publishRate,
+                            Math.max(1, config.publishBurst), config.publishFireAndForget,
+                            MqttPublishQueue.DEFAULT_CAPACITY));
+            reportedDroppedCount = 0;
+            publishQueuePropertiesFuture = scheduler.scheduleWithFixedDelay(this::updatePublishQueueProperties,
+                    PUBLISH_QUEUE_PROPERTIES_INTERVAL, PUBLISH_QUEUE_PROPERTIES_INTERVAL, TimeUnit.SECONDS);
+        }
         super.initialize();
     }
+
+    /**
+     * Publishes the counters of the publish queue as Thing properties and logs dropped messages.
+     */
+    protected void updatePublishQueueProperties() {
+        final MqttPublishQueue queue = getPublishQueue();
+        if (queue == null) {
+            return;
+        }
+        long droppedCount = queue.getDroppedCount();
+        if (droppedCount > reportedDroppedCount) {
+            logger.warn("The publish queue of broker {} dropped {} messages, consider a higher publish rate",
+                    thing.getUID(), droppedCount - reportedDroppedCount);
+            reportedDroppedCount = droppedCount;
+        }
+        Map<String, String> properties = editProperties();
+        properties.put(PROPERTY_PUBLISH_QUEUE_DEPTH, String.valueOf(queue.getQueueDepth()));
+        properties.put(PROPERTY_PUBLISHED_MESSAGES, String.valueOf(queue.getPublishedCount()));
+        properties.put(PROPERTY_COALESCED_MESSAGES, String.valueOf(queue.getCoalescedCount()));
+        properties.put(PROPERTY_DROPPED_MESSAGES, String.valueOf(droppedCount));
+        updateProperties(properties);
+    }
 }
@@ -28,6 +28,13 @@ public class BrokerHandlerConfig extends MqttBrokerConnectionConfig {
     public @Nullable Integer reconnectTime;
     public @Nullable Integer timeoutInMs;
 
+    // Outgoing messages are only queued if a coalesce time or a rate limit is set
+
+    public int publishCoalesceTime = 0;
+    public int publishRate = 0;
+    public int publishBurst = 10;
+    public boolean publishFireAndForget = false;
+
     // For more security, the following optional parameters can be altered
 
     public boolean certificatepin = false;
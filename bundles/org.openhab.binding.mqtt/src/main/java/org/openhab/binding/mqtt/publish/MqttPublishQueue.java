@@ -0,0 +1,284 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.publish;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues outgoing messages of a {@link MqttBrokerConnection}, to smooth out bursts of commands, like a scene that
+ * dims many lights at once.
+ *
+ * <ul>
+ * <li>Messages are collected for the coalesce time, starting with the first queued message. Only the latest value per
+ * topic is kept, the futures of replaced values complete together with the latest value.</li>
+ * <li>The queued messages are published with a token-bucket rate limit: Up to <code>burst</code> messages are
+ * published at once, further messages with <code>rate</code> messages per second. Messages waiting for the rate limit
+ * are still coalesced.</li>
+ * <li>In fire-and-forget mode messages are published with QoS 0 and the futures complete without waiting for the
+ * broker.</li>
+ * </ul>
+ *
+ * A queue is registered by the broker handler owning the connection, if configured. Publishers should use the
+ * registered queue if there is one, see {@link #forConnection(MqttBrokerConnection)}, and publish on the connection
+ * directly otherwise.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class MqttPublishQueue {
+    /**
+     * The maximum number of topics with a queued message. Messages for further topics are dropped.
+     */
+    public static final int DEFAULT_CAPACITY = 1000;
+
+    private static final Map<MqttBrokerConnection, MqttPublishQueue> QUEUES = new ConcurrentHashMap<>();
+
+    private static class QueuedMessage {
+        final String topic;
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        byte[] payload;
+        int qos;
+        boolean retain;
+
+        QueuedMessage(String topic, byte[] payload, int qos, boolean retain) {
+            this.topic = topic;
+            this.payload = payload;
+            this.qos = qos;
+            this.retain = retain;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(MqttPublishQueue.class);
+    private final MqttBrokerConnection connection;
+    private final ScheduledExecutorService scheduler;
+    private final int coalesceTime;
+    private final double rate;
+    private final int burst;
+    private final boolean fireAndForget;
+    private final int capacity;
+
+    private final Map<String, QueuedMessage> queue = new LinkedHashMap<>();
+    private @Nullable ScheduledFuture<?> drainFuture;
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+
+    private long publishedCount = 0;
+    private long coalescedCount = 0;
+    private long droppedCount = 0;
+
+    /**
+     * Creates a publish queue. Use {@link #register(MqttBrokerConnection, MqttPublishQueue)} to make the queue
+     * available for publishers.
+     *
+     * @param connection The broker connection
+     * @param scheduler A scheduler to delay publishing
+     * @param coalesceTime The time in milliseconds to collect messages before they are published. Can be 0.
+     * @param rate The maximum number of messages per second. 0 disables the rate limit.
+     * @param burst The number of messages that may be published at once, if the rate limit is enabled.
+     * @param fireAndForget Publish with QoS 0 and do not wait for the broker
+     * @param capacity The maximum number of topics with a queued message
+     */
+    public MqttPublishQueue(MqttBrokerConnection connection, ScheduledExecutorService scheduler, int coalesceTime,
+            double rate, int burst, boolean fireAndForget, int capacity) {
+        if (coalesceTime < 0 || rate < 0 || burst < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Invalid publish queue configuration");
+        }
+        this.connection = connection;
+        this.scheduler = scheduler;
+        this.coalesceTime = coalesceTime;
+        this.rate = rate;
+        this.burst = burst;
+        this.fireAndForget = fireAndForget;
+        this.capacity = capacity;
+        this.tokens = burst;
+    }
+
+    /**
+     * Registers the queue for the connection. A previously registered queue is stopped.
+     *
+     * @param connection The broker connection
+     * @param queue The publish queue
+     */
+    public static void register(MqttBrokerConnection connection, MqttPublishQueue queue) {
+        MqttPublishQueue previous = QUEUES.put(connection, queue);
+        if (previous != null && previous != queue) {
+            previous.stop();
+        }
+    }
+
+    /**
+     * Removes and stops the queue of the connection, if there is one.
+     *
+     * @param connection The broker connection
+     */
+    public static void unregister(MqttBrokerConnection connection) {
+        MqttPublishQueue queue = QUEUES.remove(connection);
+        if (queue != null) {
+            queue.stop();
+        }
+    }
+
+    /**
+     * Returns the queue registered for the connection.
+     *
+     * @param connection The broker connection
+     * @return The queue, or null if none is registered
+     */
+    public static @Nullable MqttPublishQueue forConnection(MqttBrokerConnection connection) {
+        return QUEUES.get(connection);
+    }
+
+    /**
+     * Queues a message. A queued message of the same topic is replaced.
+     *
+     * @param topic The topic
+     * @param payload The message payload
+     * @param qos The quality of service, ignored in fire-and-forget mode
+     * @param retain Retain the message
+     * @return Completes with true if the message, or a later message of the topic, was published. Completes with
+     *         false if the message was dropped or not published by the connection. Exceptionally otherwise.
+     */
+    public synchronized CompletableFuture<Boolean> publish(String topic, byte[] payload, int qos, boolean retain) {
+        QueuedMessage message = queue.get(topic);
+        if (message != null) {
+            message.payload = payload;
+            message.qos = qos;
+            message.retain = retain;
+            coalescedCount++;
+            return message.future;
+        }
+        if (queue.size() >= capacity) {
+            droppedCount++;
+            logger.debug("Publish queue full, dropped message for topic {}", topic);
+            return CompletableFuture.completedFuture(false);
+        }
+        message = new QueuedMessage(topic, payload, qos, retain);
+        queue.put(topic, message);
+        if (drainFuture == null) {
+            drainFuture = scheduler.schedule(this::drain, coalesceTime, TimeUnit.MILLISECONDS);
+        }
+        return message.future;
+    }
+
+    /**
+     * Publishes as many queued messages as the rate limit allows and reschedules itself for the remaining ones.
+     */
+    private void drain() {
+        List<QueuedMessage> messages = new ArrayList<>();
+        synchronized (this) {
+            drainFuture = null;
+            refillTokens();
+            Iterator<QueuedMessage> iterator = queue.values().iterator();
+            while (iterator.hasNext() && (rate == 0 || tokens >= 1)) {
+                messages.add(iterator.next());
+                iterator.remove();
+                tokens--;
+            }
+            if (!queue.isEmpty()) {
+                long delay = (long) Math.ceil((1 - tokens) * 1000 / rate);
+                drainFuture = scheduler.schedule(this::drain, Math.max(1, delay), TimeUnit.MILLISECONDS);
+            }
+            publishedCount += messages.size();
+        }
+        messages.forEach(this::send);
+    }
+
+    private void refillTokens() {
+        long now = System.nanoTime();
+        if (rate > 0) {
+            tokens = Math.min(burst, tokens + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+        }
+        lastRefill = now;
+    }
+
+    private void send(QueuedMessage message) {
+        try {
+            if (fireAndForget) {
+                connection.publish(message.topic, message.payload, 0, message.retain);
+                message.future.complete(true);
+            } else {
+                connection.publish(message.topic, message.payload, message.qos, message.retain)
+                        .whenComplete((result, e) -> {
+                            if (e != null) {
+                                message.future.completeExceptionally(e);
+                            } else {
+                                message.future.complete(result);
+                            }
+                        });
+            }
+        } catch (RuntimeException e) {
+            message.future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Stops publishing. The futures of queued messages complete with false.
+     */
+    public void stop() {
+        List<QueuedMessage> messages;
+        synchronized (this) {
+            final ScheduledFuture<?> drainFuture = this.drainFuture;
+            if (drainFuture != null) {
+                drainFuture.cancel(false);
+                this.drainFuture = null;
+            }
+            messages = new ArrayList<>(queue.values());
+            droppedCount += messages.size();
+            queue.clear();
+        }
+        messages.forEach(m -> m.future.complete(false));
+    }
+
+    /**
+     * Returns the number of topics with a queued message.
+     */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of messages handed over to the connection.
+     */
+    public synchronized long getPublishedCount() {
+        return publishedCount;
+    }
+
+    /**
+     * Returns the number of messages replaced by a later message of the same topic.
+     */
+    public synchronized long getCoalescedCount() {
+        return coalescedCount;
+    }
+
+    /**
+     * Returns the number of messages dropped, because the queue was full or stopped.
+     */
+    public synchronized long getDroppedCount() {
+        return droppedCount;
+    }
+}
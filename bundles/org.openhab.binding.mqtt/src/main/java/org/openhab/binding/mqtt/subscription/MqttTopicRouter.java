@@ -0,0 +1,226 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.subscription;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares the subscriptions of a {@link MqttBrokerConnection} between many message subscribers.
+ *
+ * Every distinct topic filter is subscribed once on the connection, no matter how many subscribers it has. The
+ * connection delivers a message once per subscribed filter matching the topic, and the router passes it on to the
+ * subscribers of that filter.
+ *
+ * The broker sends the retained messages of a filter only when the filter is subscribed. The router therefore keeps
+ * the last payload of every topic of a filter and replays it to subscribers joining the filter later. An empty
+ * payload clears the kept payload, like it clears a retained message on the broker.
+ *
+ * A router is registered by the broker handler owning the connection. Subscribers should use the registered router
+ * if there is one, see {@link #forConnection(MqttBrokerConnection)}, and subscribe on the connection directly
+ * otherwise. Unregistering the router unsubscribes all its filters from the connection.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class MqttTopicRouter {
+    /**
+     * Upper bound for the topics of a filter with a kept payload, for filters with wildcards
+     */
+    private static final int MAX_KEPT_PAYLOADS = 1000;
+
+    private static final Map<MqttBrokerConnection, MqttTopicRouter> ROUTERS = new ConcurrentHashMap<>();
+
+    private final Logger logger = LoggerFactory.getLogger(MqttTopicRouter.class);
+    private final MqttBrokerConnection connection;
+    private final Map<String, List<MqttMessageSubscriber>> subscribers = new HashMap<>();
+    private final Map<String, FilterSubscription> brokerSubscriptions = new HashMap<>();
+
+    /**
+     * The subscription of a topic filter on the connection.
+     */
+    private class FilterSubscription implements MqttMessageSubscriber {
+        final String filter;
+        final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        /** The last payload per topic, guarded by the router */
+        final Map<String, byte[]> lastPayloads = new LinkedHashMap<>();
+
+        FilterSubscription(String filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public void processMessage(String topic, byte[] payload) {
+            List<MqttMessageSubscriber> targets;
+            synchronized (MqttTopicRouter.this) {
+                if (brokerSubscriptions.get(filter) != this) {
+                    return; // Unsubscribed meanwhile
+                }
+                if (payload.length == 0) {
+                    lastPayloads.remove(topic);
+                } else if (lastPayloads.size() < MAX_KEPT_PAYLOADS || lastPayloads.containsKey(topic)) {
+                    lastPayloads.put(topic, payload);
+                }
+                targets = new ArrayList<>(subscribers.getOrDefault(filter, Collections.emptyList()));
+            }
+            dispatch(targets, topic, payload);
+        }
+    }
+
+    /**
+     * Creates a router for the connection. Use {@link #register(MqttBrokerConnection)} to make the router
+     * available for subscribers.
+     *
+     * @param connection The broker connection
+     */
+    public MqttTopicRouter(MqttBrokerConnection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Registers a router for the connection, if there is none yet.
+     *
+     * @param connection The broker connection
+     * @return The router of the connection
+     */
+    public static MqttTopicRouter register(MqttBrokerConnection connection) {
+        return ROUTERS.computeIfAbsent(connection, MqttTopicRouter::new);
+    }
+
+    /**
+     * Removes the router of the connection and unsubscribes all its topic filters from the connection.
+     *
+     * @param connection The broker connection
+     */
+    public static void unregister(MqttBrokerConnection connection) {
+        MqttTopicRouter router = ROUTERS.remove(connection);
+        if (router != null) {
+            router.unsubscribeAll();
+        }
+    }
+
+    /**
+     * Returns the router registered for the connection.
+     *
+     * @param connection The broker connection
+     * @return The router, or null if none is registered
+     */
+    public static @Nullable MqttTopicRouter forConnection(MqttBrokerConnection connection) {
+        return ROUTERS.get(connection);
+    }
+
+    /**
+     * Subscribes to the topic filter. The filter is only subscribed on the connection for the first subscriber, later
+     * subscribers receive the last payloads of the filter immediately.
+     *
+     * @param topic A topic filter, may contain wildcards
+     * @param subscriber The subscriber
+     * @return Completes with true if successful. Completes with false if not connected yet. Exceptionally otherwise.
+     */
+    public CompletableFuture<Boolean> subscribe(String topic, MqttMessageSubscriber subscriber) {
+        FilterSubscription subscription;
+        synchronized (this) {
+            subscribers.computeIfAbsent(topic, t -> new ArrayList<>()).add(subscriber);
+            subscription = brokerSubscriptions.get(topic);
+            if (subscription != null && !subscription.future.isCompletedExceptionally()) {
+                // Replayed while holding the lock, so that a newer message cannot overtake the replay
+                List<MqttMessageSubscriber> target = Collections.singletonList(subscriber);
+                subscription.lastPayloads.forEach((lastTopic, payload) -> dispatch(target, lastTopic, payload));
+                return subscription.future;
+            }
+            subscription = new FilterSubscription(topic);
+            brokerSubscriptions.put(topic, subscription);
+        }
+        final CompletableFuture<Boolean> future = subscription.future;
+        connection.subscribe(topic, subscription).whenComplete((result, e) -> {
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(result);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Unsubscribes from the topic filter. The filter is only unsubscribed on the connection when there are no
+     * subscribers left.
+     *
+     * @param topic A topic filter
+     * @param subscriber The subscriber
+     * @return Completes with true if successful. Exceptionally otherwise.
+     */
+    public CompletableFuture<Boolean> unsubscribe(String topic, MqttMessageSubscriber subscriber) {
+        FilterSubscription subscription;
+        synchronized (this) {
+            List<MqttMessageSubscriber> filterSubscribers = subscribers.get(topic);
+            if (filterSubscribers != null) {
+                filterSubscribers.remove(subscriber);
+                if (!filterSubscribers.isEmpty()) {
+                    return CompletableFuture.completedFuture(true);
+                }
+                subscribers.remove(topic);
+            }
+            subscription = brokerSubscriptions.remove(topic);
+        }
+        if (subscription == null) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return connection.unsubscribe(topic, subscription);
+    }
+
+    /**
+     * Returns the number of distinct topic filters subscribed on the connection.
+     */
+    public synchronized int getSubscribedTopicCount() {
+        return subscribers.size();
+    }
+
+    private void unsubscribeAll() {
+        List<FilterSubscription> subscriptions;
+        synchronized (this) {
+            subscriptions = new ArrayList<>(brokerSubscriptions.values());
+            brokerSubscriptions.clear();
+            subscribers.clear();
+        }
+        for (FilterSubscription subscription : subscriptions) {
+            connection.unsubscribe(subscription.filter, subscription).exceptionally(e -> {
+                logger.debug("Failed to unsubscribe from topic {}", subscription.filter, e);
+                return false;
+            });
+        }
+    }
+
+    private void dispatch(List<MqttMessageSubscriber> targets, String topic, byte[] payload) {
+        for (MqttMessageSubscriber subscriber : targets) {
+            try {
+                subscriber.processMessage(topic, payload);
+            } catch (RuntimeException e) {
+                logger.warn("Subscriber {} failed to process message on topic {}", subscriber, topic, e);
+            }
+        }
+    }
+}
@@ -39,6 +39,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.openhab.binding.mqtt.handler.BrokerHandler;
 import org.openhab.binding.mqtt.internal.MqttThingID;
+import org.openhab.binding.mqtt.publish.MqttPublishQueue;
 import org.osgi.service.cm.ConfigurationException;
 
 /**
@@ -112,6 +113,27 @@ public class BrokerHandlerTest {
         Assert.assertThat(statusInfoCaptor.getValue().getStatus(), is(ThingStatus.ONLINE));
     }
 
+    @Test
+    public void publishQueueCountersAsProperties() {
+        handler.connection = connection;
+        MqttPublishQueue queue = new MqttPublishQueue(connection, scheduler, 10000, 0, 1, false, 1);
+        MqttPublishQueue.register(connection, queue);
+        try {
+            queue.publish("a", new byte[] { 1 }, 0, false);
+            queue.publish("a", new byte[] { 2 }, 0, false);
+            queue.publish("b", new byte[] { 1 }, 0, false);
+
+            handler.updatePublishQueueProperties();
+            verify(thing).setProperty(BrokerHandler.PROPERTY_PUBLISH_QUEUE_DEPTH, "1");
+            verify(thing).setProperty(BrokerHandler.PROPERTY_PUBLISHED_MESSAGES, "0");
+            verify(thing).setProperty(BrokerHandler.PROPERTY_COALESCED_MESSAGES, "1");
+            verify(thing).setProperty(BrokerHandler.PROPERTY_DROPPED_MESSAGES, "1");
+            verify(callback).thingUpdated(thing);
+        } finally {
+            MqttPublishQueue.unregister(connection);
+        }
+    }
+
     /**
      * Utility method for tests that need the handler to be initialized to go on.
      *
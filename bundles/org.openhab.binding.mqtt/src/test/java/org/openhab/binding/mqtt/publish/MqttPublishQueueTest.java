@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.publish;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests cases for {@link MqttPublishQueue}. The scheduled drain tasks are run by the test.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class MqttPublishQueueTest {
+    @Mock
+    private MqttBrokerConnection connection;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+    private final List<Long> delays = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).publish(any(), any(), anyInt(),
+                anyBoolean());
+        doAnswer(invocation -> {
+            scheduled.add(invocation.getArgument(0));
+            delays.add(invocation.getArgument(1));
+            return mock(ScheduledFuture.class);
+        }).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    }
+
+    private void runScheduled() {
+        Runnable runnable = scheduled.remove(0);
+        runnable.run();
+    }
+
+    @Test
+    public void coalescesWithinWindow() throws Exception {
+        MqttPublishQueue queue = new MqttPublishQueue(connection, scheduler, 100, 0, 1, false, 10);
+
+        CompletableFuture<Boolean> first = queue.publish("light/1/set", "10".getBytes(), 1, false);
+        CompletableFuture<Boolean> second = queue.publish("light/1/set", "20".getBytes(), 1, false);
+        queue.publish("light/2/set", "30".getBytes(), 1, true);
+        assertThat(scheduled.size(), is(1));
+        assertThat(delays.get(0), is(100L));
+        assertThat(queue.getQueueDepth(), is(2));
+        assertThat(queue.getCoalescedCount(), is(1L));
+
+        runScheduled();
+        verify(connection).publish(eq("light/1/set"), eq("20".getBytes()), eq(1), eq(false));
+        verify(connection).publish(eq("light/2/set"), eq("30".getBytes()), eq(1), eq(true));
+        verify(connection, times(2)).publish(any(), any(), anyInt(), anyBoolean());
+        assertThat(first.get(), is(true));
+        assertThat(second.get(), is(true));
+        assertThat(queue.getQueueDepth(), is(0));
+        assertThat(queue.getPublishedCount(), is(2L));
+    }
+
+    @Test
+    public void rateLimitWithBurst() {
+        MqttPublishQueue queue = new MqttPublishQueue(connection, scheduler, 0, 1, 5, false, 100);
+        for (int i = 0; i < 20; i++) {
+            queue.publish("light/" + i + "/set", "ON".getBytes(), 1, false);
+        }
+
+        runScheduled();
+        verify(connection, times(5)).publish(any(), any(), anyInt(), anyBoolean());
+        assertThat(queue.getQueueDepth(), is(15));
+        // The next drain waits for a new token
+        assertThat(scheduled.size(), is(1));
+        assertThat(delays.get(1) > 900, is(true));
+
+        // Waiting messages are still coalesced
+        queue.publish("light/19/set", "OFF".getBytes(), 1, false);
+        assertThat(queue.getQueueDepth(), is(15));
+        assertThat(queue.getCoalescedCount(), is(1L));
+    }
+
+    @Test
+    public void dropsWhenFullAndOnStop() throws Exception {
+        MqttPublishQueue queue = new MqttPublishQueue(connection, scheduler, 100, 0, 1, false, 2);
+        CompletableFuture<Boolean> first = queue.publish("a", new byte[0], 1, false);
+        queue.publish("b", new byte[0], 1, false);
+        CompletableFuture<Boolean> dropped = queue.publish("c", new byte[0], 1, false);
+        assertThat(dropped.get(), is(false));
+        assertThat(queue.getDroppedCount(), is(1L));
+
+        queue.stop();
+        assertThat(first.get(), is(false));
+        assertThat(queue.getDroppedCount(), is(3L));
+        assertThat(queue.getQueueDepth(), is(0));
+        verify(connection, never()).publish(any(), any(), anyInt(), anyBoolean());
+    }
+
+    @Test
+    public void fireAndForget() throws Exception {
+        doReturn(new CompletableFuture<Boolean>()).when(connection).publish(any(), any(), anyInt(), anyBoolean());
+        MqttPublishQueue queue = new MqttPublishQueue(connection, scheduler, 0, 0, 1, true, 10);
+        CompletableFuture<Boolean> future = queue.publish("a", "1".getBytes(), 2, true);
+
+        runScheduled();
+        verify(connection).publish(eq("a"), eq("1".getBytes()), eq(0), eq(true));
+        assertThat(future.isDone(), is(true));
+        assertThat(future.get(), is(true));
+    }
+
+    @Test
+    public void registry() {
+        MqttPublishQueue queue = new MqttPublishQueue(connection, scheduler, 100, 0, 1, false, 10);
+        MqttPublishQueue.register(connection, queue);
+        assertThat(MqttPublishQueue.forConnection(connection), is(queue));
+        CompletableFuture<Boolean> future = queue.publish("a", new byte[0], 1, false);
+        MqttPublishQueue.unregister(connection);
+        assertThat(MqttPublishQueue.forConnection(connection), is(nullValue()));
+        assertThat(future.getNow(null), is(false));
+    }
+}
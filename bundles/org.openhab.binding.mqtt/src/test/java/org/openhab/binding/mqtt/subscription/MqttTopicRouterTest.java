@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.mqtt.subscription;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.smarthome.io.transport.mqtt.MqttBrokerConnection;
+import org.eclipse.smarthome.io.transport.mqtt.MqttMessageSubscriber;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * Tests cases for {@link MqttTopicRouter}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class MqttTopicRouterTest {
+    @Mock
+    private MqttBrokerConnection connection;
+
+    @Mock
+    private MqttMessageSubscriber first;
+
+    @Mock
+    private MqttMessageSubscriber second;
+
+    private MqttTopicRouter router;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).subscribe(any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(connection).unsubscribe(any(), any());
+        router = MqttTopicRouter.register(connection);
+    }
+
+    @After
+    public void tearDown() {
+        MqttTopicRouter.unregister(connection);
+    }
+
+    /**
+     * Returns the subscriber of the topic filter on the connection, to deliver messages like the connection does.
+     */
+    private MqttMessageSubscriber brokerSubscription(String topic) {
+        ArgumentCaptor<MqttMessageSubscriber> captor = ArgumentCaptor.forClass(MqttMessageSubscriber.class);
+        verify(connection).subscribe(eq(topic), captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    public void registry() {
+        assertThat(MqttTopicRouter.forConnection(connection), is(router));
+        assertThat(MqttTopicRouter.register(connection), is(router));
+        MqttTopicRouter.unregister(connection);
+        assertThat(MqttTopicRouter.forConnection(connection), is(nullValue()));
+    }
+
+    @Test
+    public void unregisterUnsubscribesAllFilters() {
+        router.subscribe("a/b", first);
+        router.subscribe("a/b", second);
+        router.subscribe("c/#", second);
+        MqttMessageSubscriber ab = brokerSubscription("a/b");
+        MqttMessageSubscriber c = brokerSubscription("c/#");
+
+        MqttTopicRouter.unregister(connection);
+        verify(connection).unsubscribe(eq("a/b"), eq(ab));
+        verify(connection).unsubscribe(eq("c/#"), eq(c));
+        assertThat(router.getSubscribedTopicCount(), is(0));
+
+        // Late deliveries of the connection are dropped
+        ab.processMessage("a/b", "ON".getBytes());
+        verify(first, never()).processMessage(any(), any());
+    }
+
+    @Test
+    public void identicalSubscriptionsAreShared() {
+        router.subscribe("zigbee2mqtt/lamp", first);
+        router.subscribe("zigbee2mqtt/lamp", second);
+        MqttMessageSubscriber subscription = brokerSubscription("zigbee2mqtt/lamp");
+        assertThat(router.getSubscribedTopicCount(), is(1));
+
+        byte[] payload = "{}".getBytes();
+        subscription.processMessage("zigbee2mqtt/lamp", payload);
+        verify(first).processMessage(eq("zigbee2mqtt/lamp"), eq(payload));
+        verify(second).processMessage(eq("zigbee2mqtt/lamp"), eq(payload));
+
+        router.unsubscribe("zigbee2mqtt/lamp", first);
+        verify(connection, times(0)).unsubscribe(any(), any());
+        router.unsubscribe("zigbee2mqtt/lamp", second);
+        verify(connection).unsubscribe(eq("zigbee2mqtt/lamp"), eq(subscription));
+        assertThat(router.getSubscribedTopicCount(), is(0));
+
+        // Deliveries after unsubscribing are dropped
+        subscription.processMessage("zigbee2mqtt/lamp", payload);
+        verify(first, times(1)).processMessage(any(), any());
+    }
+
+    @Test
+    public void overlappingSubscriptionsDispatchPerFilter() {
+        router.subscribe("house/#", first);
+        router.subscribe("house/+/light", second);
+
+        // The connection delivers the message once per matching subscribed topic
+        byte[] payload = "ON".getBytes();
+        brokerSubscription("house/#").processMessage("house/kitchen/light", payload);
+        brokerSubscription("house/+/light").processMessage("house/kitchen/light", payload);
+
+        verify(first, times(1)).processMessage(eq("house/kitchen/light"), eq(payload));
+        verify(second, times(1)).processMessage(eq("house/kitchen/light"), eq(payload));
+    }
+
+    @Test
+    public void lateSubscribersReceiveLastPayloads() {
+        router.subscribe("house/+/light", first);
+        MqttMessageSubscriber subscription = brokerSubscription("house/+/light");
+        byte[] kitchen = "ON".getBytes();
+        subscription.processMessage("house/kitchen/light", "OFF".getBytes());
+        subscription.processMessage("house/kitchen/light", kitchen);
+        subscription.processMessage("house/bath/light", "OFF".getBytes());
+        subscription.processMessage("house/bath/light", new byte[0]);
+
+        router.subscribe("house/+/light", second);
+        verify(connection, times(1)).subscribe(any(), any());
+        verify(second).processMessage(eq("house/kitchen/light"), same(kitchen));
+        verify(second, times(1)).processMessage(any(), any());
+    }
+
+    @Test
+    public void pendingSubscriptionIsShared() {
+        CompletableFuture<Boolean> pending = new CompletableFuture<>();
+        doReturn(pending).when(connection).subscribe(eq("a/b"), any());
+
+        CompletableFuture<Boolean> firstFuture = router.subscribe("a/b", first);
+        CompletableFuture<Boolean> secondFuture = router.subscribe("a/b", second);
+        verify(connection, times(1)).subscribe(eq("a/b"), any());
+        assertThat(secondFuture.isDone(), is(false));
+
+        pending.complete(true);
+        assertThat(firstFuture.getNow(false), is(true));
+        assertThat(secondFuture.getNow(false), is(true));
+    }
+
+    @Test
+    public void failingSubscriberDoesNotAffectOthers() {
+        router.subscribe("a/b", first);
+        router.subscribe("a/b", second);
+        doThrow(new IllegalStateException()).when(first).processMessage(any(), any());
+
+        byte[] payload = new byte[] { 1 };
+        brokerSubscription("a/b").processMessage("a/b", payload);
+        verify(second).processMessage(eq("a/b"), eq(payload));
+    }
+}
@@ -19,8 +19,7 @@ import java.net.SocketException;
 import java.net.UnknownHostException;
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +34,8 @@ import org.openhab.binding.network.internal.toberemoved.cache.ExpiringCacheAsync
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.openhab.binding.network.internal.utils.NetworkUtils.ArpPingUtilEnum;
 import org.openhab.binding.network.internal.utils.NetworkUtils.IpPingMethodEnum;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine.ProbeRun;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -75,7 +76,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
     ExpiringCacheAsync<PresenceDetectionValue> cache;
     private final PresenceDetectionListener updateListener;
     private @Nullable ScheduledFuture<?> refreshJob;
-    protected @Nullable ExecutorService executorService;
+    protected @Nullable ProbeRun probeRun;
     private String dhcpState = "off";
     Integer currentCheck = 0;
     int detectionChecks;
@@ -271,14 +272,18 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         cache.getValue(callback);
     }
 
-    public ExecutorService getThreadsFor(int threadCount) {
-        return Executors.newFixedThreadPool(threadCount);
+    /**
+     * Returns the executor for the blocking checks of one presence detection run. The checks of all
+     * presence detections are executed by the bounded thread pool of the {@link PresenceProbeEngine}.
+     */
+    public ProbeRun newProbeRun() {
+        return PresenceProbeEngine.getInstance().newProbeRun();
     }
 
     /**
      * Perform a presence detection with ICMP-, ARP ping and
-     * TCP connection attempts simultaneously. A fixed thread pool will be created with as many
-     * thread as necessary to perform all tests at once.
+     * TCP connection attempts simultaneously. TCP connection attempts are performed non-blocking
+     * by the {@link PresenceProbeEngine}, ICMP and ARP pings are executed by its shared thread pool.
      *
      * This is a NO-OP, if there is already an ongoing detection or if the cached value
      * is not expired yet.
@@ -292,7 +297,7 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * @return Return true if a presence detection is performed and false otherwise.
      */
     public boolean performPresenceDetection(boolean waitForDetectionToFinish) {
-        if (executorService != null) {
+        if (probeRun != null) {
             logger.debug(
                     "There is already an ongoing presence discovery for {} and a new one was issued by the scheduler! TCP Port {}",
                     hostname, tcpPorts);
@@ -319,41 +324,30 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             return false;
         }
 
-        final ExecutorService executorService = getThreadsFor(detectionChecks);
-        this.executorService = executorService;
-
-        for (Integer tcpPort : tcpPorts) {
-            executorService.execute(() -> {
-                Thread.currentThread().setName("presenceDetectionTCP_" + hostname + " " + String.valueOf(tcpPort));
-                performServicePing(tcpPort);
-                checkIfFinished();
-            });
-        }
+        final ProbeRun probeRun = newProbeRun();
+        this.probeRun = probeRun;
 
-        // ARP ping for IPv4 addresses. Use single executor for Windows tool and 
-        // each own executor for each network interface for other tools
+        // ARP ping for IPv4 addresses. Use single task for Windows tool and
+        // each own task for each network interface for other tools
         if (arpPingMethod == ArpPingUtilEnum.ELI_FULKERSON_ARP_PING_FOR_WINDOWS) {
-            executorService.execute(() -> {
-               Thread.currentThread().setName("presenceDetectionARP_" + hostname + " ");
-               // arp-ping.exe tool capable of handling multiple interfaces by itself
-               performARPping("");
-               checkIfFinished();
+            probeRun.execute(() -> {
+                // arp-ping.exe tool capable of handling multiple interfaces by itself
+                performARPping("");
+                checkIfFinished();
             });
-        } else if (interfaceNames != null) {                        
+        } else if (interfaceNames != null) {
             for (final String interfaceName : interfaceNames) {
-                executorService.execute(() -> {
-                   Thread.currentThread().setName("presenceDetectionARP_" + hostname + " " + interfaceName);
-                   performARPping(interfaceName);
-                   checkIfFinished();
-               });               
+                probeRun.execute(() -> {
+                    performARPping(interfaceName);
+                    checkIfFinished();
+                });
             }
         }
 
         // ICMP ping
         if (pingMethod != null) {
-            executorService.execute(() -> {
+            probeRun.execute(() -> {
                 if (pingMethod != IpPingMethodEnum.JAVA_PING) {
-                    Thread.currentThread().setName("presenceDetectionICMP_" + hostname);
                     performSystemPing();
                 } else {
                     performJavaPing();
@@ -362,6 +356,11 @@ public class PresenceDetection implements IPRequestReceivedCallback {
             });
         }
 
+        // TCP connection attempts do not occupy a thread
+        for (Integer tcpPort : tcpPorts) {
+            performServicePing(tcpPort).whenComplete((reachable, error) -> checkIfFinished());
+        }
+
         if (waitForDetectionToFinish) {
             waitForPresenceDetection();
         }
@@ -377,13 +376,13 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      */
     private synchronized void submitFinalResult() {
         // Do nothing if we are not in a detection process
-        ExecutorService service = executorService;
+        ProbeRun service = probeRun;
         if (service == null) {
             return;
         }
         // Finish the detection process
         service.shutdownNow();
-        executorService = null;
+        probeRun = null;
         detectionChecks = 0;
 
         PresenceDetectionValue v;
@@ -425,18 +424,19 @@ public class PresenceDetection implements IPRequestReceivedCallback {
      * if no presence detection is performed right now.
      */
     public void waitForPresenceDetection() {
-        ExecutorService service = executorService;
+        ProbeRun service = probeRun;
         if (service == null) {
             return;
         }
         try {
-            // We may get interrupted here by cancelRefreshJob().
-            service.awaitTermination(timeoutInMS + 100, TimeUnit.MILLISECONDS);
+            // We may get interrupted here by cancelRefreshJob(). The checks might be queued behind the checks of
+            // other things, the timeout applies from their start.
+            service.awaitProbes(timeoutInMS + 100, TimeUnit.MILLISECONDS);
             submitFinalResult();
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt(); // Reset interrupt flag
             service.shutdownNow();
-            executorService = null;
+            probeRun = null;
         }
     }
 
@@ -465,22 +465,37 @@ public class PresenceDetection implements IPRequestReceivedCallback {
         return v;
     }
 
-    protected void performServicePing(int tcpPort) {
+    /**
+     * Performs a TCP connection attempt to the given port without blocking the calling thread.
+     *
+     * @param tcpPort The tcp port
+     * @return A future that completes with true if the device is reachable on the port, after the
+     *         partial result has been submitted.
+     */
+    protected CompletableFuture<Boolean> performServicePing(int tcpPort) {
         logger.trace("Perform TCP presence detection for {} on port: {}", hostname, tcpPort);
-        try {
-            double pingTime = System.nanoTime();
-            InetAddress destinationAddress = destination.getValue();
-            if (destinationAddress != null
-                    && networkUtils.servicePing(destinationAddress.getHostAddress(), tcpPort, timeoutInMS)) {
-                final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
-                PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION, latency);
-                v.addReachableTcpService(tcpPort);
-                updateListener.partialDetectionResult(v);
-            }
-        } catch (IOException e) {
-            // This should not happen and might be a user configuration issue, we log a warning message therefore.
-            logger.warn("Could not create a socket connection", e);
+        InetAddress destinationAddress = destination.getValue();
+        if (destinationAddress == null) {
+            return CompletableFuture.completedFuture(false);
         }
+        final double pingTime = System.nanoTime();
+        return networkUtils.servicePingAsync(destinationAddress.getHostAddress(), tcpPort, timeoutInMS)
+                .handle((reachable, error) -> {
+                    if (error != null) {
+                        // This should not happen and might be a user configuration issue, we log a warning message
+                        // therefore.
+                        logger.warn("Could not create a socket connection", error);
+                        return false;
+                    }
+                    if (reachable) {
+                        final double latency = Math.round((System.nanoTime() - pingTime) / 1000000.0f);
+                        PresenceDetectionValue v = updateReachableValue(PresenceDetectionType.TCP_CONNECTION,
+                                latency);
+                        v.addReachableTcpService(tcpPort);
+                        updateListener.partialDetectionResult(v);
+                    }
+                    return reachable;
+                });
     }
 
     /**
@@ -14,7 +14,10 @@ package org.openhab.binding.network.internal.dhcp;
 
 import java.net.SocketException;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
@@ -28,6 +31,8 @@ import org.slf4j.LoggerFactory;
  * after the receive socket is closed.
  * IPRequestReceivedCallback will be called for the address that is registered and matches the
  * DHO_DHCP_REQUESTED_ADDRESS address field.
+ * The addresses of all received requests are remembered for the network discovery, see
+ * {@link #getRecentRequests(long)}.
  *
  * @author David Graeff - Initial contribution
  */
@@ -35,6 +40,7 @@ import org.slf4j.LoggerFactory;
 public class DHCPListenService {
     static @Nullable DHCPPacketListenerServer instance;
     static Map<String, IPRequestReceivedCallback> registeredListeners = new TreeMap<>();
+    static Map<String, Long> recentRequests = new ConcurrentHashMap<>();
     static Logger logger = LoggerFactory.getLogger(DHCPListenService.class);
 
     @SuppressWarnings({ "null", "unused" })
@@ -43,6 +49,7 @@ public class DHCPListenService {
         DHCPPacketListenerServer instance = DHCPListenService.instance;
         if (instance == null) {
             instance = new DHCPPacketListenerServer((String ipAddress) -> {
+                recentRequests.put(ipAddress, System.currentTimeMillis());
                 IPRequestReceivedCallback listener = registeredListeners.get(ipAddress);
                 if (listener != null) {
                     listener.dhcpRequestReceived(ipAddress);
@@ -73,4 +80,17 @@ public class DHCPListenService {
         }
         DHCPListenService.instance = null;
     }
+
+    /**
+     * Returns the addresses of the DHCP requests received within the given time frame. Requests are only received,
+     * while at least one IPRequestReceivedCallback is registered.
+     *
+     * @param maxAgeInMS The maximum age of a request in milliseconds
+     * @return The requested IP addresses
+     */
+    public static Set<String> getRecentRequests(long maxAgeInMS) {
+        final long oldest = System.currentTimeMillis() - maxAgeInMS;
+        recentRequests.values().removeIf(time -> time < oldest);
+        return recentRequests.keySet().stream().collect(Collectors.toSet());
+    }
 }
@@ -14,8 +14,10 @@ package org.openhab.binding.network.internal.discovery;
 
 import static org.openhab.binding.network.internal.NetworkBindingConstants.*;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,6 +38,8 @@ import org.openhab.binding.network.internal.NetworkBindingConfiguration;
 import org.openhab.binding.network.internal.PresenceDetection;
 import org.openhab.binding.network.internal.PresenceDetectionListener;
 import org.openhab.binding.network.internal.PresenceDetectionValue;
+import org.openhab.binding.network.internal.dhcp.DHCPListenService;
+import org.openhab.binding.network.internal.discovery.SubnetSweep.SweepListener;
 import org.openhab.binding.network.internal.utils.NetworkUtils;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
@@ -49,6 +53,9 @@ import org.slf4j.LoggerFactory;
  * the current Network. It uses every Network Interface which is connected to a network.
  * It tries common TCP ports to connect to, ICMP pings and ARP pings.
  *
+ * In sweep mode, all IP and port pairs are tried by a single {@link SubnetSweep} instead. Devices that
+ * are known by the ARP cache or by recent DHCP requests are submitted upfront.
+ *
  * @author Marc Mettke - Initial contribution
  * @author David Graeff - Rewritten
  */
@@ -58,6 +65,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
     static final int PING_TIMEOUT_IN_MS = 500;
     static final int MAXIMUM_IPS_PER_INTERFACE = 255;
     private static final long DISCOVERY_RESULT_TTL = TimeUnit.MINUTES.toSeconds(10);
+    private static final long DHCP_REQUEST_MAX_AGE_MS = TimeUnit.MINUTES.toMillis(10);
     private final Logger logger = LoggerFactory.getLogger(NetworkDiscoveryService.class);
 
     // TCP port 548 (Apple Filing Protocol (AFP))
@@ -67,6 +75,7 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
             .unmodifiableSet(Stream.of(80, 548, 554, 1025).collect(Collectors.toSet()));
     private Integer scannedIPcount = 0;
     private @Nullable ExecutorService executorService = null;
+    private @Nullable SubnetSweep sweep = null;
     private final NetworkBindingConfiguration configuration = new NetworkBindingConfiguration();
     private final NetworkUtils networkUtils = new NetworkUtils();
 
@@ -99,6 +108,10 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
         if (executorService != null) {
             executorService.shutdown();
         }
+        final SubnetSweep sweep = this.sweep;
+        if (sweep != null) {
+            sweep.cancel();
+        }
         super.deactivate();
     }
 
@@ -124,6 +137,10 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
      */
     @Override
     protected void startScan() {
+        if (configuration.discoverySweep) {
+            startSweep();
+            return;
+        }
         if (executorService == null) {
             executorService = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
         }
@@ -163,9 +180,69 @@ public class NetworkDiscoveryService extends AbstractDiscoveryService implements
         }
     }
 
+    /**
+     * Submits the devices known by the ARP cache or by recent DHCP requests and sweeps all IPs on each interface on
+     * the network for the TCP service ports afterwards.
+     */
+    private synchronized void startSweep() {
+        if (sweep != null) {
+            return;
+        }
+        removeOlderResults(getTimestampOfLastScan(), null);
+        logger.trace("Starting Network Device Sweep");
+
+        final Set<String> networkIPs = networkUtils.getNetworkIPs(MAXIMUM_IPS_PER_INTERFACE);
+        final SubnetSweep sweep = new SubnetSweep(configuration.discoveryConcurrency.intValue(), PING_TIMEOUT_IN_MS);
+        this.sweep = sweep;
+        scheduler.execute(() -> {
+            long start = System.currentTimeMillis();
+            Set<String> knownIPs = new LinkedHashSet<>(DHCPListenService.getRecentRequests(DHCP_REQUEST_MAX_AGE_MS));
+            knownIPs.addAll(networkUtils.getArpCacheAddresses());
+            knownIPs.retainAll(networkIPs);
+            knownIPs.forEach(this::newPingDevice);
+
+            try {
+                sweep.sweep(networkIPs, tcpServicePorts, new SweepListener() {
+                    @Override
+                    public void portOpen(String ip, int port) {
+                        newServiceDevice(ip, port);
+                    }
+
+                    @Override
+                    public void hostAlive(String ip) {
+                        if (knownIPs.add(ip)) {
+                            newPingDevice(ip);
+                        }
+                    }
+                });
+                // The connection attempts have resolved the hardware address of all present devices on the local
+                // networks, including devices without any of the service ports.
+                Set<String> arpCacheIPs = networkUtils.getArpCacheAddresses();
+                arpCacheIPs.retainAll(networkIPs);
+                arpCacheIPs.removeAll(knownIPs);
+                arpCacheIPs.forEach(this::newPingDevice);
+                logger.debug("Sweep of {} IPs with {} connection attempts finished in {} ms", networkIPs.size(),
+                        sweep.getProbeCount(), System.currentTimeMillis() - start);
+            } catch (IOException e) {
+                logger.warn("Network device sweep failed", e);
+            } finally {
+                synchronized (this) {
+                    if (this.sweep == sweep) {
+                        stopScan();
+                    }
+                }
+            }
+        });
+    }
+
     @Override
     protected synchronized void stopScan() {
         super.stopScan();
+        final SubnetSweep sweep = this.sweep;
+        if (sweep != null) {
+            sweep.cancel();
+            this.sweep = null;
+        }
         final ExecutorService service = executorService;
         if (service == null) {
             return;
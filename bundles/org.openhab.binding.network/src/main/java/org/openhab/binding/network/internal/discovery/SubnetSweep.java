@@ -0,0 +1,266 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sweeps a set of IP addresses for open TCP ports. All address and port pairs are driven through a single
+ * {@link Selector} by the calling thread, with at most a configured amount of connection attempts in flight
+ * and a deadline per attempt.
+ *
+ * An open port is reported with {@link SweepListener#portOpen(String, int)}. A denied connection attempt proves
+ * the presence of the device as well and is reported once per address with {@link SweepListener#hostAlive(String)}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class SubnetSweep {
+    private final Logger logger = LoggerFactory.getLogger(SubnetSweep.class);
+
+    /**
+     * Receives the results of a sweep. Called by the sweeping thread.
+     */
+    public interface SweepListener {
+        /**
+         * A connection to the port of the device could be established.
+         */
+        void portOpen(String ip, int port);
+
+        /**
+         * The device denied a connection attempt and is therefore present.
+         */
+        void hostAlive(String ip);
+    }
+
+    private static class Probe {
+        final String ip;
+        final int port;
+        final long deadline;
+        final SocketChannel channel;
+        boolean done = false;
+
+        Probe(String ip, int port, long deadline, SocketChannel channel) {
+            this.ip = ip;
+            this.port = port;
+            this.deadline = deadline;
+            this.channel = channel;
+        }
+    }
+
+    private final int concurrency;
+    private final int timeoutInMS;
+    private volatile boolean cancelled = false;
+    private volatile @Nullable Selector selector;
+    private int maxInFlight = 0;
+    private long probeCount = 0;
+
+    /**
+     * Creates a sweep.
+     *
+     * @param concurrency The maximum amount of connection attempts in flight
+     * @param timeoutInMS The deadline of each connection attempt in milliseconds
+     */
+    public SubnetSweep(int concurrency, int timeoutInMS) {
+        this.concurrency = Math.max(1, concurrency);
+        this.timeoutInMS = timeoutInMS;
+    }
+
+    /**
+     * Performs the sweep and returns, if all connection attempts are completed or the sweep got cancelled.
+     *
+     * @param ips The IPv4 or IPv6 addresses in textual form
+     * @param ports The TCP ports to try on each address
+     * @param listener Receives the results
+     * @throws IOException If the selector could not be opened
+     */
+    public void sweep(Collection<String> ips, Collection<Integer> ports, SweepListener listener) throws IOException {
+        if (ips.isEmpty() || ports.isEmpty()) {
+            return;
+        }
+        Iterator<String> ipIterator = ips.iterator();
+        Iterator<Integer> portIterator = ports.iterator();
+        String ip = null;
+        // All attempts have the same timeout, so the deadlines are in order
+        ArrayDeque<Probe> inFlight = new ArrayDeque<>();
+        Set<String> aliveHosts = new HashSet<>();
+        int pending = 0;
+
+        try (Selector selector = Selector.open()) {
+            this.selector = selector;
+            while (!cancelled) {
+                // Fill the window
+                while (pending < concurrency && (portIterator.hasNext() || ipIterator.hasNext())) {
+                    if (ip == null || !portIterator.hasNext()) {
+                        ip = ipIterator.next();
+                        portIterator = ports.iterator();
+                    }
+                    Probe probe = startProbe(selector, ip, portIterator.next(), listener, aliveHosts);
+                    if (probe != null) {
+                        inFlight.add(probe);
+                        pending++;
+                    }
+                }
+                maxInFlight = Math.max(maxInFlight, pending);
+                if (pending == 0) {
+                    break;
+                }
+
+                // Expire attempts that exceeded their deadline
+                long now = System.nanoTime();
+                Probe head;
+                while ((head = inFlight.peek()) != null && (head.done || head.deadline - now <= 0)) {
+                    inFlight.poll();
+                    if (!head.done) {
+                        finish(head);
+                        pending--;
+                    }
+                }
+                if (head == null) {
+                    continue;
+                }
+
+                selector.select(TimeUnit.NANOSECONDS.toMillis(head.deadline - now) + 1);
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    Probe probe = (Probe) key.attachment();
+                    if (probe != null && !probe.done && finishConnect(probe, listener, aliveHosts)) {
+                        pending--;
+                    }
+                }
+            }
+        } finally {
+            this.selector = null;
+            for (Probe probe : inFlight) {
+                if (!probe.done) {
+                    finish(probe);
+                }
+            }
+        }
+    }
+
+    private @Nullable Probe startProbe(Selector selector, String ip, int port, SweepListener listener,
+            Set<String> aliveHosts) {
+        probeCount++;
+        SocketChannel channel = null;
+        try {
+            channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            Probe probe = new Probe(ip, port, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMS),
+                    channel);
+            if (channel.connect(new InetSocketAddress(InetAddress.getByName(ip), port))) {
+                finish(probe);
+                listener.portOpen(ip, port);
+                return null;
+            }
+            channel.register(selector, SelectionKey.OP_CONNECT, probe);
+            return probe;
+        } catch (ConnectException e) {
+            close(channel);
+            reportAlive(ip, listener, aliveHosts);
+        } catch (IOException e) {
+            // Unreachable network, too many open files, ...
+            logger.trace("Connection attempt to {}:{} failed", ip, port, e);
+            close(channel);
+        }
+        return null;
+    }
+
+    /**
+     * Finishes a connection attempt that became selectable.
+     *
+     * @return Return true if the attempt is completed
+     */
+    private boolean finishConnect(Probe probe, SweepListener listener, Set<String> aliveHosts) {
+        try {
+            if (!probe.channel.finishConnect()) {
+                return false;
+            }
+            finish(probe);
+            listener.portOpen(probe.ip, probe.port);
+        } catch (ConnectException e) {
+            finish(probe);
+            reportAlive(probe.ip, listener, aliveHosts);
+        } catch (IOException e) {
+            // No route to host, ...
+            finish(probe);
+        }
+        return true;
+    }
+
+    private void reportAlive(String ip, SweepListener listener, Set<String> aliveHosts) {
+        if (aliveHosts.add(ip)) {
+            listener.hostAlive(ip);
+        }
+    }
+
+    private void finish(Probe probe) {
+        probe.done = true;
+        close(probe.channel);
+    }
+
+    private static void close(@Nullable SocketChannel channel) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            // Also cancels the selection key
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Cancels the sweep. Safe to be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+        Selector selector = this.selector;
+        if (selector != null) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * Returns the maximum amount of connection attempts that have been in flight at the same time.
+     */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Returns the amount of started connection attempts.
+     */
+    public long getProbeCount() {
+        return probeCount;
+    }
+}
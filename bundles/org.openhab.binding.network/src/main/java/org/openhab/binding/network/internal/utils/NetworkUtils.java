@@ -28,10 +28,16 @@ import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang.StringUtils;
@@ -52,6 +58,10 @@ import org.slf4j.LoggerFactory;
  */
 @NonNullByDefault
 public class NetworkUtils {
+    private static final Path ARP_CACHE_PATH = Paths.get("/proc/net/arp");
+    private static final String ARP_INCOMPLETE_FLAGS = "0x0";
+    private static final String ARP_INCOMPLETE_HW_ADDRESS = "00:00:00:00:00:00";
+
     private final Logger logger = LoggerFactory.getLogger(NetworkUtils.class);
 
     /**
@@ -164,6 +174,57 @@ public class NetworkUtils {
         }
     }
 
+    /**
+     * Try to establish a tcp connection to the given port without blocking the calling thread.
+     * The connection attempt is performed by the shared {@link PresenceProbeEngine}.
+     *
+     * @param host The IP address
+     * @param port The tcp port. Must be not 0.
+     * @param timeout Timeout in ms
+     * @return A future that completes with true if the connection could be established, with false if a timeout
+     *         occurred or the connection was denied and exceptionally for any other IO error.
+     */
+    public CompletableFuture<Boolean> servicePingAsync(String host, int port, int timeout) {
+        return PresenceProbeEngine.getInstance().connect(new InetSocketAddress(host, port), timeout);
+    }
+
+    /**
+     * Returns the IPv4 addresses with a resolved hardware address in the ARP cache of the operating system.
+     * The ARP cache can only be read on Linux, an empty set is returned on other systems.
+     *
+     * @return The IP addresses of recently seen devices on the local networks
+     */
+    public Set<String> getArpCacheAddresses() {
+        if (!Files.isReadable(ARP_CACHE_PATH)) {
+            return new HashSet<>();
+        }
+        try {
+            return parseArpCache(Files.readAllLines(ARP_CACHE_PATH, StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            logger.debug("Could not read the ARP cache", e);
+            return new HashSet<>();
+        }
+    }
+
+    /**
+     * Parses the lines of /proc/net/arp. Entries without a resolved hardware address are skipped.
+     *
+     * @param lines The lines, including the header
+     * @return The IP addresses
+     */
+    public static Set<String> parseArpCache(List<String> lines) {
+        Set<String> result = new LinkedHashSet<>();
+        // IP address HW type Flags HW address Mask Device
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            String[] columns = line.trim().split("\\s+");
+            if (columns.length >= 4 && !ARP_INCOMPLETE_FLAGS.equals(columns[2])
+                    && !ARP_INCOMPLETE_HW_ADDRESS.equals(columns[3])) {
+                result.add(columns[0]);
+            }
+        }
+        return result;
+    }
+
     /**
      * Return the working method for the native system ping. If no native ping
      * works JavaPing is returned.
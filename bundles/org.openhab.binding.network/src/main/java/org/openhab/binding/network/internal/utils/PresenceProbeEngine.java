@@ -0,0 +1,544 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.NoRouteToHostException;
+import java.nio.channels.Channel;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A singleton, shared by all presence detections of the binding.
+ *
+ * TCP connection attempts are performed non-blocking by a single selector thread, with a deadline per attempt.
+ * Concurrent attempts to the same address and port are merged into one attempt and the result is handed to all
+ * requesters. The selector thread is started with the first attempt and is stopped by {@link #stop()}.
+ *
+ * Probes that need to block, like the native ping and arping processes, are executed by a bounded thread pool. Each
+ * presence detection run gets its own {@link ExecutorService} view of that pool, see {@link #newProbeRun()}, so that a
+ * run can be awaited and cancelled without creating or shutting down threads. Probes of a run might be queued behind
+ * the probes of other runs, {@link ProbeRun#awaitProbes(long, TimeUnit)} therefore measures the timeout from the
+ * start of the probes.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class PresenceProbeEngine {
+    /** The maximum number of threads for blocking probes, shared by all presence detections */
+    public static final int MAX_PROBE_THREADS = 16;
+    private static final long PROBE_THREAD_KEEPALIVE_SEC = 60;
+
+    private static @Nullable PresenceProbeEngine instance;
+
+    private final Logger logger = LoggerFactory.getLogger(PresenceProbeEngine.class);
+
+    private final ThreadPoolExecutor probePool;
+    private final AtomicInteger probeThreadCounter = new AtomicInteger();
+    private final Map<InetSocketAddress, CompletableFuture<Boolean>> pendingConnects = new ConcurrentHashMap<>();
+    private final Queue<ConnectProbe> newConnects = new ConcurrentLinkedQueue<>();
+    private final AtomicLong completedConnects = new AtomicLong();
+    private final AtomicLong mergedConnects = new AtomicLong();
+    private @Nullable Selector selector;
+    private volatile @Nullable Thread selectorThread;
+    private boolean stopped = false;
+
+    /**
+     * A pending TCP connection attempt.
+     */
+    private static class ConnectProbe {
+        final InetSocketAddress address;
+        final long deadline;
+        final CompletableFuture<Boolean> result;
+        @Nullable
+        SelectionKey key;
+
+        ConnectProbe(InetSocketAddress address, int timeoutInMS, CompletableFuture<Boolean> result) {
+            this.address = address;
+            this.deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutInMS);
+            this.result = result;
+        }
+    }
+
+    PresenceProbeEngine() {
+        probePool = new ThreadPoolExecutor(MAX_PROBE_THREADS, MAX_PROBE_THREADS, PROBE_THREAD_KEEPALIVE_SEC,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable,
+                            "networkBinding-probe-" + probeThreadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        probePool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the engine instance. An instance is created if there is none or the last one has been stopped.
+     */
+    public static synchronized PresenceProbeEngine getInstance() {
+        PresenceProbeEngine instance = PresenceProbeEngine.instance;
+        if (instance == null) {
+            instance = new PresenceProbeEngine();
+            PresenceProbeEngine.instance = instance;
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the engine instance, if there is one. Pending connection attempts are completed with false.
+     */
+    public static synchronized void stopInstance() {
+        PresenceProbeEngine instance = PresenceProbeEngine.instance;
+        if (instance != null) {
+            instance.stop();
+            PresenceProbeEngine.instance = null;
+        }
+    }
+
+    /**
+     * Tries to establish a TCP connection to the given address without blocking the calling thread.
+     * The connection is closed right away.
+     *
+     * Completion stages added to the returned future are executed on the selector thread and should not block.
+     *
+     * @param address A resolved address and port
+     * @param timeoutInMS Timeout in milliseconds. If there is a pending attempt to the same address already,
+     *            the deadline of that attempt applies.
+     * @return A future that completes with true if the connection could be established, with false if a timeout
+     *         occurred or the connection was denied and exceptionally for any other IO error.
+     */
+    public CompletableFuture<Boolean> connect(InetSocketAddress address, int timeoutInMS) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        CompletableFuture<Boolean> pending = pendingConnects.putIfAbsent(address, result);
+        if (pending != null) {
+            mergedConnects.incrementAndGet();
+            return pending.thenApply(Function.identity());
+        }
+
+        Selector selector;
+        try {
+            selector = getSelector();
+        } catch (IOException e) {
+            complete(address, result, e);
+            return result;
+        }
+        newConnects.add(new ConnectProbe(address, timeoutInMS, result));
+        selector.wakeup();
+        if (!selector.isOpen()) {
+            // Stopped concurrently
+            completeNewConnects();
+        }
+        return result;
+    }
+
+    private synchronized Selector getSelector() throws IOException {
+        if (stopped) {
+            throw new IOException("The presence probe engine has been stopped");
+        }
+        Selector selector = this.selector;
+        if (selector == null) {
+            final Selector newSelector = Selector.open();
+            Thread thread = new Thread(() -> selectLoop(newSelector), "networkBinding-probe-selector");
+            thread.setDaemon(true);
+            selector = newSelector;
+            this.selector = newSelector;
+            this.selectorThread = thread;
+            thread.start();
+        }
+        return selector;
+    }
+
+    private void selectLoop(Selector selector) {
+        // Only accessed by the selector thread
+        Set<ConnectProbe> activeConnects = new HashSet<>();
+        try {
+            while (selector.isOpen()) {
+                registerNewConnects(selector, activeConnects);
+                long timeout = expireConnects(activeConnects);
+                selector.select(timeout);
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    ConnectProbe probe = (ConnectProbe) key.attachment();
+                    if (probe != null && finishConnect(probe, key)) {
+                        activeConnects.remove(probe);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException e) {
+            if (selector.isOpen()) {
+                logger.warn("Presence probe selector failed", e);
+            }
+        } finally {
+            closeSelector(selector, activeConnects);
+        }
+    }
+
+    private void registerNewConnects(Selector selector, Set<ConnectProbe> activeConnects) {
+        ConnectProbe probe;
+        while ((probe = newConnects.poll()) != null) {
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                if (channel.connect(probe.address)) {
+                    closeQuietly(channel);
+                    complete(probe.address, probe.result, null);
+                } else {
+                    probe.key = channel.register(selector, SelectionKey.OP_CONNECT, probe);
+                    activeConnects.add(probe);
+                }
+            } catch (IOException | RuntimeException e) {
+                // An unresolved address is reported by an unchecked exception
+                if (channel != null) {
+                    closeQuietly(channel);
+                }
+                complete(probe.address, probe.result, e);
+            }
+        }
+    }
+
+    /**
+     * Completes all connection attempts that exceeded their deadline.
+     *
+     * @return The time in milliseconds until the next deadline or 0 if there is no pending attempt.
+     */
+    private long expireConnects(Set<ConnectProbe> activeConnects) {
+        long now = System.nanoTime();
+        long next = Long.MAX_VALUE;
+        Iterator<ConnectProbe> it = activeConnects.iterator();
+        while (it.hasNext()) {
+            ConnectProbe probe = it.next();
+            if (probe.deadline - now <= 0) {
+                it.remove();
+                cancel(probe);
+                complete(probe.address, probe.result, new ConnectException("Connect timed out"));
+            } else {
+                next = Math.min(next, probe.deadline - now);
+            }
+        }
+        return next == Long.MAX_VALUE ? 0 : TimeUnit.NANOSECONDS.toMillis(next) + 1;
+    }
+
+    /**
+     * Finishes a connection attempt that became selectable.
+     *
+     * @return Return true if the attempt is completed
+     */
+    private boolean finishConnect(ConnectProbe probe, SelectionKey key) {
+        try {
+            if (!((SocketChannel) key.channel()).finishConnect()) {
+                return false;
+            }
+            cancel(probe);
+            complete(probe.address, probe.result, null);
+        } catch (IOException e) {
+            cancel(probe);
+            complete(probe.address, probe.result, e);
+        }
+        return true;
+    }
+
+    private void cancel(ConnectProbe probe) {
+        SelectionKey key = probe.key;
+        if (key != null) {
+            key.cancel();
+            closeQuietly(key.channel());
+        }
+    }
+
+    private void complete(InetSocketAddress address, CompletableFuture<Boolean> result, @Nullable Throwable error) {
+        pendingConnects.remove(address, result);
+        completedConnects.incrementAndGet();
+        try {
+            if (error == null) {
+                result.complete(true);
+            } else if (error instanceof ConnectException || error instanceof NoRouteToHostException) {
+                // A timeout or a denied connection
+                result.complete(false);
+            } else {
+                result.completeExceptionally(error);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Presence probe result handler failed", e);
+        }
+    }
+
+    private void closeSelector(Selector selector, Set<ConnectProbe> activeConnects) {
+        synchronized (this) {
+            if (this.selector == selector) {
+                this.selector = null;
+                this.selectorThread = null;
+            }
+        }
+        for (ConnectProbe probe : activeConnects) {
+            cancel(probe);
+            complete(probe.address, probe.result, new ConnectException("Presence probe engine stopped"));
+        }
+        activeConnects.clear();
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+        completeNewConnects();
+    }
+
+    private void completeNewConnects() {
+        ConnectProbe probe;
+        while ((probe = newConnects.poll()) != null) {
+            complete(probe.address, probe.result, new ConnectException("Presence probe engine stopped"));
+        }
+    }
+
+    private static void closeQuietly(Channel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Stops the selector thread and the blocking probe threads. Pending connection attempts are completed with false,
+     * blocking probes are interrupted.
+     */
+    public void stop() {
+        Selector selector;
+        Thread thread;
+        synchronized (this) {
+            stopped = true;
+            selector = this.selector;
+            thread = this.selectorThread;
+        }
+        if (selector != null) {
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+        if (thread != null) {
+            try {
+                thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Runnable queued : probePool.shutdownNow()) {
+            // Completes the queued probes, their runs are awaited
+            if (queued instanceof Future) {
+                ((Future<?>) queued).cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Returns a new executor for the blocking probes of one presence detection run. Tasks are executed by the shared,
+     * bounded thread pool of the engine. Shutting down the returned executor only affects the tasks of this run:
+     * {@link ExecutorService#shutdownNow()} cancels and interrupts them and
+     * {@link ExecutorService#awaitTermination(long, TimeUnit)} waits until they are done.
+     */
+    public ProbeRun newProbeRun() {
+        return new ProbeRun();
+    }
+
+    /**
+     * Returns the number of threads currently used by the engine.
+     */
+    public int getThreadCount() {
+        Thread thread = selectorThread;
+        return probePool.getPoolSize() + (thread != null && thread.isAlive() ? 1 : 0);
+    }
+
+    /**
+     * Returns the number of completed TCP connection attempts.
+     */
+    public long getCompletedConnects() {
+        return completedConnects.get();
+    }
+
+    /**
+     * Returns the number of requested TCP connection attempts that were merged into a pending attempt.
+     */
+    public long getMergedConnects() {
+        return mergedConnects.get();
+    }
+
+    /**
+     * An executor view of the probe thread pool for the tasks of one presence detection run.
+     */
+    public class ProbeRun extends AbstractExecutorService {
+        private final Set<ProbeTask> tasks = ConcurrentHashMap.newKeySet();
+        private int runningTasks = 0;
+        private int queuedTasks = 0;
+        private long lastStart = System.nanoTime();
+        private boolean shutdown = false;
+
+        /**
+         * A task of the run. The started flag is guarded by the run.
+         */
+        private class ProbeTask extends FutureTask<@Nullable Void> {
+            boolean started = false;
+
+            ProbeTask(Runnable command) {
+                super(command, null);
+            }
+
+            @Override
+            public void run() {
+                taskStarted(this);
+                super.run();
+            }
+
+            @Override
+            protected void done() {
+                tasks.remove(this);
+                taskDone(this);
+            }
+        }
+
+        @Override
+        public void execute(@Nullable Runnable command) {
+            if (command == null) {
+                throw new NullPointerException();
+            }
+            synchronized (this) {
+                if (shutdown) {
+                    throw new RejectedExecutionException("The presence detection run is finished");
+                }
+                runningTasks++;
+                queuedTasks++;
+            }
+            ProbeTask task = new ProbeTask(command);
+            tasks.add(task);
+            try {
+                probePool.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.cancel(false);
+                throw e;
+            }
+        }
+
+        private synchronized void taskStarted(ProbeTask task) {
+            if (!task.started) {
+                task.started = true;
+                queuedTasks--;
+                lastStart = System.nanoTime();
+                notifyAll();
+            }
+        }
+
+        private synchronized void taskDone(ProbeTask task) {
+            if (!task.started) {
+                // Cancelled while queued
+                task.started = true;
+                queuedTasks--;
+            }
+            runningTasks--;
+            notifyAll();
+        }
+
+        @Override
+        public synchronized void shutdown() {
+            shutdown = true;
+            notifyAll();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown();
+            for (ProbeTask task : tasks) {
+                task.cancel(true);
+            }
+            return Collections.emptyList();
+        }
+
+        @Override
+        public synchronized boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public synchronized boolean isTerminated() {
+            return shutdown && runningTasks == 0;
+        }
+
+        @Override
+        public synchronized boolean awaitTermination(long timeout, @Nullable TimeUnit unit)
+                throws InterruptedException {
+            long deadline = System.nanoTime() + (unit != null ? unit : TimeUnit.MILLISECONDS).toNanos(timeout);
+            while (!isTerminated()) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+
+        /**
+         * Waits until the run is terminated, like {@link #awaitTermination(long, TimeUnit)}. The timeout applies from
+         * the start of the last started task instead of the call: there is no time limit while tasks of the run are
+         * queued behind the tasks of other runs.
+         *
+         * @param timeout The maximum time to wait after the start of the last task
+         * @param unit The unit of the timeout
+         * @return True if the run terminated and false if the timeout elapsed
+         * @throws InterruptedException If interrupted while waiting
+         */
+        public synchronized boolean awaitProbes(long timeout, TimeUnit unit) throws InterruptedException {
+            long timeoutNanos = unit.toNanos(timeout);
+            while (!isTerminated()) {
+                if (queuedTasks > 0) {
+                    wait();
+                    continue;
+                }
+                long remaining = lastStart + timeoutNanos - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        }
+    }
+}
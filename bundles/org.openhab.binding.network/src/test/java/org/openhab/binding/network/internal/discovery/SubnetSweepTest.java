@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.discovery;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.network.internal.discovery.SubnetSweep.SweepListener;
+import org.openhab.binding.network.internal.utils.NetworkUtils;
+
+/**
+ * Tests cases for {@see SubnetSweep}
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class SubnetSweepTest {
+    private static final String LOOPBACK_IP = "127.0.0.1";
+
+    ServerSocket server;
+    int openPort;
+    int closedPort;
+    Set<String> openServices = ConcurrentHashMap.newKeySet();
+    Set<String> aliveHosts = ConcurrentHashMap.newKeySet();
+
+    SweepListener listener = new SweepListener() {
+        @Override
+        public void portOpen(String ip, int port) {
+            openServices.add(ip + ":" + port);
+        }
+
+        @Override
+        public void hostAlive(String ip) {
+            assertTrue("Reported once per host", aliveHosts.add(ip));
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        try (ServerSocket closed = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            closedPort = closed.getLocalPort();
+        }
+        server = new ServerSocket(0, 500, InetAddress.getLoopbackAddress());
+        openPort = server.getLocalPort();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+    }
+
+    @Test
+    public void openAndClosedPorts() throws IOException {
+        SubnetSweep subject = new SubnetSweep(16, 1000);
+        subject.sweep(Collections.singleton(LOOPBACK_IP), Arrays.asList(openPort, closedPort), listener);
+
+        assertThat(openServices, is(Collections.singleton(LOOPBACK_IP + ":" + openPort)));
+        assertThat(aliveHosts, is(Collections.singleton(LOOPBACK_IP)));
+        assertThat(subject.getProbeCount(), is(2L));
+    }
+
+    @Test
+    public void concurrencyWindow() throws IOException {
+        List<String> ips = Collections.nCopies(100, LOOPBACK_IP);
+        SubnetSweep subject = new SubnetSweep(8, 1000);
+        subject.sweep(ips, Collections.singleton(openPort), listener);
+
+        assertThat(subject.getProbeCount(), is(100L));
+        assertTrue(subject.getMaxInFlight() <= 8);
+    }
+
+    @Test
+    public void cancelledSweep() throws IOException {
+        SubnetSweep subject = new SubnetSweep(8, 1000);
+        subject.cancel();
+        subject.sweep(Collections.singleton(LOOPBACK_IP), Collections.singleton(openPort), listener);
+        assertThat(subject.getProbeCount(), is(0L));
+    }
+
+    @Test
+    public void arpCacheParsed() {
+        List<String> lines = Arrays.asList(
+                "IP address       HW type     Flags       HW address            Mask     Device",
+                "192.168.1.1      0x1         0x2         a4:91:b1:00:00:01     *        eth0",
+                "192.168.1.20     0x1         0x0         00:00:00:00:00:00     *        eth0",
+                "192.168.1.30     0x1         0x2         b8:27:eb:00:00:02     *        eth0");
+        assertThat(NetworkUtils.parseArpCache(lines),
+                is(new HashSet<>(Arrays.asList("192.168.1.1", "192.168.1.30"))));
+        assertTrue(NetworkUtils.parseArpCache(Collections.emptyList()).isEmpty());
+    }
+
+    /**
+     * Sweeps a few loopback addresses and compares the result with a blocking scan of each address and port, like the
+     * discovery without sweep mode.
+     */
+    @Test
+    public void loopbackRangeMatchesBlockingScan() throws IOException {
+        List<String> ips = Arrays.asList(LOOPBACK_IP, "127.0.0.2", "127.0.0.3", "127.0.0.4");
+        List<Integer> ports = Arrays.asList(openPort, closedPort);
+        NetworkUtils networkUtils = new NetworkUtils();
+
+        Set<String> blockingOpenServices = new HashSet<>();
+        for (String ip : ips) {
+            for (int port : ports) {
+                try {
+                    if (networkUtils.servicePing(ip, port, NetworkDiscoveryService.PING_TIMEOUT_IN_MS)) {
+                        blockingOpenServices.add(ip + ":" + port);
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        SubnetSweep subject = new SubnetSweep(256, NetworkDiscoveryService.PING_TIMEOUT_IN_MS);
+        subject.sweep(ips, ports, listener);
+
+        assertThat(subject.getProbeCount(), is((long) ips.size() * ports.size()));
+        assertThat(openServices, hasItem(LOOPBACK_IP + ":" + openPort));
+        assertThat(openServices, is(blockingOpenServices));
+        assertThat(aliveHosts, hasItem(LOOPBACK_IP));
+    }
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.binding.network.internal.utils;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.binding.network.internal.utils.PresenceProbeEngine.ProbeRun;
+
+/**
+ * Tests cases for {@see PresenceProbeEngine}
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class PresenceProbeEngineTest {
+    PresenceProbeEngine subject;
+    List<ServerSocket> servers = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        subject = new PresenceProbeEngine();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        subject.stop();
+        for (ServerSocket server : servers) {
+            server.close();
+        }
+    }
+
+    private InetSocketAddress openHost() throws IOException {
+        ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        servers.add(server);
+        return new InetSocketAddress(server.getInetAddress(), server.getLocalPort());
+    }
+
+    @Test
+    public void connectOpenAndClosedPort() throws IOException, InterruptedException, ExecutionException {
+        InetSocketAddress open = openHost();
+        assertTrue(subject.connect(open, 1000).get());
+
+        InetSocketAddress closed = openHost();
+        servers.remove(servers.size() - 1).close();
+        assertFalse(subject.connect(closed, 1000).get());
+
+        assertThat(subject.getCompletedConnects(), is(2L));
+        assertThat(subject.getThreadCount(), is(1));
+    }
+
+    @Test
+    public void stoppedEngineCompletesConnects() throws IOException, InterruptedException {
+        subject.stop();
+        CompletableFuture<Boolean> result = subject.connect(openHost(), 1000);
+        assertTrue(result.isDone());
+        assertTrue(result.isCompletedExceptionally());
+    }
+
+    @Test
+    public void probeRunAwaitsAndCancelsItsTasks() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        ExecutorService run = subject.newProbeRun();
+        ExecutorService otherRun = subject.newProbeRun();
+        run.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(5000);
+            } catch (InterruptedException ignored) {
+                // Cancelled by shutdownNow()
+            }
+        });
+        AtomicInteger otherDone = new AtomicInteger();
+        otherRun.execute(() -> otherDone.incrementAndGet());
+
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        assertFalse(run.awaitTermination(50, TimeUnit.MILLISECONDS));
+
+        run.shutdownNow();
+        assertTrue(run.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(run.isTerminated());
+
+        // Other runs are not affected
+        otherRun.shutdown();
+        assertTrue(otherRun.awaitTermination(1, TimeUnit.SECONDS));
+        assertThat(otherDone.get(), is(1));
+    }
+
+    @Test
+    public void queuedProbesAreAwaitedFromTheirStart() throws InterruptedException {
+        // Occupy all probe threads, like the runs of many other things
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService busyRun = subject.newProbeRun();
+        for (int i = 0; i < PresenceProbeEngine.MAX_PROBE_THREADS; i++) {
+            busyRun.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+        }
+
+        ProbeRun run = subject.newProbeRun();
+        AtomicInteger done = new AtomicInteger();
+        for (int i = 0; i < 2 * PresenceProbeEngine.MAX_PROBE_THREADS; i++) {
+            run.execute(() -> done.incrementAndGet());
+        }
+        run.shutdown();
+
+        // The probes of the run start after the busy probes, later than the timeout after submission
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.schedule(release::countDown, 500, TimeUnit.MILLISECONDS);
+            assertFalse(run.awaitTermination(200, TimeUnit.MILLISECONDS));
+            assertTrue(run.awaitProbes(200, TimeUnit.MILLISECONDS));
+        } finally {
+            scheduler.shutdownNow();
+        }
+        assertThat(done.get(), is(2 * PresenceProbeEngine.MAX_PROBE_THREADS));
+    }
+
+    /**
+     * Probes many hosts at once. All of them are reachable and the engine connects to them with a single thread,
+     * instead of a thread per probe.
+     */
+    @Test
+    public void manyHostsAreProbedWithOneThread() throws IOException, InterruptedException, ExecutionException {
+        List<InetSocketAddress> hosts = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            hosts.add(openHost());
+        }
+
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (InetSocketAddress host : hosts) {
+            results.add(subject.connect(host, 1000));
+        }
+        int reachable = 0;
+        for (CompletableFuture<Boolean> result : results) {
+            reachable += result.get() ? 1 : 0;
+        }
+
+        assertThat(reachable, is(300));
+        assertThat(subject.getCompletedConnects(), is(300L));
+        assertThat(subject.getThreadCount(), is(1));
+    }
+}
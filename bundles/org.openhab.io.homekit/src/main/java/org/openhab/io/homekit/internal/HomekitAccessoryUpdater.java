@@ -12,9 +12,17 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.GenericItem;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.StateChangeListener;
@@ -30,12 +38,25 @@ import com.beowulfe.hap.HomekitCharacteristicChangeCallback;
  * Homekit library takes care of insuring only a single subscription exists for
  * each accessory.
  *
+ * Item changes are not notified right away. They are collected for a short time and notified together on a separate
+ * thread, so a burst of changes, like a scene or the changes of several items of one accessory, notifies each
+ * characteristic only once.
+ *
  * @author Andy Lintner - Initial contribution
  */
 public class HomekitAccessoryUpdater {
 
+    /*
+     * Time in milliseconds changes are collected before they are notified
+     */
+    private static final int NOTIFICATION_DELAY = 50;
+    private static final String THREADPOOL_HOMEKIT = "homekit";
+
     private Logger logger = LoggerFactory.getLogger(HomekitAccessoryUpdater.class);
     private final ConcurrentMap<ItemKey, Subscription> subscriptionsByName = new ConcurrentHashMap<>();
+    private final Map<ItemKey, HomekitCharacteristicChangeCallback> pendingChanges = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THREADPOOL_HOMEKIT);
+    private ScheduledFuture<?> notificationFuture;
 
     public void subscribe(GenericItem item, HomekitCharacteristicChangeCallback callback) {
         subscribe(item, null, callback);
@@ -52,9 +73,9 @@ public class HomekitAccessoryUpdater {
         subscriptionsByName.compute(itemKey, (k, v) -> {
             if (v != null) {
                 logger.debug("Compute: received duplicate subscription on item {} for key {}. Will unsubscribe.", item.getName(), key);
-                unsubscribe(item, key);
+                item.removeStateChangeListener(v);
             }
-            Subscription subscription = (changedItem, oldState, newState) -> callback.changed();
+            Subscription subscription = (changedItem, oldState, newState) -> changed(itemKey, callback);
             item.addStateChangeListener(subscription);
             logger.debug("Successfully added subscription for item '{}' using key '{}'", item.getName(), key);
             return subscription;
@@ -69,10 +90,54 @@ public class HomekitAccessoryUpdater {
         if (item == null) {
             return;
         }
-        subscriptionsByName.computeIfPresent(new ItemKey(item, key), (k, v) -> {
+        ItemKey itemKey = new ItemKey(item, key);
+        subscriptionsByName.computeIfPresent(itemKey, (k, v) -> {
             item.removeStateChangeListener(v);
             return null;
         });
+        synchronized (pendingChanges) {
+            pendingChanges.remove(itemKey);
+        }
+    }
+
+    /**
+     * Cancels all changes which are not notified yet.
+     */
+    public void stop() {
+        synchronized (pendingChanges) {
+            if (notificationFuture != null) {
+                notificationFuture.cancel(false);
+                notificationFuture = null;
+            }
+            pendingChanges.clear();
+        }
+    }
+
+    private void changed(ItemKey itemKey, HomekitCharacteristicChangeCallback callback) {
+        synchronized (pendingChanges) {
+            pendingChanges.put(itemKey, callback);
+            if (notificationFuture == null) {
+                notificationFuture = scheduler.schedule(this::notifyChanges, NOTIFICATION_DELAY,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void notifyChanges() {
+        List<HomekitCharacteristicChangeCallback> callbacks;
+        synchronized (pendingChanges) {
+            callbacks = new ArrayList<>(pendingChanges.values());
+            pendingChanges.clear();
+            notificationFuture = null;
+        }
+        logger.trace("Notifying {} characteristic changes", callbacks.size());
+        for (HomekitCharacteristicChangeCallback callback : callbacks) {
+            try {
+                callback.changed();
+            } catch (RuntimeException e) {
+                logger.warn("Could not notify characteristic change: {}", e.getMessage(), e);
+            }
+        }
     }
 
     @FunctionalInterface
@@ -12,7 +12,9 @@
  */
 package org.openhab.io.homekit.internal;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.items.ItemRegistry;
@@ -51,8 +53,11 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     }
 
     @Override
-    public void allItemsChanged(Collection<String> oldItemNames) {
+    public synchronized void allItemsChanged(Collection<String> oldItemNames) {
         clearAccessories();
+        if (itemRegistry != null) {
+            createAccessories(itemRegistry.getAll());
+        }
     }
 
     @Override
@@ -64,7 +69,7 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     }
 
     @Override
-    public void updated(Item oldElement, Item element) {
+    public synchronized void updated(Item oldElement, Item element) {
         removed(oldElement);
         added(element);
     }
@@ -78,9 +83,14 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
     }
 
     public synchronized void setItemRegistry(ItemRegistry itemRegistry) {
+        if (this.itemRegistry != null) {
+            this.itemRegistry.removeRegistryChangeListener(this);
+        }
         this.itemRegistry = itemRegistry;
-        itemRegistry.addRegistryChangeListener(this);
-        itemRegistry.getAll().forEach(item -> added(item));
+        if (itemRegistry != null) {
+            itemRegistry.addRegistryChangeListener(this);
+            createAccessories(itemRegistry.getAll());
+        }
     }
 
     public void setUpdater(HomekitAccessoryUpdater updater) {
@@ -95,6 +105,33 @@ public class HomekitChangeListener implements ItemRegistryChangeListener {
         if (this.itemRegistry != null) {
             this.itemRegistry.removeRegistryChangeListener(this);
         }
+        updater.stop();
+    }
+
+    /**
+     * Creates the accessories of all given items in one pass. Root devices are created first, so the characteristics
+     * of grouped accessories are added to their accessory right away.
+     */
+    private void createAccessories(Collection<Item> items) {
+        long start = System.currentTimeMillis();
+        int rootDevices = 0;
+        List<HomekitTaggedItem> characteristics = new ArrayList<>();
+        for (Item item : items) {
+            HomekitTaggedItem taggedItem = new HomekitTaggedItem(item, itemRegistry);
+            if (!taggedItem.isTagged()) {
+                continue;
+            }
+            if (taggedItem.isRootDevice()) {
+                createRootDevice(taggedItem);
+                rootDevices++;
+            }
+            if (taggedItem.isCharacteristic()) {
+                characteristics.add(taggedItem);
+            }
+        }
+        characteristics.forEach(this::createCharacteristic);
+        logger.info("Created {} homekit devices and {} characteristics from {} items in {} ms", rootDevices,
+                characteristics.size(), items.size(), System.currentTimeMillis() - start);
     }
 
     private void createRootDevice(HomekitTaggedItem taggedItem) {
@@ -126,7 +126,9 @@ public class HomekitImpl implements Homekit {
         homekit = new HomekitServer(settings.getNetworkInterface(), settings.getPort());
         bridge = homekit.createBridge(new HomekitAuthInfoImpl(storageService, settings.getPin()), settings.getName(),
                 settings.getManufacturer(), settings.getModel(), settings.getSerialNumber());
-        bridge.start();
+        // Add the accessories before starting the bridge. Adding accessories to a started bridge resets all client
+        // connections for every single accessory.
         changeListener.setBridge(bridge);
+        bridge.start();
     }
 }
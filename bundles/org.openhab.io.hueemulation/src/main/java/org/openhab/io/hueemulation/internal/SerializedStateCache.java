@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.items.GenericItem;
+import org.eclipse.smarthome.core.items.GroupItem;
+import org.eclipse.smarthome.core.types.State;
+import org.openhab.io.hueemulation.internal.dto.AbstractHueState;
+import org.openhab.io.hueemulation.internal.dto.HueDataStore;
+import org.openhab.io.hueemulation.internal.dto.HueGroupEntry;
+import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
+
+import com.google.gson.Gson;
+
+/**
+ * Keeps a pre-serialized JSON snapshot per light and group of the {@link HueDataStore}, to answer the frequent
+ * polling of hue clients without serializing all exposed items on every request.
+ * <p>
+ * A light is serialized again only if its entry, item, item state or label changed. A group is serialized again if
+ * its entry, item, action or members changed or if it got invalidated with {@link #invalidateGroup(String)}, because
+ * the action of a group is changed in place. The JSON object of all lights or groups is only assembled again, if any
+ * of the entries changed.
+ * <p>
+ * Each snapshot comes with an entity tag derived from the JSON, so unchanged documents can be answered with
+ * "304 Not Modified".
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class SerializedStateCache {
+    /**
+     * A serialized JSON document and its entity tag.
+     */
+    public static class Snapshot {
+        public final String json;
+        public final String etag;
+
+        Snapshot(String json) {
+            this.json = json;
+            this.etag = Integer.toHexString(json.hashCode()) + Integer.toHexString(json.length());
+        }
+    }
+
+    private static class LightSnapshot extends Snapshot {
+        final HueLightEntry entry;
+        final GenericItem item;
+        final State state;
+        final @Nullable String label;
+
+        LightSnapshot(HueLightEntry entry, String json, State state, @Nullable String label) {
+            super(json);
+            this.entry = entry;
+            this.item = entry.item;
+            this.state = state;
+            this.label = label;
+        }
+
+        boolean matches(HueLightEntry entry) {
+            return this.entry == entry && item == entry.item && state.equals(entry.item.getState())
+                    && Objects.equals(label, entry.item.getLabel());
+        }
+    }
+
+    private static class GroupSnapshot extends Snapshot {
+        final HueGroupEntry entry;
+        final @Nullable GroupItem groupItem;
+        final AbstractHueState action;
+        final Object members;
+
+        GroupSnapshot(HueGroupEntry entry, String json, Object members) {
+            super(json);
+            this.entry = entry;
+            this.groupItem = entry.groupItem;
+            this.action = entry.action;
+            this.members = members;
+        }
+
+        boolean matches(HueGroupEntry entry) {
+            if (this.entry != entry || groupItem != entry.groupItem || action != entry.action) {
+                return false;
+            }
+            Object members = members(entry);
+            return this.members == members || this.members.equals(members);
+        }
+    }
+
+    private final Gson gson;
+
+    private final Map<String, LightSnapshot> lights = new HashMap<>();
+    private final Map<String, GroupSnapshot> groups = new HashMap<>();
+    private @Nullable Snapshot allLights;
+    private @Nullable Snapshot allGroups;
+    private long serializedEntries = 0;
+
+    /**
+     * Creates a state cache.
+     *
+     * @param gson The gson instance to serialize entries with. See {@link ConfigStore#gson}.
+     */
+    public SerializedStateCache(Gson gson) {
+        this.gson = gson;
+    }
+
+    /**
+     * A group is serialized with the hue IDs of the members of its group item. Group 0 has no group item, but a
+     * maintained list of all lights.
+     */
+    private static Object members(HueGroupEntry entry) {
+        GroupItem groupItem = entry.groupItem;
+        return groupItem != null ? groupItem.getMembers() : entry.lights;
+    }
+
+    private LightSnapshot lightSnapshot(String id, HueLightEntry entry) {
+        LightSnapshot snapshot = lights.get(id);
+        if (snapshot == null || !snapshot.matches(entry)) {
+            // Read the item values before serializing, so a concurrent change leads to another serialization
+            State state = entry.item.getState();
+            String label = entry.item.getLabel();
+            snapshot = new LightSnapshot(entry, gson.toJson(entry), state, label);
+            lights.put(id, snapshot);
+            allLights = null;
+            serializedEntries++;
+        }
+        return snapshot;
+    }
+
+    private GroupSnapshot groupSnapshot(String id, HueGroupEntry entry) {
+        GroupSnapshot snapshot = groups.get(id);
+        if (snapshot == null || !snapshot.matches(entry)) {
+            Object members = members(entry);
+            snapshot = new GroupSnapshot(entry, gson.toJson(entry), members);
+            groups.put(id, snapshot);
+            allGroups = null;
+            serializedEntries++;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the snapshot of a single light.
+     *
+     * @param id The hue ID
+     * @param entry The light entry. May be null, if the light does not exist.
+     * @return The serialized light
+     */
+    public synchronized Snapshot light(String id, @Nullable HueLightEntry entry) {
+        if (entry == null) {
+            return new Snapshot(gson.toJson(null));
+        }
+        return lightSnapshot(id, entry);
+    }
+
+    /**
+     * Returns the snapshot of a single group.
+     *
+     * @param id The hue ID
+     * @param entry The group entry. May be null, if the group does not exist.
+     * @return The serialized group
+     */
+    public synchronized Snapshot group(String id, @Nullable HueGroupEntry entry) {
+        if (entry == null) {
+            return new Snapshot(gson.toJson(null));
+        }
+        return groupSnapshot(id, entry);
+    }
+
+    /**
+     * Returns the snapshot of all lights, equal to the serialization of {@link HueDataStore#lights}.
+     *
+     * @param entries The lights by hue ID
+     */
+    public synchronized Snapshot lights(Map<String, HueLightEntry> entries) {
+        for (Map.Entry<String, HueLightEntry> entry : entries.entrySet()) {
+            lightSnapshot(entry.getKey(), entry.getValue());
+        }
+        if (lights.size() != entries.size()) {
+            lights.keySet().retainAll(entries.keySet());
+            allLights = null;
+        }
+        Snapshot snapshot = allLights;
+        if (snapshot == null) {
+            snapshot = new Snapshot(assemble(entries.keySet(), lights));
+            allLights = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the snapshot of all groups, equal to the serialization of {@link HueDataStore#groups}.
+     *
+     * @param entries The groups by hue ID
+     */
+    public synchronized Snapshot groups(Map<String, HueGroupEntry> entries) {
+        for (Map.Entry<String, HueGroupEntry> entry : entries.entrySet()) {
+            groupSnapshot(entry.getKey(), entry.getValue());
+        }
+        if (groups.size() != entries.size()) {
+            groups.keySet().retainAll(entries.keySet());
+            allGroups = null;
+        }
+        Snapshot snapshot = allGroups;
+        if (snapshot == null) {
+            snapshot = new Snapshot(assemble(entries.keySet(), groups));
+            allGroups = snapshot;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the snapshot of the full data store, equal to the serialization of the {@link HueDataStore}.
+     * Only lights and groups are cached, the remaining entries are serialized.
+     *
+     * @param ds The data store
+     */
+    public Snapshot fullState(HueDataStore ds) {
+        String lightsJson = lights(ds.lights).json;
+        String groupsJson = groups(ds.groups).json;
+        StringBuilder json = new StringBuilder(lightsJson.length() + groupsJson.length() + 4096);
+        json.append("{\"config\":").append(gson.toJson(ds.config));
+        json.append(",\"lights\":").append(lightsJson);
+        json.append(",\"groups\":").append(groupsJson);
+        json.append(",\"scenes\":").append(gson.toJson(ds.scenes));
+        json.append(",\"rules\":").append(gson.toJson(ds.rules));
+        json.append(",\"sensors\":").append(gson.toJson(ds.sensors));
+        json.append(",\"schedules\":").append(gson.toJson(ds.schedules));
+        json.append(",\"resourcelinks\":").append(gson.toJson(ds.resourcelinks));
+        json.append(",\"capabilities\":").append(gson.toJson(ds.capabilities));
+        return new Snapshot(json.append('}').toString());
+    }
+
+    private String assemble(Iterable<String> ids, Map<String, ? extends Snapshot> snapshots) {
+        StringBuilder json = new StringBuilder("{");
+        for (String id : ids) {
+            Snapshot snapshot = snapshots.get(id);
+            if (snapshot == null) {
+                continue;
+            }
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(gson.toJson(id)).append(':').append(snapshot.json);
+        }
+        return json.append('}').toString();
+    }
+
+    /**
+     * Marks a light to be serialized again.
+     *
+     * @param id The hue ID
+     */
+    public synchronized void invalidateLight(String id) {
+        if (lights.remove(id) != null) {
+            allLights = null;
+        }
+    }
+
+    /**
+     * Marks a group to be serialized again. Necessary if the group action has been changed in place.
+     *
+     * @param id The hue ID
+     */
+    public synchronized void invalidateGroup(String id) {
+        if (groups.remove(id) != null) {
+            allGroups = null;
+        }
+    }
+
+    /**
+     * Drops all snapshots.
+     */
+    public synchronized void clear() {
+        lights.clear();
+        groups.clear();
+        allLights = null;
+        allGroups = null;
+    }
+
+    /**
+     * Returns the number of light and group entries that have been serialized.
+     */
+    public synchronized long getSerializedEntryCount() {
+        return serializedEntries;
+    }
+}
@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.hueemulation.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.smarthome.core.items.GroupItem;
+import org.eclipse.smarthome.core.library.items.DimmerItem;
+import org.eclipse.smarthome.core.library.items.SwitchItem;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.hueemulation.internal.SerializedStateCache.Snapshot;
+import org.openhab.io.hueemulation.internal.dto.HueGroupEntry;
+import org.openhab.io.hueemulation.internal.dto.HueLightEntry;
+import org.openhab.io.hueemulation.internal.dto.HueStatePlug;
+import org.openhab.io.hueemulation.internal.rest.CommonSetup;
+
+/**
+ * Tests for {@link SerializedStateCache}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class SerializedStateCacheTests {
+    protected @NonNullByDefault({}) CommonSetup commonSetup;
+    protected @NonNullByDefault({}) ConfigStore cs;
+
+    @Before
+    public void setUp() throws IOException {
+        commonSetup = new CommonSetup(false);
+        cs = commonSetup.cs;
+    }
+
+    @After
+    public void tearDown() {
+        commonSetup.dispose();
+    }
+
+    private DimmerItem addLights(int count) {
+        DimmerItem first = null;
+        for (int i = 0; i < count; i++) {
+            DimmerItem item = new DimmerItem("dimmer" + i);
+            item.setLabel("Dimmer " + i);
+            item.setState(new PercentType(i % 100));
+            if (first == null) {
+                first = item;
+            }
+            cs.ds.lights.put(String.valueOf(i + 1),
+                    new HueLightEntry(item, "uuid-" + String.valueOf(i + 1), DeviceType.WhiteType));
+        }
+        return first;
+    }
+
+    @Test
+    public void equalsSerializedDataStore() {
+        addLights(3);
+        SwitchItem switchItem = new SwitchItem("switch");
+        cs.ds.lights.put("10", new HueLightEntry(switchItem, "switch", DeviceType.SwitchType));
+        cs.ds.groups.put("11", new HueGroupEntry("group", new GroupItem("group", new SwitchItem("switch")),
+                DeviceType.SwitchType));
+
+        assertThat(cs.stateCache.lights(cs.ds.lights).json, is(cs.gson.toJson(cs.ds.lights)));
+        assertThat(cs.stateCache.groups(cs.ds.groups).json, is(cs.gson.toJson(cs.ds.groups)));
+        assertThat(cs.stateCache.fullState(cs.ds).json, is(cs.gson.toJson(cs.ds)));
+        assertThat(cs.stateCache.light("10", cs.ds.lights.get("10")).json, is(cs.gson.toJson(cs.ds.lights.get("10"))));
+        assertThat(cs.stateCache.light("12", null).json, is("null"));
+    }
+
+    @Test
+    public void onlyChangedEntriesSerialized() {
+        DimmerItem item = addLights(10);
+        Snapshot snapshot = cs.stateCache.lights(cs.ds.lights);
+        assertThat(cs.stateCache.getSerializedEntryCount(), is(10L));
+
+        // Nothing changed
+        assertThat(cs.stateCache.lights(cs.ds.lights), is(sameInstance(snapshot)));
+        assertThat(cs.stateCache.getSerializedEntryCount(), is(10L));
+
+        // Item state change
+        item.setState(new PercentType(55));
+        Snapshot changed = cs.stateCache.lights(cs.ds.lights);
+        assertThat(changed.etag, is(not(snapshot.etag)));
+        assertThat(changed.json, is(cs.gson.toJson(cs.ds.lights)));
+        assertThat(cs.stateCache.getSerializedEntryCount(), is(11L));
+
+        // Label change
+        item.setLabel("Renamed");
+        assertThat(cs.stateCache.lights(cs.ds.lights).json, containsString("Renamed"));
+        assertThat(cs.stateCache.getSerializedEntryCount(), is(12L));
+
+        // Removed entry
+        cs.ds.lights.remove("2");
+        assertThat(cs.stateCache.lights(cs.ds.lights).json, is(cs.gson.toJson(cs.ds.lights)));
+        assertThat(cs.stateCache.getSerializedEntryCount(), is(12L));
+    }
+
+    @Test
+    public void groupActionInvalidated() {
+        SwitchItem member = new SwitchItem("switch");
+        GroupItem groupItem = new GroupItem("group", member);
+        HueGroupEntry group = new HueGroupEntry("group", groupItem, DeviceType.SwitchType);
+        cs.ds.groups.put("10", group);
+        Snapshot snapshot = cs.stateCache.groups(cs.ds.groups);
+
+        ((HueStatePlug) group.action).on = true;
+        assertThat(cs.stateCache.groups(cs.ds.groups), is(sameInstance(snapshot)));
+        cs.stateCache.invalidateGroup("10");
+        assertThat(cs.stateCache.groups(cs.ds.groups).json, is(cs.gson.toJson(cs.ds.groups)));
+
+        // Membership change
+        groupItem.addMember(new SwitchItem("switch2"));
+        assertThat(cs.stateCache.groups(cs.ds.groups).json, is(cs.gson.toJson(cs.ds.groups)));
+    }
+
+    /**
+     * Polls all lights, with one item state change per poll. The state cache must return the same JSON as
+     * serializing all lights on every request, while serializing only the changed light.
+     */
+    @Test
+    public void pollSerializesChangedLightsOnly() {
+        final int polls = 200;
+        for (int itemCount : new int[] { 10, 100, 300 }) {
+            cs.ds.resetGroupsAndLights();
+            cs.stateCache.clear();
+            DimmerItem item = addLights(itemCount);
+
+            long serializedBefore = cs.stateCache.getSerializedEntryCount();
+            for (int i = 0; i < polls; i++) {
+                item.setState(i % 2 == 0 ? OnOffType.ON : OnOffType.OFF);
+                cs.stateCache.lights(cs.ds.lights);
+            }
+
+            assertThat(cs.stateCache.lights(cs.ds.lights).json, is(cs.gson.toJson(cs.ds.lights)));
+            // The first poll serializes all lights, every further poll only the changed one
+            assertThat(cs.stateCache.getSerializedEntryCount() - serializedBefore, is((long) itemCount + polls - 1));
+        }
+    }
+}
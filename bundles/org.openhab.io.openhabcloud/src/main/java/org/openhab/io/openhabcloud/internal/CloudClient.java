@@ -19,19 +19,23 @@ import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.eclipse.jetty.client.HttpClient;
 import org.eclipse.jetty.client.api.Request;
 import org.eclipse.jetty.client.api.Request.FailureListener;
 import org.eclipse.jetty.client.api.Response;
-import org.eclipse.jetty.client.api.Response.ContentListener;
+import org.eclipse.jetty.client.api.Response.AsyncContentListener;
 import org.eclipse.jetty.client.api.Response.HeadersListener;
 import org.eclipse.jetty.client.api.Result;
 import org.eclipse.jetty.client.util.BytesContentProvider;
@@ -39,7 +43,7 @@ import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.HttpStatus;
-import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.URIUtil;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.json.JSONException;
@@ -83,6 +87,25 @@ public class CloudClient {
      */
     private static final int HTTP_CLIENT_TIMEOUT = 30000;
 
+    /*
+     * This constant defines the maximum size of the response content frames sent to the openHAB Cloud
+     */
+    private static final int RESPONSE_FRAME_SIZE = 64 * 1024;
+
+    /*
+     * This constant defines the time in milliseconds after which a partially filled response content frame is sent,
+     * so streamed responses are not held back
+     */
+    private static final int RESPONSE_FRAME_LINGER = 5;
+
+    /*
+     * This constant defines the amount of response content handed to the Socket.IO transport but not yet written.
+     * Reading responses from local openHAB is paused above this amount.
+     */
+    private static final int RESPONSE_CONTENT_WINDOW = 1024 * 1024;
+
+    private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
+
     /*
      * This variable holds base URL for the openHAB Cloud connections
      */
@@ -109,9 +132,33 @@ public class CloudClient {
     private HttpClient jettyClient;
 
     /*
-     * This hashmap holds HTTP requests to local openHAB which are currently running
+     * This map holds HTTP requests to local openHAB which are currently running
+     */
+    private Map<Integer, Request> runningRequests;
+
+    /*
+     * This variable holds the amount of response content handed to the Socket.IO transport but not yet written
+     */
+    private long responseContentInFlight = 0;
+
+    /*
+     * This list holds the callbacks of local responses which are paused, because the response content window is
+     * exhausted
+     */
+    private final List<Callback> pausedResponses = new ArrayList<>();
+
+    /*
+     * This variable holds the time in milliseconds item updates are collected before they are sent
+     */
+    private final int itemUpdateInterval;
+
+    /*
+     * This map holds the latest states of items which are not yet sent to the openHAB Cloud
      */
-    private HashMap<Integer, Request> runningRequests;
+    private final Map<String, String> pendingItemUpdates = new LinkedHashMap<>();
+    private ScheduledFuture<?> itemUpdateFuture;
+
+    private final ScheduledExecutorService scheduler = ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD);
 
     /*
      * This variable indicates if connection to the openHAB Cloud is currently in an established state
@@ -149,17 +196,20 @@ public class CloudClient {
      * @param secret openHAB's Secret to connect to the openHAB Cloud
      * @param remoteAccessEnabled Allow the openHAB Cloud to be used as a remote proxy
      * @param exposedItems Items that are made available to apps connected to the openHAB Cloud
+     * @param itemUpdateInterval Time in milliseconds to collect item updates, only the latest state of an item is sent.
+     *            0 sends every item update right away.
      *
      */
     public CloudClient(String uuid, String secret, String baseURL, String localBaseUrl, boolean remoteAccessEnabled,
-            Set<String> exposedItems) {
+            Set<String> exposedItems, int itemUpdateInterval) {
         this.uuid = uuid;
         this.secret = secret;
         this.baseURL = baseURL;
         this.localBaseUrl = localBaseUrl;
         this.remoteAccessEnabled = remoteAccessEnabled;
         this.exposedItems = exposedItems;
-        runningRequests = new HashMap<Integer, Request>();
+        this.itemUpdateInterval = itemUpdateInterval;
+        runningRequests = new ConcurrentHashMap<Integer, Request>();
         jettyClient = new HttpClient();
         jettyClient.setMaxConnectionsPerDestination(HTTP_CLIENT_MAX_CONNECTIONS_PER_DEST);
         jettyClient.setConnectTimeout(HTTP_CLIENT_TIMEOUT);
@@ -197,6 +247,13 @@ public class CloudClient {
                         headers.put("remoteaccess", Arrays.asList(((Boolean) remoteAccessEnabled).toString()));
                     }
                 });
+                transport.on(Transport.EVENT_DRAIN, new Emitter.Listener() {
+                    @Override
+                    public void call(Object... args) {
+                        logger.trace("Transport.EVENT_DRAIN");
+                        resumeResponses();
+                    }
+                });
             }
         });
         socket.on(Socket.EVENT_CONNECT, new Emitter.Listener() {
@@ -275,6 +332,7 @@ public class CloudClient {
         if (runningRequests != null) {
             runningRequests.clear();
         }
+        failPausedResponses();
     }
 
     /**
@@ -365,7 +423,8 @@ public class CloudClient {
                 return;
             }
             ResponseListener listener = new ResponseListener(requestId);
-            request.onResponseHeaders(listener).onResponseContent(listener).onRequestFailure(listener).send(listener);
+            request.onResponseHeaders(listener).onResponseContentAsync(listener).onRequestFailure(listener)
+                    .send(listener);
             // If successfully submitted request to http client, add it to the list of currently
             // running requests to be able to cancel it if needed
             runningRequests.put(requestId, request);
@@ -503,26 +562,106 @@ public class CloudClient {
     }
 
     /**
-     * Send item update to openHAB Cloud
+     * Send item update to openHAB Cloud. Updates are collected for the item update interval and sent together,
+     * only the latest state of each item is sent.
      *
      * @param itemName the name of the item
      * @param itemState updated item state
      *
      */
     public void sendItemUpdate(String itemName, String itemState) {
-        if (isConnected()) {
-            logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
-            JSONObject itemUpdateMessage = new JSONObject();
-            try {
-                itemUpdateMessage.put("itemName", itemName);
-                itemUpdateMessage.put("itemStatus", itemState);
-                socket.emit("itemupdate", itemUpdateMessage);
-            } catch (JSONException e) {
-                logger.error("{}", e.getMessage());
-            }
-        } else {
+        if (!isConnected()) {
             logger.debug("No connection, Item update is not sent");
+            return;
+        }
+        if (itemUpdateInterval <= 0) {
+            emitItemUpdate(itemName, itemState);
+            return;
         }
+        synchronized (pendingItemUpdates) {
+            pendingItemUpdates.put(itemName, itemState);
+            if (itemUpdateFuture == null) {
+                itemUpdateFuture = scheduler.schedule(this::sendPendingItemUpdates, itemUpdateInterval,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void sendPendingItemUpdates() {
+        Map<String, String> itemUpdates;
+        synchronized (pendingItemUpdates) {
+            itemUpdates = new LinkedHashMap<>(pendingItemUpdates);
+            pendingItemUpdates.clear();
+            itemUpdateFuture = null;
+        }
+        if (!isConnected()) {
+            logger.debug("No connection, {} item updates are not sent", itemUpdates.size());
+            return;
+        }
+        logger.debug("Sending {} item updates", itemUpdates.size());
+        itemUpdates.forEach(this::emitItemUpdate);
+    }
+
+    private void emitItemUpdate(String itemName, String itemState) {
+        logger.debug("Sending update '{}' for item '{}'", itemState, itemName);
+        JSONObject itemUpdateMessage = new JSONObject();
+        try {
+            itemUpdateMessage.put("itemName", itemName);
+            itemUpdateMessage.put("itemStatus", itemState);
+            socket.emit("itemupdate", itemUpdateMessage);
+        } catch (JSONException e) {
+            logger.error("{}", e.getMessage());
+        }
+    }
+
+    /**
+     * Accounts response content handed to the Socket.IO transport. The local response is resumed by calling the
+     * callback, as long as the response content window is not exhausted. Otherwise it is paused until the transport
+     * has written its data.
+     *
+     * @param length the size of the content
+     * @param callback the callback of the local response or null
+     */
+    private void acquireResponseContent(int length, Callback callback) {
+        synchronized (pausedResponses) {
+            responseContentInFlight += length;
+            if (callback != null && responseContentInFlight > RESPONSE_CONTENT_WINDOW) {
+                logger.debug("Response content window exhausted, pausing local response");
+                pausedResponses.add(callback);
+                return;
+            }
+        }
+        if (callback != null) {
+            callback.succeeded();
+        }
+    }
+
+    /**
+     * Called when the Socket.IO transport has written its data. Resumes all paused local responses.
+     */
+    private void resumeResponses() {
+        List<Callback> callbacks;
+        synchronized (pausedResponses) {
+            responseContentInFlight = 0;
+            if (pausedResponses.isEmpty()) {
+                return;
+            }
+            callbacks = new ArrayList<>(pausedResponses);
+            pausedResponses.clear();
+        }
+        // Do not read local responses on the Socket.IO event thread
+        scheduler.execute(() -> callbacks.forEach(Callback::succeeded));
+    }
+
+    private void failPausedResponses() {
+        List<Callback> callbacks;
+        synchronized (pausedResponses) {
+            responseContentInFlight = 0;
+            callbacks = new ArrayList<>(pausedResponses);
+            pausedResponses.clear();
+        }
+        IOException failure = new IOException("Disconnected from the openHAB Cloud service");
+        callbacks.forEach(callback -> callback.failed(failure));
     }
 
     /**
@@ -537,11 +676,19 @@ public class CloudClient {
      */
     public void shutdown() {
         logger.info("Shutting down openHAB Cloud service connection");
+        synchronized (pendingItemUpdates) {
+            if (itemUpdateFuture != null) {
+                itemUpdateFuture.cancel(false);
+                itemUpdateFuture = null;
+            }
+            pendingItemUpdates.clear();
+        }
         try {
             jettyClient.stop();
         } catch (Exception e) {
             logger.error("{}", e.getMessage());
         }
+        failPausedResponses();
         socket.disconnect();
     }
 
@@ -558,14 +705,17 @@ public class CloudClient {
     }
 
     /*
-     * An internal class which forwards response headers and data back to the openHAB Cloud
+     * An internal class which forwards response headers and data back to the openHAB Cloud.
+     * Response content is collected into frames of up to RESPONSE_FRAME_SIZE bytes.
      */
     private class ResponseListener
-            implements Response.CompleteListener, HeadersListener, ContentListener, FailureListener {
+            implements Response.CompleteListener, HeadersListener, AsyncContentListener, FailureListener {
 
-        private static final String THREADPOOL_OPENHABCLOUD = "openhabcloud";
         private int mRequestId;
         private boolean mHeadersSent = false;
+        private byte[] mFrame = new byte[0];
+        private int mFrameLength = 0;
+        private ScheduledFuture<?> mLingerFuture;
 
         public ResponseListener(int requestId) {
             mRequestId = requestId;
@@ -583,8 +733,49 @@ public class CloudClient {
             return headersJSON;
         }
 
+        /*
+         * Sends the collected content frame. Must be called with the lock of this listener held.
+         */
+        private int sendFrame() {
+            int length = mFrameLength;
+            if (length == 0) {
+                return 0;
+            }
+            byte[] body = length == mFrame.length ? mFrame : Arrays.copyOf(mFrame, length);
+            mFrame = new byte[0];
+            mFrameLength = 0;
+            JSONObject responseJson = new JSONObject();
+            try {
+                responseJson.put("id", mRequestId);
+                responseJson.put("body", body);
+                socket.emit("responseContentBinary", responseJson);
+                logger.debug("Sent content of size {} to request {}", length, mRequestId);
+            } catch (JSONException e) {
+                logger.error("{}", e.getMessage());
+            }
+            return length;
+        }
+
+        private void sendLingeringFrame() {
+            int length;
+            synchronized (this) {
+                mLingerFuture = null;
+                length = sendFrame();
+            }
+            acquireResponseContent(length, null);
+        }
+
         @Override
         public void onComplete(Result result) {
+            int length;
+            synchronized (this) {
+                if (mLingerFuture != null) {
+                    mLingerFuture.cancel(false);
+                    mLingerFuture = null;
+                }
+                length = sendFrame();
+            }
+            acquireResponseContent(length, null);
             // Remove this request from list of running requests
             runningRequests.remove(mRequestId);
             if ((result != null && result.isFailed())
@@ -605,7 +796,7 @@ public class CloudClient {
              * can receive responseFinished before the headers or content are received and I
              * cannot find another workaround to prevent it.
              */
-            ThreadPoolManager.getScheduledPool(THREADPOOL_OPENHABCLOUD).schedule(() -> {
+            scheduler.schedule(() -> {
                 JSONObject responseJson = new JSONObject();
                 try {
                     responseJson.put("id", mRequestId);
@@ -631,17 +822,28 @@ public class CloudClient {
         }
 
         @Override
-        public void onContent(Response response, ByteBuffer content) {
+        public void onContent(Response response, ByteBuffer content, Callback callback) {
             logger.debug("Jetty received response content of size {}", String.valueOf(content.remaining()));
-            JSONObject responseJson = new JSONObject();
-            try {
-                responseJson.put("id", mRequestId);
-                responseJson.put("body", BufferUtil.toArray(content));
-                socket.emit("responseContentBinary", responseJson);
-                logger.debug("Sent content to request {}", mRequestId);
-            } catch (JSONException e) {
-                logger.error("{}", e.getMessage());
+            int length = 0;
+            synchronized (this) {
+                while (content.hasRemaining()) {
+                    int chunk = Math.min(content.remaining(), RESPONSE_FRAME_SIZE - mFrameLength);
+                    if (mFrame.length < mFrameLength + chunk) {
+                        mFrame = Arrays.copyOf(mFrame,
+                                Math.min(RESPONSE_FRAME_SIZE, Math.max(mFrameLength + chunk, mFrame.length * 2)));
+                    }
+                    content.get(mFrame, mFrameLength, chunk);
+                    mFrameLength += chunk;
+                    if (mFrameLength == RESPONSE_FRAME_SIZE) {
+                        length += sendFrame();
+                    }
+                }
+                if (mFrameLength > 0 && mLingerFuture == null) {
+                    mLingerFuture = scheduler.schedule(this::sendLingeringFrame, RESPONSE_FRAME_LINGER,
+                            TimeUnit.MILLISECONDS);
+                }
             }
+            acquireResponseContent(length, callback);
         }
 
         @Override
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Immutable {@link ModbusRegisterArray} implementation backed by a {@link ByteBuffer}
+ *
+ * Register data is stored in the buffer as on the wire, two bytes per register, high byte first. Slices and
+ * {@link #toByteBuffer()} share the data instead of copying it, which allows decoding values with the primitive
+ * methods of {@link ModbusBitUtilities} without allocating.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class ByteBufferModbusRegisterArray implements ModbusRegisterArray {
+
+    private final ByteBuffer buffer;
+
+    /**
+     * Construct register array viewing the remaining bytes of the buffer. Changes to the buffer content are
+     * reflected to the registers.
+     *
+     * @param buffer buffer with register data, high byte first
+     * @throws IllegalArgumentException when the number of remaining bytes is odd
+     */
+    public ByteBufferModbusRegisterArray(ByteBuffer buffer) {
+        if (buffer.remaining() % 2 != 0) {
+            throw new IllegalArgumentException(
+                    String.format("Register data should have even number of bytes, got %d", buffer.remaining()));
+        }
+        this.buffer = buffer.slice().asReadOnlyBuffer().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Construct register array viewing the register data
+     *
+     * @param bytes register data, high byte first
+     */
+    public ByteBufferModbusRegisterArray(byte[] bytes) {
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    @Override
+    public ModbusRegister getRegister(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(String.format("Index %d, size %d", index, size()));
+        }
+        return new BasicModbusRegister(buffer.get(2 * index), buffer.get(2 * index + 1));
+    }
+
+    @Override
+    public int size() {
+        return buffer.capacity() / 2;
+    }
+
+    @Override
+    public ByteBuffer toByteBuffer() {
+        return buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Get a view of a sub-sequence of the registers, sharing the data with this array
+     *
+     * @param offset index of the first register
+     * @param length number of registers
+     * @return the registers
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public ByteBufferModbusRegisterArray slice(int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > size()) {
+            throw new IndexOutOfBoundsException(
+                    String.format("Offset %d with length %d, size %d", offset, length, size()));
+        }
+        ByteBuffer view = buffer.duplicate();
+        view.position(2 * offset);
+        view.limit(2 * (offset + length));
+        return new ByteBufferModbusRegisterArray(view);
+    }
+
+    @Override
+    public String toString() {
+        if (size() == 0) {
+            return "ByteBufferModbusRegisterArray(<empty>)";
+        }
+        StringBuffer buffer = new StringBuffer(size() * 2).append("ByteBufferModbusRegisterArray(");
+        return appendHexString(buffer).append(')').toString();
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Thread-safe histogram of durations, using fixed buckets from 1 ms up to 10 s
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class LatencyHistogram {
+
+    /**
+     * Inclusive upper limits of the buckets. Durations above the last limit are counted in an extra bucket.
+     */
+    private static final long[] BUCKET_LIMITS_MILLIS = new long[] { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000,
+            5000, 10000 };
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_LIMITS_MILLIS.length + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    /**
+     * Record a duration
+     *
+     * @param millis duration in milliseconds
+     */
+    public void record(long millis) {
+        int bucket = 0;
+        while (bucket < BUCKET_LIMITS_MILLIS.length && millis > BUCKET_LIMITS_MILLIS[bucket]) {
+            bucket++;
+        }
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalMillis.addAndGet(millis);
+        maxMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalMillis() {
+        return totalMillis.get();
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    public double getMeanMillis() {
+        long count = this.count.get();
+        return count == 0 ? 0 : (double) totalMillis.get() / count;
+    }
+
+    /**
+     * Get the (inclusive) upper limit of the bucket containing the given percentile
+     *
+     * @param percentile percentile between 0 and 100
+     * @return upper limit of the percentile in milliseconds, the maximum if it is beyond the last bucket
+     */
+    public long getPercentileMillis(double percentile) {
+        long[] counts = getBucketCounts();
+        long total = 0;
+        for (long bucketCount : counts) {
+            total += bucketCount;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * total);
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_LIMITS_MILLIS.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Math.min(BUCKET_LIMITS_MILLIS[i], getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Get the upper limits of the buckets
+     *
+     * @return inclusive upper limits in milliseconds. There is one more bucket, for durations above the last limit.
+     */
+    public long[] getBucketLimitsMillis() {
+        return BUCKET_LIMITS_MILLIS.clone();
+    }
+
+    /**
+     * Get the number of durations in each bucket
+     *
+     * @return counts, in the order of {@link #getBucketLimitsMillis()}, followed by the count above the last limit
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram(count=%d, mean=%.1f ms, p95=%d ms, max=%d ms)", getCount(),
+                getMeanMillis(), getPercentileMillis(95), getMaxMillis());
+    }
+}
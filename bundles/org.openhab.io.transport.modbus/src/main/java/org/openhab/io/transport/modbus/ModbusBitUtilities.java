@@ -15,7 +15,6 @@ package org.openhab.io.transport.modbus;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 import java.util.Optional;
 
@@ -109,109 +108,234 @@ public class ModbusBitUtilities {
                     String.format("Index=%d with type=%s is out-of-bounds given registers of size %d", index, type,
                             registers.size()));
         }
+        ByteBuffer buffer = registers.toByteBuffer();
         switch (type) {
             case BIT:
-                return Optional
-                        .of(new DecimalType((registers.getRegister(index / 16).toUnsignedShort() >> (index % 16)) & 1));
+                return Optional.of(new DecimalType(extractBit(buffer, index)));
             case INT8:
-                return Optional.of(new DecimalType(registers.getRegister(index / 2).getBytes()[1 - (index % 2)]));
+                return Optional.of(new DecimalType(extractSInt8(buffer, index)));
             case UINT8:
-                return Optional.of(new DecimalType(
-                        (registers.getRegister(index / 2).toUnsignedShort() >> (8 * (index % 2))) & 0xff));
-            case INT16: {
-                ByteBuffer buff = ByteBuffer.allocate(2);
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getShort(0)));
-            }
+                return Optional.of(new DecimalType(extractUInt8(buffer, index)));
+            case INT16:
+                return Optional.of(new DecimalType(extractSInt16(buffer, index)));
             case UINT16:
-                return Optional.of(new DecimalType(registers.getRegister(index).toUnsignedShort()));
-            case INT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0)));
-            }
-            case UINT32: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case FLOAT32: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                try {
-                    return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0)));
-                } catch (NumberFormatException e) {
-                    // floating point NaN or infinity encountered
-                    return Optional.empty();
-                }
-            }
-            case INT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case UINT64: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 3).getBytes());
-                return Optional.of(
-                        new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array()))));
-            }
-            case INT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getInt(0)));
-            }
-            case UINT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.position(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case FLOAT32_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(4);
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                try {
-                    return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getFloat(0)));
-                } catch (NumberFormatException e) {
-                    // floating point NaN or infinity encountered
-                    return Optional.empty();
-                }
-            }
-            case INT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(new DecimalType(buff.order(ByteOrder.BIG_ENDIAN).getLong(0)));
-            }
-            case UINT64_SWAP: {
-                ByteBuffer buff = ByteBuffer.allocate(8);
-                buff.put(registers.getRegister(index + 3).getBytes());
-                buff.put(registers.getRegister(index + 2).getBytes());
-                buff.put(registers.getRegister(index + 1).getBytes());
-                buff.put(registers.getRegister(index).getBytes());
-                return Optional.of(
-                        new DecimalType(new BigDecimal(new BigInteger(1, buff.order(ByteOrder.BIG_ENDIAN).array()))));
-            }
+                return Optional.of(new DecimalType(extractUInt16(buffer, index)));
+            case INT32:
+                return Optional.of(new DecimalType(extractSInt32(buffer, index)));
+            case UINT32:
+                return Optional.of(new DecimalType(extractUInt32(buffer, index)));
+            case FLOAT32:
+                return floatToState(extractFloat32(buffer, index));
+            case INT64:
+                return Optional.of(new DecimalType(extractSInt64(buffer, index)));
+            case UINT64:
+                return Optional.of(unsignedLongToState(extractUInt64(buffer, index)));
+            case INT32_SWAP:
+                return Optional.of(new DecimalType(extractSInt32Swap(buffer, index)));
+            case UINT32_SWAP:
+                return Optional.of(new DecimalType(extractUInt32Swap(buffer, index)));
+            case FLOAT32_SWAP:
+                return floatToState(extractFloat32Swap(buffer, index));
+            case INT64_SWAP:
+                return Optional.of(new DecimalType(extractSInt64Swap(buffer, index)));
+            case UINT64_SWAP:
+                return Optional.of(unsignedLongToState(extractUInt64Swap(buffer, index)));
             default:
                 throw new IllegalArgumentException(type.getConfigValue());
         }
     }
 
+    private static Optional<DecimalType> floatToState(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return Optional.empty();
+        }
+        return Optional.of(new DecimalType(value));
+    }
+
+    private static DecimalType unsignedLongToState(long value) {
+        if (value >= 0) {
+            return new DecimalType(value);
+        }
+        return new DecimalType(new BigDecimal(new BigInteger(Long.toUnsignedString(value))));
+    }
+
+    /*
+     * Primitive decoding of register data.
+     *
+     * The methods below read register data from a big endian buffer, as returned by
+     * ModbusRegisterArray.toByteBuffer(), using absolute reads. Neither the buffer position nor the limit is
+     * changed and nothing is allocated. Interpretation of the index and the value types are as with
+     * extractStateFromRegisters. IndexOutOfBoundsException is thrown when the value does not fit in the buffer.
+     */
+
+    /**
+     * Read a single bit
+     *
+     * @param registers register data
+     * @param index bit index, 0 being the least significant bit of the first register
+     * @return 0 or 1
+     */
+    public static int extractBit(ByteBuffer registers, int index) {
+        return (extractUInt16(registers, index / 16) >> (index % 16)) & 1;
+    }
+
+    /**
+     * Read a signed 8 bit integer
+     *
+     * @param registers register data
+     * @param index byte index, 0 being the low byte of the first register
+     * @return the value
+     */
+    public static byte extractSInt8(ByteBuffer registers, int index) {
+        return registers.get(2 * (index / 2) + 1 - (index % 2));
+    }
+
+    /**
+     * Read an unsigned 8 bit integer
+     *
+     * @param registers register data
+     * @param index byte index, 0 being the low byte of the first register
+     * @return the value
+     */
+    public static short extractUInt8(ByteBuffer registers, int index) {
+        return (short) (extractSInt8(registers, index) & 0xff);
+    }
+
+    /**
+     * Read a signed 16 bit integer
+     *
+     * @param registers register data
+     * @param index register index
+     * @return the value
+     */
+    public static short extractSInt16(ByteBuffer registers, int index) {
+        return registers.getShort(2 * index);
+    }
+
+    /**
+     * Read an unsigned 16 bit integer
+     *
+     * @param registers register data
+     * @param index register index
+     * @return the value
+     */
+    public static int extractUInt16(ByteBuffer registers, int index) {
+        return extractSInt16(registers, index) & 0xffff;
+    }
+
+    /**
+     * Read a signed 32 bit integer, the first register containing the most significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the value
+     */
+    public static int extractSInt32(ByteBuffer registers, int index) {
+        return registers.getInt(2 * index);
+    }
+
+    /**
+     * Read an unsigned 32 bit integer, the first register containing the most significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the value
+     */
+    public static long extractUInt32(ByteBuffer registers, int index) {
+        return extractSInt32(registers, index) & 0xffffffffL;
+    }
+
+    /**
+     * Read a signed 32 bit integer, the first register containing the least significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the value
+     */
+    public static int extractSInt32Swap(ByteBuffer registers, int index) {
+        return (extractUInt16(registers, index + 1) << 16) | extractUInt16(registers, index);
+    }
+
+    /**
+     * Read an unsigned 32 bit integer, the first register containing the least significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the value
+     */
+    public static long extractUInt32Swap(ByteBuffer registers, int index) {
+        return extractSInt32Swap(registers, index) & 0xffffffffL;
+    }
+
+    /**
+     * Read a 32 bit floating point number, the first register containing the most significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the value, possibly NaN or infinite
+     */
+    public static float extractFloat32(ByteBuffer registers, int index) {
+        return Float.intBitsToFloat(extractSInt32(registers, index));
+    }
+
+    /**
+     * Read a 32 bit floating point number, the first register containing the least significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the value, possibly NaN or infinite
+     */
+    public static float extractFloat32Swap(ByteBuffer registers, int index) {
+        return Float.intBitsToFloat(extractSInt32Swap(registers, index));
+    }
+
+    /**
+     * Read a signed 64 bit integer, the first register containing the most significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the value
+     */
+    public static long extractSInt64(ByteBuffer registers, int index) {
+        return registers.getLong(2 * index);
+    }
+
+    /**
+     * Read an unsigned 64 bit integer, the first register containing the most significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the bits of the value. Values above {@link Long#MAX_VALUE} are negative, use e.g.
+     *         {@link Long#toUnsignedString(long)} to interpret them.
+     */
+    public static long extractUInt64(ByteBuffer registers, int index) {
+        return extractSInt64(registers, index);
+    }
+
+    /**
+     * Read a signed 64 bit integer, the first register containing the least significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the value
+     */
+    public static long extractSInt64Swap(ByteBuffer registers, int index) {
+        return ((long) extractUInt16(registers, index + 3) << 48) | ((long) extractUInt16(registers, index + 2) << 32)
+                | ((long) extractUInt16(registers, index + 1) << 16) | extractUInt16(registers, index);
+    }
+
+    /**
+     * Read an unsigned 64 bit integer, the first register containing the least significant bits
+     *
+     * @param registers register data
+     * @param index index of the first register
+     * @return the bits of the value. Values above {@link Long#MAX_VALUE} are negative, use e.g.
+     *         {@link Long#toUnsignedString(long)} to interpret them.
+     */
+    public static long extractUInt64Swap(ByteBuffer registers, int index) {
+        return extractSInt64Swap(registers, index);
+    }
+
     /**
      * Read data from registers and convert the result to StringType
      * Strings should start the the first byte of a register, but could
@@ -241,25 +365,17 @@ public class ModbusBitUtilities {
         if (length < 0) {
             throw new IllegalArgumentException("Negative string length is not supported");
         }
-        byte[] buff = new byte[length];
-
-        int src = index;
+        ByteBuffer buffer = registers.toByteBuffer();
         int dest;
         for (dest = 0; dest < length; dest++) {
-
-            byte chr;
-            if (dest % 2 == 0) {
-                chr = (byte) ((registers.getRegister(src).getValue() >> 8));
-            } else {
-                chr = (byte) (registers.getRegister(src).getValue() & 0xff);
-                src++;
-            }
-            if (chr == 0) {
+            if (buffer.get(2 * index + dest) == 0) {
                 break;
             }
-            buff[dest] = chr;
         }
-        return new StringType(new String(buff, 0, dest, charset));
+        byte[] buff = new byte[dest];
+        buffer.position(2 * index);
+        buffer.get(buff);
+        return new StringType(new String(buff, charset));
     }
 
     /**
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+
+/**
+ * Live performance metrics of the operations executed with a single endpoint
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+@NonNullByDefault
+public interface ModbusEndpointMetrics {
+
+    /**
+     * Time operations waited in the queue of the endpoint before being executed
+     *
+     * @return histogram of queue wait times
+     */
+    public LatencyHistogram getQueueWait();
+
+    /**
+     * Time spent acquiring, invalidating and returning connections, per operation
+     *
+     * @return histogram of connection times
+     */
+    public LatencyHistogram getConnection();
+
+    /**
+     * Time spent in transactions with the slave, per operation
+     *
+     * @return histogram of transaction times
+     */
+    public LatencyHistogram getTransaction();
+
+    /**
+     * Time spent in callbacks, per operation
+     *
+     * @return histogram of callback times
+     */
+    public LatencyHistogram getCallback();
+
+    /**
+     * Number of operations currently waiting in the queue of the endpoint
+     *
+     * @return queue size
+     */
+    public int getQueueSize();
+
+    /**
+     * Number of polls dropped without execution, since they were not started before the next poll was due
+     *
+     * @return count of dropped polls
+     */
+    public long getDroppedPolls();
+
+    /**
+     * Number of tasks rejected since the queue of the endpoint was full
+     *
+     * @return count of rejected tasks
+     */
+    public long getRejectedTasks();
+}
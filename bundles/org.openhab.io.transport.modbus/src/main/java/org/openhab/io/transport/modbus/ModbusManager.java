@@ -104,4 +104,12 @@ public interface ModbusManager {
      */
     public Set<PollTask> getRegisteredRegularPolls();
 
+    /**
+     * Get performance metrics of operations with the given endpoint
+     *
+     * @param endpoint endpoint to query
+     * @return live metrics of the endpoint, or null if no operation has been submitted with the endpoint
+     */
+    public @Nullable ModbusEndpointMetrics getEndpointMetrics(ModbusSlaveEndpoint endpoint);
+
 }
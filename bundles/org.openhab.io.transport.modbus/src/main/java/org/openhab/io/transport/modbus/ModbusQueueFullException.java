@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Exception for tasks rejected since the queue of the endpoint is full
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ModbusQueueFullException extends ModbusTransportException {
+
+    private static final long serialVersionUID = 2953307420736390853L;
+    private ModbusSlaveEndpoint endpoint;
+
+    /**
+     *
+     * @param endpoint endpoint associated with this exception
+     */
+    public ModbusQueueFullException(ModbusSlaveEndpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * Get endpoint whose queue is full
+     *
+     * @return endpoint with the full queue
+     */
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public String getMessage() {
+        return String.format("Queue of endpoint %s is full", endpoint);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ModbusQueueFullException(Queue full with endpoint=%s)", endpoint);
+    }
+}
@@ -12,6 +12,7 @@
  */
 package org.openhab.io.transport.modbus;
 
+import java.nio.ByteBuffer;
 import java.util.Iterator;
 import java.util.stream.IntStream;
 
@@ -42,6 +43,23 @@ public interface ModbusRegisterArray extends Iterable<ModbusRegister> {
      */
     int size();
 
+    /**
+     * Get register data as a big endian buffer, two bytes per register, high byte first
+     *
+     * The returned buffer has position of zero and limit of <code>2 * size()</code>. Implementations backed by a
+     * buffer return a read-only view of the data, others copy the data into a new buffer.
+     *
+     * @return register data
+     */
+    default ByteBuffer toByteBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * size());
+        for (int i = 0; i < size(); i++) {
+            buffer.putShort((short) getRegister(i).getValue());
+        }
+        buffer.flip();
+        return buffer;
+    }
+
     /**
      * Iterator over all the registers
      */
@@ -0,0 +1,190 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.lang.builder.StandardToStringStyle;
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ByteBufferModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegister;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Poll task reading the union of the ranges of several other poll tasks with a single request.
+ *
+ * The response is split and passed to the callbacks of the member tasks, each receiving its own request and exactly
+ * the data it asked for.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class CoalescedPollTask implements PollTask, ModbusReadCallback {
+
+    private static StandardToStringStyle toStringStyle = new StandardToStringStyle();
+    static {
+        toStringStyle.setUseShortClassName(true);
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(CoalescedPollTask.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final BasicModbusReadRequestBlueprint request;
+    private final List<PollTask> members;
+
+    /**
+     * Set when the slave rejected the combined request, see {@link #isSplitRequired()}
+     */
+    private volatile boolean splitRequired;
+
+    public CoalescedPollTask(ModbusSlaveEndpoint endpoint, BasicModbusReadRequestBlueprint request,
+            List<PollTask> members) {
+        this.endpoint = endpoint;
+        this.request = request;
+        this.members = Collections.unmodifiableList(members);
+    }
+
+    @Override
+    public ModbusSlaveEndpoint getEndpoint() {
+        return endpoint;
+    }
+
+    @Override
+    public ModbusReadRequestBlueprint getRequest() {
+        return request;
+    }
+
+    @Override
+    public ModbusReadCallback getCallback() {
+        return this;
+    }
+
+    /**
+     * Get the tasks served by this task
+     *
+     * @return member tasks, ordered by start address
+     */
+    public List<PollTask> getMembers() {
+        return members;
+    }
+
+    /**
+     * Whether the slave responded to the combined request with an exception response.
+     *
+     * Slaves typically reject reads spanning unmapped addresses (e.g. in the gaps between members). In this case the
+     * member callbacks are not called, and the members should be polled individually instead.
+     *
+     * @return whether members need to be polled individually
+     */
+    public boolean isSplitRequired() {
+        return splitRequired;
+    }
+
+    @Override
+    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+        for (PollTask member : members) {
+            ModbusReadCallback callback = member.getCallback();
+            if (callback == null) {
+                continue;
+            }
+            ModbusReadRequestBlueprint memberRequest = member.getRequest();
+            int offset = memberRequest.getReference() - this.request.getReference();
+            int length = sliceLength(memberRequest, offset, registers.size());
+            try {
+                callback.onRegisters(memberRequest, slice(registers, offset, length));
+            } catch (RuntimeException e) {
+                logger.error("Callback of poll task {} failed: {} {}", member, e.getClass().getName(), e.getMessage(),
+                        e);
+            }
+        }
+    }
+
+    private static ModbusRegisterArray slice(ModbusRegisterArray registers, int offset, int length) {
+        if (registers instanceof ByteBufferModbusRegisterArray) {
+            // view sharing the data with the response
+            return ((ByteBufferModbusRegisterArray) registers).slice(offset, length);
+        }
+        ModbusRegister[] slice = new ModbusRegister[length];
+        for (int i = 0; i < length; i++) {
+            slice[i] = registers.getRegister(offset + i);
+        }
+        return new BasicModbusRegisterArray(slice);
+    }
+
+    @Override
+    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+        for (PollTask member : members) {
+            ModbusReadCallback callback = member.getCallback();
+            if (callback == null) {
+                continue;
+            }
+            ModbusReadRequestBlueprint memberRequest = member.getRequest();
+            int offset = memberRequest.getReference() - this.request.getReference();
+            int length = sliceLength(memberRequest, offset, bits.size());
+            BasicBitArray slice = new BasicBitArray(length);
+            for (int i = 0; i < length; i++) {
+                slice.setBit(i, bits.getBit(offset + i));
+            }
+            try {
+                callback.onBits(memberRequest, slice);
+            } catch (RuntimeException e) {
+                logger.error("Callback of poll task {} failed: {} {}", member, e.getClass().getName(), e.getMessage(),
+                        e);
+            }
+        }
+    }
+
+    @Override
+    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+        if (error instanceof ModbusSlaveErrorResponseException && members.size() > 1) {
+            // Let the caller retry with the individual requests, which might well succeed
+            splitRequired = true;
+            return;
+        }
+        for (PollTask member : members) {
+            ModbusReadCallback callback = member.getCallback();
+            if (callback == null) {
+                continue;
+            }
+            try {
+                callback.onError(member.getRequest(), error);
+            } catch (RuntimeException e) {
+                logger.error("Callback of poll task {} failed: {} {}", member, e.getClass().getName(), e.getMessage(),
+                        e);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, toStringStyle).append("request", request).append("endpoint", endpoint)
+                .append("members", members.size()).toString();
+    }
+
+    private static int sliceLength(ModbusReadRequestBlueprint memberRequest, int offset, int available) {
+        return Math.max(0, Math.min(memberRequest.getDataLength(), available - offset));
+    }
+}
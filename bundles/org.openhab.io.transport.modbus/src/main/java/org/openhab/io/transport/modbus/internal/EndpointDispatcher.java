@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of the operations of a single endpoint.
+ *
+ * Operations are executed one at a time, writes before polls. Each operation is handed to the shared executor
+ * separately, so that a slow endpoint occupies at most one thread and operations of different endpoints are
+ * interleaved fairly. Endpoints supporting pipelined transactions can allow several operations to execute
+ * concurrently, see {@link #setMaxConcurrent(int)}.
+ *
+ * Regular polls carry a deadline: a poll not started before the next poll of the same task is due is stale, and is
+ * dropped without execution. A poll of a task is not queued twice either.
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class EndpointDispatcher {
+
+    /**
+     * Deadline of operations which are never stale
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static class QueuedOperation {
+        private final @Nullable Object pollKey;
+        private final Runnable operation;
+        private final Runnable onDropped;
+        private final long enqueuedMillis;
+        private final long deadlineMillis;
+
+        QueuedOperation(@Nullable Object pollKey, Runnable operation, Runnable onDropped, long deadlineMillis) {
+            this.pollKey = pollKey;
+            this.operation = operation;
+            this.onDropped = onDropped;
+            this.enqueuedMillis = System.currentTimeMillis();
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(EndpointDispatcher.class);
+
+    private final ModbusSlaveEndpoint endpoint;
+    private final Executor executor;
+    private final int capacity;
+    private final ModbusEndpointMetricsImpl metrics = new ModbusEndpointMetricsImpl(this::size);
+
+    private final Deque<QueuedOperation> writes = new ArrayDeque<>();
+    private final Deque<QueuedOperation> polls = new ArrayDeque<>();
+    /**
+     * Number of operations executing or handed to the executor. Guarded by this.
+     */
+    private int running;
+    /**
+     * Maximum number of operations executing concurrently. Guarded by this.
+     */
+    private int maxConcurrent = 1;
+    private volatile boolean closed;
+
+    /**
+     * @param endpoint endpoint of the operations
+     * @param executor executor for the operations
+     * @param capacity maximum number of queued operations
+     */
+    public EndpointDispatcher(ModbusSlaveEndpoint endpoint, Executor executor, int capacity) {
+        this.endpoint = endpoint;
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    public ModbusEndpointMetricsImpl getMetrics() {
+        return metrics;
+    }
+
+    public synchronized int size() {
+        return writes.size() + polls.size();
+    }
+
+    /**
+     * Set the maximum number of operations executing concurrently
+     *
+     * @param maxConcurrent maximum number of concurrent operations, at least 1
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent should be positive");
+        }
+        int start;
+        synchronized (this) {
+            this.maxConcurrent = maxConcurrent;
+            start = Math.max(0, Math.min(maxConcurrent - running, size()));
+            running += start;
+        }
+        for (int i = 0; i < start; i++) {
+            executor.execute(this::executeNext);
+        }
+    }
+
+    /**
+     * Queue a write, executed before any queued poll.
+     *
+     * If the queue is full, the oldest poll is evicted. If there is no poll to evict, the write is rejected.
+     *
+     * @param operation operation to execute
+     * @param onRejected called when the write is rejected or evicted without execution
+     */
+    public void submitWrite(Runnable operation, Runnable onRejected) {
+        submit(new QueuedOperation(null, operation, onRejected, NO_DEADLINE), true);
+    }
+
+    /**
+     * Queue a poll.
+     *
+     * If the queue is full, the oldest poll is evicted.
+     *
+     * @param pollKey identifies polls of the same task, such that the task is not queued twice. Null with one-off
+     *            polls.
+     * @param deadlineMillis time after which the poll is stale and dropped, or {@link #NO_DEADLINE}
+     * @param operation operation to execute
+     * @param onDropped called when the poll is rejected or dropped without execution
+     */
+    public void submitPoll(@Nullable Object pollKey, long deadlineMillis, Runnable operation, Runnable onDropped) {
+        submit(new QueuedOperation(pollKey, operation, onDropped, deadlineMillis), false);
+    }
+
+    /**
+     * Drop all queued operations without notification. Operations submitted later are dropped as well.
+     */
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            writes.clear();
+            polls.clear();
+        }
+    }
+
+    private void submit(QueuedOperation queued, boolean write) {
+        if (closed) {
+            return;
+        }
+        @Nullable
+        QueuedOperation evicted = null;
+        boolean rejected = false;
+        boolean duplicate = false;
+        boolean start = false;
+        synchronized (this) {
+            Object pollKey = queued.pollKey;
+            if (pollKey != null && polls.stream().anyMatch(other -> Objects.equals(pollKey, other.pollKey))) {
+                duplicate = true;
+            } else {
+                if (size() >= capacity) {
+                    evicted = polls.pollFirst();
+                    rejected = evicted == null;
+                }
+                if (!rejected) {
+                    (write ? writes : polls).addLast(queued);
+                    if (running < maxConcurrent) {
+                        running++;
+                        start = true;
+                    }
+                }
+            }
+        }
+        if (duplicate) {
+            // The previous poll of the task is still waiting, this poll would only read the same data again
+            logger.debug("Previous poll of {} with endpoint {} still queued, dropping new poll", queued.pollKey,
+                    endpoint);
+            metrics.droppedPolls.incrementAndGet();
+            queued.onDropped.run();
+        }
+        if (evicted != null) {
+            logger.warn("Queue of endpoint {} is full ({} operations), dropping the oldest poll", endpoint, capacity);
+            metrics.rejectedTasks.incrementAndGet();
+            evicted.onDropped.run();
+        }
+        if (rejected) {
+            logger.warn("Queue of endpoint {} is full of writes ({} operations), rejecting the write", endpoint,
+                    capacity);
+            metrics.rejectedTasks.incrementAndGet();
+            queued.onDropped.run();
+        }
+        if (start) {
+            executor.execute(this::executeNext);
+        }
+    }
+
+    private void executeNext() {
+        List<QueuedOperation> stale = new ArrayList<>();
+        @Nullable
+        QueuedOperation next;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            while (true) {
+                next = writes.pollFirst();
+                if (next == null) {
+                    next = polls.pollFirst();
+                }
+                if (next == null || now <= next.deadlineMillis) {
+                    break;
+                }
+                stale.add(next);
+            }
+            if (next == null) {
+                running--;
+            }
+        }
+        for (QueuedOperation operation : stale) {
+            logger.debug("Poll of {} with endpoint {} was not started in time (queued for {} ms), dropping it",
+                    operation.pollKey, endpoint, now - operation.enqueuedMillis);
+            metrics.droppedPolls.incrementAndGet();
+            operation.onDropped.run();
+        }
+        if (next == null) {
+            return;
+        }
+
+        metrics.recordQueueWait(now - next.enqueuedMillis);
+        try {
+            next.operation.run();
+        } catch (RuntimeException e) {
+            logger.error("Unexpected error with operation of endpoint {}: {} {}", endpoint, e.getClass().getName(),
+                    e.getMessage(), e);
+        }
+
+        synchronized (this) {
+            if ((writes.isEmpty() && polls.isEmpty()) || running > maxConcurrent) {
+                running--;
+                return;
+            }
+        }
+        // Let operations of other endpoints run before continuing with this endpoint
+        executor.execute(this::executeNext);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.openhab.io.transport.modbus.LatencyHistogram;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
+
+/**
+ * Metrics of a single endpoint, recorded by {@link EndpointDispatcher} and {@link ModbusManagerImpl}
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class ModbusEndpointMetricsImpl implements ModbusEndpointMetrics {
+
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram connection = new LatencyHistogram();
+    private final LatencyHistogram transaction = new LatencyHistogram();
+    private final LatencyHistogram callback = new LatencyHistogram();
+    final AtomicLong droppedPolls = new AtomicLong();
+    final AtomicLong rejectedTasks = new AtomicLong();
+    private final IntSupplier queueSize;
+
+    ModbusEndpointMetricsImpl(IntSupplier queueSize) {
+        this.queueSize = queueSize;
+    }
+
+    /**
+     * Record the timings of a finished operation
+     *
+     * @param timer timings of the operation
+     */
+    void recordOperation(AggregateStopWatch timer) {
+        connection.record(timer.connection.getTotalTimeMillis());
+        transaction.record(timer.transaction.getTotalTimeMillis());
+        callback.record(timer.callback.getTotalTimeMillis());
+    }
+
+    void recordQueueWait(long millis) {
+        queueWait.record(millis);
+    }
+
+    @Override
+    public LatencyHistogram getQueueWait() {
+        return queueWait;
+    }
+
+    @Override
+    public LatencyHistogram getConnection() {
+        return connection;
+    }
+
+    @Override
+    public LatencyHistogram getTransaction() {
+        return transaction;
+    }
+
+    @Override
+    public LatencyHistogram getCallback() {
+        return callback;
+    }
+
+    @Override
+    public int getQueueSize() {
+        return queueSize.getAsInt();
+    }
+
+    @Override
+    public long getDroppedPolls() {
+        return droppedPolls.get();
+    }
+
+    @Override
+    public long getRejectedTasks() {
+        return rejectedTasks.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "{queueSize: %d, droppedPolls: %d, rejectedTasks: %d, queueWait: %s, connection: %s, transaction: %s, callback: %s}",
+                getQueueSize(), getDroppedPolls(), getRejectedTasks(), queueWait, connection, transaction, callback);
+    }
+}
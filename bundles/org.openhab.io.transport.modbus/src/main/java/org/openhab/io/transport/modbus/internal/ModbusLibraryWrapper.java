@@ -12,6 +12,7 @@
  */
 package org.openhab.io.transport.modbus.internal;
 
+import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
@@ -20,6 +21,7 @@ import java.util.stream.IntStream;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ByteBufferModbusRegisterArray;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
 import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
 import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
@@ -58,6 +60,7 @@ import net.wimpi.modbus.net.ModbusSlaveConnection;
 import net.wimpi.modbus.net.SerialConnection;
 import net.wimpi.modbus.net.TCPMasterConnection;
 import net.wimpi.modbus.net.UDPMasterConnection;
+import net.wimpi.modbus.procimg.InputRegister;
 import net.wimpi.modbus.procimg.Register;
 import net.wimpi.modbus.procimg.SimpleInputRegister;
 import net.wimpi.modbus.util.BitVector;
@@ -255,6 +258,23 @@ public class ModbusLibraryWrapper {
                 .collect(Collectors.toList()).toArray(new Register[0]);
     }
 
+    /**
+     * Copy register data of a response into a single buffer
+     *
+     * Values are then decoded straight from the buffer, without copying each register separately.
+     *
+     * @param registers registers of the response
+     * @return register array backed by a buffer
+     */
+    public static ModbusRegisterArray toRegisterArray(InputRegister[] registers) {
+        ByteBuffer buffer = ByteBuffer.allocate(2 * registers.length);
+        for (InputRegister register : registers) {
+            buffer.putShort((short) register.getValue());
+        }
+        buffer.flip();
+        return new ByteBufferModbusRegisterArray(buffer);
+    }
+
     /**
      * Invoke callback with the data received
      *
@@ -280,11 +300,10 @@ public class ModbusLibraryWrapper {
                 callback.onBits(message,
                         new BitArrayWrappingBitVector(bits, Math.min(bits.size(), message.getDataLength())));
             } else if (message.getFunctionCode() == ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS) {
-                callback.onRegisters(message, new RegisterArrayWrappingInputRegister(
-                        ((ReadMultipleRegistersResponse) response).getRegisters()));
-            } else if (message.getFunctionCode() == ModbusReadFunctionCode.READ_INPUT_REGISTERS) {
                 callback.onRegisters(message,
-                        new RegisterArrayWrappingInputRegister(((ReadInputRegistersResponse) response).getRegisters()));
+                        toRegisterArray(((ReadMultipleRegistersResponse) response).getRegisters()));
+            } else if (message.getFunctionCode() == ModbusReadFunctionCode.READ_INPUT_REGISTERS) {
+                callback.onRegisters(message, toRegisterArray(((ReadInputRegistersResponse) response).getRegisters()));
             } else {
                 throw new IllegalArgumentException(
                         String.format("Unexpected function code %s", message.getFunctionCode()));
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+/**
+ * Configuration of the {@link ModbusManagerImpl}, with configuration PID <code>transport.modbus</code>
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+public class ModbusManagerConfiguration {
+
+    public static final int DEFAULT_ENDPOINT_QUEUE_CAPACITY = 1000;
+
+    /**
+     * Whether regular polls with the same endpoint and poll period are combined into as few requests as possible
+     */
+    public boolean readCoalescing = false;
+
+    /**
+     * Maximum number of unrequested registers (or bits) read in-between two polls to combine them
+     */
+    public int readCoalescingMaxGap = 0;
+
+    /**
+     * Maximum number of operations queued per endpoint
+     */
+    public int endpointQueueCapacity = DEFAULT_ENDPOINT_QUEUE_CAPACITY;
+}
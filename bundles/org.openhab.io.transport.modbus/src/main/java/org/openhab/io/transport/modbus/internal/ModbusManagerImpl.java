@@ -13,7 +13,9 @@
 package org.openhab.io.transport.modbus.internal;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -34,11 +36,14 @@ import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.eclipse.jdt.annotation.NonNull;
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.openhab.io.transport.modbus.ModbusCallback;
 import org.openhab.io.transport.modbus.ModbusConnectionException;
+import org.openhab.io.transport.modbus.ModbusEndpointMetrics;
 import org.openhab.io.transport.modbus.ModbusManager;
 import org.openhab.io.transport.modbus.ModbusManagerListener;
+import org.openhab.io.transport.modbus.ModbusQueueFullException;
 import org.openhab.io.transport.modbus.ModbusReadCallback;
 import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
 import org.openhab.io.transport.modbus.ModbusRequestBlueprint;
@@ -77,6 +82,9 @@ import net.wimpi.modbus.net.ModbusSlaveConnection;
  * important with serial slaves but practice has shown that even many tcp slaves have limited
  * capability to handle many connections at the same time
  *
+ * Operations are queued per endpoint (see {@link EndpointDispatcher}), so that a slow endpoint cannot occupy the
+ * threads needed by operations with other endpoints.
+ *
  * @author Sami Salonen - Initial contribution
  */
 @Component(service = ModbusManager.class, immediate = true, configurationPid = "transport.modbus")
@@ -91,7 +99,93 @@ public class ModbusManagerImpl implements ModbusManager {
         private static final long serialVersionUID = 6939730579178506885L;
     }
 
-    @FunctionalInterface
+    /**
+     * Identifies regular polls which are executed together
+     */
+    private static class PollGroupKey {
+        private final ModbusSlaveEndpoint endpoint;
+        private final long pollPeriodMillis;
+
+        PollGroupKey(ModbusSlaveEndpoint endpoint, long pollPeriodMillis) {
+            this.endpoint = endpoint;
+            this.pollPeriodMillis = pollPeriodMillis;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, pollPeriodMillis);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof PollGroupKey)) {
+                return false;
+            }
+            PollGroupKey other = (PollGroupKey) obj;
+            return endpoint.equals(other.endpoint) && pollPeriodMillis == other.pollPeriodMillis;
+        }
+    }
+
+    /**
+     * Regular polls sharing the same endpoint and poll period, executed with as few requests as possible
+     *
+     * @author openHAB Contributors - Initial contribution
+     *
+     */
+    private class PollGroup {
+        private final Set<PollTask> members = new CopyOnWriteArraySet<>();
+        private final ModbusReadPlanner planner;
+        @Nullable
+        private volatile List<PollTask> plan;
+        /**
+         * Set when slave has rejected a combined request, members are polled individually from then on
+         */
+        private volatile boolean coalescingFailed;
+        @Nullable
+        private ScheduledFuture<?> future;
+
+        PollGroup(ModbusReadPlanner planner) {
+            this.planner = planner;
+        }
+
+        void add(PollTask task) {
+            members.add(task);
+            plan = null;
+        }
+
+        boolean remove(PollTask task) {
+            boolean removed = members.remove(task);
+            plan = null;
+            return removed;
+        }
+
+        boolean isEmpty() {
+            return members.isEmpty();
+        }
+
+        void poll() {
+            List<PollTask> plan = this.plan;
+            if (plan == null) {
+                plan = coalescingFailed ? new ArrayList<>(members) : planner.plan(members);
+                this.plan = plan;
+                logger.debug("Planned {} requests for {} regular poll tasks", plan.size(), members.size());
+            }
+            for (PollTask task : plan) {
+                executeOperation(task, false, pollOperation);
+                if (task instanceof CoalescedPollTask && ((CoalescedPollTask) task).isSplitRequired()) {
+                    logger.warn(
+                            "Slave rejected combined request {}, polling the {} tasks it covers individually from now on",
+                            task.getRequest(), ((CoalescedPollTask) task).getMembers().size());
+                    coalescingFailed = true;
+                    this.plan = null;
+                    for (PollTask member : ((CoalescedPollTask) task).getMembers()) {
+                        executeOperation(member, false, pollOperation);
+                    }
+                }
+            }
+        }
+    }
+
     private interface ModbusOperation<T> {
 
         /**
@@ -108,6 +202,30 @@ public class ModbusManagerImpl implements ModbusManager {
         public void accept(AggregateStopWatch timer, T task, ModbusSlaveConnection connection)
                 throws ModbusException, IIOException, ModbusUnexpectedTransactionIdException;
 
+        /**
+         * Execute the operation over a pipelined connection.
+         *
+         * All errors should be raised. There should not be any retry mechanism implemented at this level
+         *
+         * @param timer aggregate stop watch for performance profiling
+         * @param task task to execute
+         * @param connection connection to use
+         * @throws ModbusException on IO errors and slave exception responses
+         * @throws InterruptedException when interrupted while waiting for the response
+         */
+        public void acceptPipelined(AggregateStopWatch timer, T task, PipelinedTCPConnection connection)
+                throws ModbusException, InterruptedException;
+
+    }
+
+    private ModbusResponse executePipelined(AggregateStopWatch timer, PipelinedTCPConnection connection,
+            ModbusRequest libRequest) throws ModbusException, InterruptedException {
+        timer.transaction.resume();
+        try {
+            return connection.execute(libRequest);
+        } finally {
+            timer.transaction.suspend();
+        }
     }
 
     /**
@@ -167,6 +285,23 @@ public class ModbusManagerImpl implements ModbusManager {
                         () -> ModbusLibraryWrapper.invokeCallbackWithResponse(request, callback, response));
             }
         }
+
+        @Override
+        public void acceptPipelined(AggregateStopWatch timer, PollTask task, PipelinedTCPConnection connection)
+                throws ModbusException, InterruptedException {
+            ModbusReadRequestBlueprint request = task.getRequest();
+            ModbusReadCallback callback = task.getCallback();
+            ModbusRequest libRequest = ModbusLibraryWrapper.createRequest(request);
+
+            ModbusResponse response = executePipelined(timer, connection, libRequest);
+            logger.trace("Response for pipelined read request (FC={}, transaction ID={}): {} [operation ID {}]",
+                    response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(),
+                    timer.operationId);
+            if (callback != null) {
+                timer.callback.timeRunnable(
+                        () -> ModbusLibraryWrapper.invokeCallbackWithResponse(request, callback, response));
+            }
+        }
     }
 
     /**
@@ -204,6 +339,23 @@ public class ModbusManagerImpl implements ModbusManager {
                         () -> invokeCallbackWithResponse(request, callback, new ModbusResponseImpl(response)));
             }
         }
+
+        @Override
+        public void acceptPipelined(AggregateStopWatch timer, WriteTask task, PipelinedTCPConnection connection)
+                throws ModbusException, InterruptedException {
+            ModbusWriteRequestBlueprint request = task.getRequest();
+            ModbusWriteCallback callback = task.getCallback();
+            ModbusRequest libRequest = ModbusLibraryWrapper.createRequest(request);
+
+            ModbusResponse response = executePipelined(timer, connection, libRequest);
+            logger.trace("Response for pipelined write request (FC={}, transaction ID={}): {} [operation ID {}]",
+                    response.getFunctionCode(), response.getTransactionID(), response.getHexMessage(),
+                    timer.operationId);
+            if (callback != null) {
+                timer.callback.timeRunnable(
+                        () -> invokeCallbackWithResponse(request, callback, new ModbusResponseImpl(response)));
+            }
+        }
     }
 
     private final Logger logger = LoggerFactory.getLogger(ModbusManagerImpl.class);
@@ -268,6 +420,19 @@ public class ModbusManagerImpl implements ModbusManager {
     @Nullable
     private volatile ModbusSlaveConnectionFactoryImpl connectionFactory;
     private volatile Map<PollTask, ScheduledFuture<?>> scheduledPollTasks = new ConcurrentHashMap<>();
+    private final Map<PollGroupKey, PollGroup> pollGroups = new ConcurrentHashMap<>();
+    private final Map<ModbusSlaveEndpoint, EndpointDispatcher> dispatchers = new ConcurrentHashMap<>();
+    /**
+     * Connections of endpoints with pipelining enabled, see
+     * {@link EndpointPoolConfiguration#getMaxInFlightTransactions()}
+     */
+    private final Map<ModbusSlaveEndpoint, PipelinedTCPConnection> pipelinedConnections = new ConcurrentHashMap<>();
+    private volatile int endpointQueueCapacity = ModbusManagerConfiguration.DEFAULT_ENDPOINT_QUEUE_CAPACITY;
+    /**
+     * Planner for combining regular polls, null when read coalescing is disabled
+     */
+    @Nullable
+    private volatile ModbusReadPlanner readPlanner;
     /**
      * Executor for requests
      */
@@ -467,8 +632,58 @@ public class ModbusManagerImpl implements ModbusManager {
         }
     }
 
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback> void invokeCallbackWithQueueFull(
+            TaskWithEndpoint<R, C> task) {
+        C callback = task.getCallback();
+        if (callback != null) {
+            invokeCallbackWithError(task.getRequest(), callback, new ModbusQueueFullException(task.getEndpoint()));
+        }
+    }
+
+    private EndpointDispatcher getDispatcher(ModbusSlaveEndpoint endpoint, ScheduledExecutorService executor) {
+        return dispatchers.computeIfAbsent(endpoint, key -> {
+            EndpointDispatcher dispatcher = new EndpointDispatcher(key, executor, endpointQueueCapacity);
+            dispatcher.setMaxConcurrent(getMaxInFlightTransactions(key));
+            return dispatcher;
+        });
+    }
+
+    /**
+     * Get number of transactions the endpoint accepts in flight. Pipelining is supported with TCP endpoints only.
+     */
+    private int getMaxInFlightTransactions(ModbusSlaveEndpoint endpoint) {
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        if (!(endpoint instanceof ModbusTCPSlaveEndpoint) || connectionFactory == null) {
+            return 1;
+        }
+        EndpointPoolConfiguration configuration = connectionFactory.getEndpointPoolConfiguration(endpoint);
+        return configuration == null ? 1 : Math.max(1, configuration.getMaxInFlightTransactions());
+    }
+
+    /**
+     * Get pipelined connection to the endpoint
+     *
+     * @return connection, or null when the endpoint does not have pipelining enabled
+     */
+    private @Nullable PipelinedTCPConnection getPipelinedConnection(ModbusSlaveEndpoint endpoint) {
+        int maxInFlight = getMaxInFlightTransactions(endpoint);
+        if (maxInFlight <= 1) {
+            return null;
+        }
+        ModbusSlaveConnectionFactoryImpl connectionFactory = this.connectionFactory;
+        EndpointPoolConfiguration configuration = connectionFactory == null ? null
+                : connectionFactory.getEndpointPoolConfiguration(endpoint);
+        int connectTimeoutMillis = configuration == null ? 0 : configuration.getConnectTimeoutMillis();
+        return pipelinedConnections.computeIfAbsent(endpoint,
+                key -> new PipelinedTCPConnection((ModbusTCPSlaveEndpoint) key, maxInFlight, connectTimeoutMillis,
+                        Modbus.DEFAULT_TIMEOUT));
+    }
+
     private void verifyTaskIsRegistered(PollTask task) throws PollTaskUnregistered {
-        if (!this.scheduledPollTasks.containsKey(task)) {
+        boolean registered = task instanceof CoalescedPollTask
+                ? ((CoalescedPollTask) task).getMembers().stream().anyMatch(this.scheduledPollTasks::containsKey)
+                : this.scheduledPollTasks.containsKey(task);
+        if (!registered) {
             String msg = String.format("Poll task %s is unregistered", task);
             logger.debug(msg);
             throw new PollTaskUnregistered(msg);
@@ -516,6 +731,12 @@ public class ModbusManagerImpl implements ModbusManager {
             throw new IllegalArgumentException("maxTries should be positive");
         }
 
+        PipelinedTCPConnection pipelinedConnection = getPipelinedConnection(endpoint);
+        if (pipelinedConnection != null) {
+            executePipelinedOperation(timer, task, oneOffTask, operation, pipelinedConnection);
+            return;
+        }
+
         Optional<ModbusSlaveConnection> connection = Optional.empty();
         try {
             logger.trace("Starting new operation with task {}. Trying to get connection [operation ID {}]", task,
@@ -687,6 +908,75 @@ public class ModbusManagerImpl implements ModbusManager {
             logger.trace("Connection was returned to the pool, ending operation [operation ID {}]", operationId);
             timer.suspendAllRunning();
             logger.debug("Modbus operation ended, timing info: {} [operation ID {}]", timer, operationId);
+            EndpointDispatcher dispatcher = dispatchers.get(endpoint);
+            if (dispatcher != null) {
+                dispatcher.getMetrics().recordOperation(timer);
+            }
+        }
+    }
+
+    /**
+     * Execute operation over a pipelined connection, using a retry mechanism.
+     *
+     * The connection takes care of reconnecting after I/O errors. Other operations of the endpoint are executed
+     * concurrently, and the inter-transaction delay is not applied.
+     */
+    private <R extends ModbusRequestBlueprint, C extends ModbusCallback, T extends TaskWithEndpoint<R, C>> void executePipelinedOperation(
+            AggregateStopWatch timer, @NonNull T task, boolean oneOffTask, ModbusOperation<T> operation,
+            PipelinedTCPConnection connection) {
+        String operationId = timer.operationId;
+        R request = task.getRequest();
+        @Nullable
+        C callback = task.getCallback();
+        int maxTries = task.getMaxTries();
+        @Nullable
+        Exception lastError = null;
+        try {
+            for (int tryIndex = 1; tryIndex <= maxTries; tryIndex++) {
+                // Check poll task is still registered (this is all asynchronous)
+                if (!oneOffTask && task instanceof PollTask) {
+                    verifyTaskIsRegistered((PollTask) task);
+                }
+                try {
+                    operation.acceptPipelined(timer, task, connection);
+                    lastError = null;
+                    break;
+                } catch (ModbusIOException e) {
+                    lastError = new ModbusSlaveIOExceptionImpl(e);
+                } catch (ModbusSlaveException e) {
+                    lastError = new ModbusSlaveErrorResponseExceptionImpl(e);
+                } catch (ModbusException e) {
+                    lastError = e;
+                }
+                if (tryIndex < maxTries) {
+                    logger.warn(
+                            "Try {} out of {} failed when executing request ({}) over pipelined connection. Will try again. Error details: {} {} [operation ID {}]",
+                            tryIndex, maxTries, request, lastError.getClass().getName(), lastError.getMessage(),
+                            operationId);
+                } else {
+                    logger.error(
+                            "Last try {} failed when executing request ({}) over pipelined connection. Aborting. Error details: {} {} [operation ID {}]",
+                            tryIndex, request, lastError.getClass().getName(), lastError.getMessage(), operationId);
+                }
+            }
+            Exception exception = lastError;
+            if (exception != null && callback != null) {
+                timer.callback.timeRunnable(() -> invokeCallbackWithError(request, callback, exception));
+            }
+        } catch (PollTaskUnregistered e) {
+            logger.warn("Poll task was unregistered -- not executing/proceeding with the poll: {} [operation ID {}]",
+                    e.getMessage(), operationId);
+        } catch (InterruptedException e) {
+            logger.warn("Poll task was canceled -- not executing/proceeding with the poll: {} [operation ID {}]",
+                    e.getMessage(), operationId);
+            Thread.currentThread().interrupt();
+        } finally {
+            timer.suspendAllRunning();
+            logger.debug("Pipelined modbus operation ended, timing info: {} [operation ID {}]", timer, operationId);
+            EndpointDispatcher dispatcher = dispatchers.get(task.getEndpoint());
+            if (dispatcher != null) {
+                dispatcher.getMetrics().recordOperation(timer);
+            }
         }
     }
 
@@ -697,10 +987,11 @@ public class ModbusManagerImpl implements ModbusManager {
         long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off poll task {}", task);
         ScheduledFuture<?> future = executor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off poll task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, pollOperation);
+            getDispatcher(task.getEndpoint(), executor).submitPoll(null, EndpointDispatcher.NO_DEADLINE, () -> {
+                long millisInQueue = System.currentTimeMillis() - scheduleTime;
+                logger.debug("Will now execute one-off poll task {}, waited in queue for {}", task, millisInQueue);
+                executeOperation(task, true, pollOperation);
+            }, () -> invokeCallbackWithQueueFull(task));
         }, 0L, TimeUnit.MILLISECONDS);
         return future;
     }
@@ -716,15 +1007,47 @@ public class ModbusManagerImpl implements ModbusManager {
                 logger.trace("Unregistering previous poll task (possibly with different period)");
                 unregisterRegularPoll(task);
             }
+            ModbusReadPlanner planner = readPlanner;
+            if (planner != null) {
+                PollGroup group = pollGroups.computeIfAbsent(new PollGroupKey(task.getEndpoint(), pollPeriodMillis),
+                        key -> new PollGroup(planner));
+                group.add(task);
+                ScheduledFuture<?> future = group.future;
+                if (future == null) {
+                    EndpointDispatcher dispatcher = getDispatcher(task.getEndpoint(), executor);
+                    group.future = future = executor.scheduleWithFixedDelay(() -> {
+                        dispatcher.submitPoll(group, System.currentTimeMillis() + pollPeriodMillis, () -> {
+                            long started = System.currentTimeMillis();
+                            logger.debug("Executing scheduled ({}ms) poll group of endpoint {}. Current millis: {}",
+                                    pollPeriodMillis, task.getEndpoint(), started);
+                            group.poll();
+                            long finished = System.currentTimeMillis();
+                            logger.debug(
+                                    "Execution of scheduled ({}ms) poll group of endpoint {} finished at {}. Was started at millis: {} (=duration of {} millis)",
+                                    pollPeriodMillis, task.getEndpoint(), finished, started, finished - started);
+                        }, () -> {
+                        });
+                    }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
+                }
+                scheduledPollTasks.put(task, future);
+                logger.trace("Registered poll task {} with period {} to poll group of endpoint {}", task,
+                        pollPeriodMillis, task.getEndpoint());
+                return;
+            }
+            EndpointDispatcher dispatcher = getDispatcher(task.getEndpoint(), executor);
             ScheduledFuture<?> future = executor.scheduleWithFixedDelay(() -> {
-                long started = System.currentTimeMillis();
-                logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis, task,
-                        started);
-                executeOperation(task, false, pollOperation);
-                long finished = System.currentTimeMillis();
-                logger.debug(
-                        "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
-                        pollPeriodMillis, task, finished, started, finished - started);
+                // Poll is stale if not started before the next one is due
+                dispatcher.submitPoll(task, System.currentTimeMillis() + pollPeriodMillis, () -> {
+                    long started = System.currentTimeMillis();
+                    logger.debug("Executing scheduled ({}ms) poll task {}. Current millis: {}", pollPeriodMillis,
+                            task, started);
+                    executeOperation(task, false, pollOperation);
+                    long finished = System.currentTimeMillis();
+                    logger.debug(
+                            "Execution of scheduled ({}ms) poll task {} finished at {}. Was started at millis: {} (=duration of {} millis)",
+                            pollPeriodMillis, task, finished, started, finished - started);
+                }, () -> {
+                });
             }, initialDelayMillis, pollPeriodMillis, TimeUnit.MILLISECONDS);
 
             scheduledPollTasks.put(task, future);
@@ -756,7 +1079,22 @@ public class ModbusManagerImpl implements ModbusManager {
             // is usually pretty soon as transactions should be relatively short-lived)
             factory.disconnectOnReturn(task.getEndpoint(), System.currentTimeMillis());
 
-            future.cancel(true);
+            // Poll groups are only canceled once their last task is unregistered
+            boolean cancel = true;
+            for (Map.Entry<PollGroupKey, PollGroup> entry : pollGroups.entrySet()) {
+                PollGroup group = entry.getValue();
+                if (group.remove(task)) {
+                    if (group.isEmpty()) {
+                        pollGroups.remove(entry.getKey());
+                    } else {
+                        cancel = false;
+                    }
+                    break;
+                }
+            }
+            if (cancel) {
+                future.cancel(true);
+            }
 
             logger.info("Poll task {} canceled", task);
 
@@ -782,10 +1120,11 @@ public class ModbusManagerImpl implements ModbusManager {
         long scheduleTime = System.currentTimeMillis();
         logger.debug("Scheduling one-off write task {}", task);
         ScheduledFuture<?> future = scheduledThreadPoolExecutor.schedule(() -> {
-            long millisInThreadPoolWaiting = System.currentTimeMillis() - scheduleTime;
-            logger.debug("Will now execute one-off write task {}, waited in thread pool for {}", task,
-                    millisInThreadPoolWaiting);
-            executeOperation(task, true, writeOperation);
+            getDispatcher(task.getEndpoint(), scheduledThreadPoolExecutor).submitWrite(() -> {
+                long millisInQueue = System.currentTimeMillis() - scheduleTime;
+                logger.debug("Will now execute one-off write task {}, waited in queue for {}", task, millisInQueue);
+                executeOperation(task, true, writeOperation);
+            }, () -> invokeCallbackWithQueueFull(task));
         }, 0L, TimeUnit.MILLISECONDS);
         return future;
     }
@@ -795,6 +1134,15 @@ public class ModbusManagerImpl implements ModbusManager {
             @Nullable EndpointPoolConfiguration configuration) {
         Objects.requireNonNull(connectionFactory, "Not activated!");
         connectionFactory.setEndpointPoolConfiguration(endpoint, configuration);
+        // Pipelined connection is re-created with the new configuration on next use
+        PipelinedTCPConnection pipelinedConnection = pipelinedConnections.remove(endpoint);
+        if (pipelinedConnection != null) {
+            pipelinedConnection.close();
+        }
+        EndpointDispatcher dispatcher = dispatchers.get(endpoint);
+        if (dispatcher != null) {
+            dispatcher.setMaxConcurrent(getMaxInFlightTransactions(endpoint));
+        }
         for (ModbusManagerListener listener : listeners) {
             listener.onEndpointPoolConfigurationSet(endpoint, configuration);
         }
@@ -821,10 +1169,20 @@ public class ModbusManagerImpl implements ModbusManager {
         return this.scheduledPollTasks.keySet();
     }
 
+    @Override
+    public @Nullable ModbusEndpointMetrics getEndpointMetrics(ModbusSlaveEndpoint endpoint) {
+        EndpointDispatcher dispatcher = dispatchers.get(endpoint);
+        return dispatcher == null ? null : dispatcher.getMetrics();
+    }
+
     @Activate
     protected void activate(Map<String, Object> configProperties) {
         synchronized (this) {
             logger.info("Modbus manager activated");
+            ModbusManagerConfiguration config = new Configuration(configProperties)
+                    .as(ModbusManagerConfiguration.class);
+            readPlanner = config.readCoalescing ? new ModbusReadPlanner(Math.max(0, config.readCoalescingMaxGap)) : null;
+            endpointQueueCapacity = Math.max(1, config.endpointQueueCapacity);
             if (connectionPool == null) {
                 constructConnectionPool();
             }
@@ -860,6 +1218,10 @@ public class ModbusManagerImpl implements ModbusManager {
                 monitorFuture.cancel(true);
                 monitorFuture = null;
             }
+            dispatchers.values().forEach(EndpointDispatcher::close);
+            dispatchers.clear();
+            pipelinedConnections.values().forEach(PipelinedTCPConnection::close);
+            pipelinedConnections.clear();
             // Note that it is not allowed to shutdown the executor, since they will be reused when
             // when pool is received from ThreadPoolManager is called
             scheduledThreadPoolExecutor = null;
@@ -899,6 +1261,14 @@ public class ModbusManagerImpl implements ModbusManager {
                 }
             }
 
+            dispatchers.forEach((endpoint, dispatcher) -> {
+                pollMonitorLogger.trace("POLL MONITOR: endpoint {}: {}", endpoint, dispatcher.getMetrics());
+            });
+            pipelinedConnections.forEach((endpoint, connection) -> {
+                pollMonitorLogger.trace("POLL MONITOR: endpoint {}: {} out of {} pipelined transactions in flight",
+                        endpoint, connection.getInFlight(), connection.getWindowSize());
+            });
+
             pollMonitorLogger.trace("</POLL MONITOR>");
         }
     }
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+/**
+ * Plans the requests needed to serve a set of poll tasks.
+ *
+ * Tasks reading the same endpoint, unit ID and function code are combined into a single request when their ranges
+ * overlap or lie at most <code>maxGap</code> registers (or bits) apart, as long as the combined request does not
+ * exceed the maximum length allowed by the protocol.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class ModbusReadPlanner {
+
+    /**
+     * Maximum number of registers in a single read request (function codes 3 and 4)
+     */
+    public static final int MAX_REGISTERS_PER_READ = 125;
+
+    /**
+     * Maximum number of coils or discrete inputs in a single read request (function codes 1 and 2)
+     */
+    public static final int MAX_BITS_PER_READ = 2000;
+
+    private static class RequestKey {
+        private final ModbusSlaveEndpoint endpoint;
+        private final int unitId;
+        private final ModbusReadFunctionCode functionCode;
+
+        RequestKey(PollTask task) {
+            this.endpoint = task.getEndpoint();
+            this.unitId = task.getRequest().getUnitID();
+            this.functionCode = task.getRequest().getFunctionCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(endpoint, unitId, functionCode);
+        }
+
+        @Override
+        public boolean equals(@Nullable Object obj) {
+            if (!(obj instanceof RequestKey)) {
+                return false;
+            }
+            RequestKey other = (RequestKey) obj;
+            return endpoint.equals(other.endpoint) && unitId == other.unitId && functionCode == other.functionCode;
+        }
+    }
+
+    private final int maxGap;
+
+    /**
+     * @param maxGap maximum number of unrequested registers (or bits) read in-between two tasks to combine them
+     */
+    public ModbusReadPlanner(int maxGap) {
+        if (maxGap < 0) {
+            throw new IllegalArgumentException("maxGap should be non-negative");
+        }
+        this.maxGap = maxGap;
+    }
+
+    /**
+     * Get the maximum length of a single read request with the given function code
+     *
+     * @param functionCode function code of the request
+     * @return maximum number of registers or bits
+     */
+    public static int getMaxReadLength(ModbusReadFunctionCode functionCode) {
+        switch (functionCode) {
+            case READ_COILS:
+            case READ_INPUT_DISCRETES:
+                return MAX_BITS_PER_READ;
+            default:
+                return MAX_REGISTERS_PER_READ;
+        }
+    }
+
+    /**
+     * Plan the requests for the given tasks
+     *
+     * @param tasks tasks to serve
+     * @return tasks to execute. Tasks which could not be combined with any other are returned as is, others are
+     *         replaced by a {@link CoalescedPollTask}.
+     */
+    public List<PollTask> plan(Collection<PollTask> tasks) {
+        Map<RequestKey, List<PollTask>> byKey = new LinkedHashMap<>();
+        for (PollTask task : tasks) {
+            byKey.computeIfAbsent(new RequestKey(task), key -> new ArrayList<>()).add(task);
+        }
+
+        List<PollTask> plan = new ArrayList<>();
+        for (Map.Entry<RequestKey, List<PollTask>> entry : byKey.entrySet()) {
+            RequestKey key = entry.getKey();
+            List<PollTask> sorted = entry.getValue();
+            sorted.sort(Comparator.comparingInt((PollTask task) -> task.getRequest().getReference())
+                    .thenComparingInt(task -> task.getRequest().getDataLength()));
+            int maxLength = getMaxReadLength(key.functionCode);
+
+            List<PollTask> members = new ArrayList<>();
+            int start = 0;
+            int end = 0;
+            for (PollTask task : sorted) {
+                ModbusReadRequestBlueprint request = task.getRequest();
+                int taskStart = request.getReference();
+                int taskEnd = taskStart + request.getDataLength();
+                if (!members.isEmpty() && taskStart <= end + maxGap
+                        && Math.max(end, taskEnd) - start <= maxLength) {
+                    members.add(task);
+                    end = Math.max(end, taskEnd);
+                    continue;
+                }
+                addToPlan(plan, key, members, start, end);
+                members = new ArrayList<>();
+                members.add(task);
+                start = taskStart;
+                end = taskEnd;
+            }
+            addToPlan(plan, key, members, start, end);
+        }
+        return plan;
+    }
+
+    private static void addToPlan(List<PollTask> plan, RequestKey key, List<PollTask> members, int start, int end) {
+        if (members.isEmpty()) {
+            return;
+        } else if (members.size() == 1) {
+            plan.add(members.get(0));
+            return;
+        }
+        int maxTries = members.stream().mapToInt(task -> task.getRequest().getMaxTries()).max().getAsInt();
+        BasicModbusReadRequestBlueprint request = new BasicModbusReadRequestBlueprint(key.unitId, key.functionCode,
+                start, end - start, maxTries);
+        plan.add(new CoalescedPollTask(key.endpoint, request, members));
+    }
+}
@@ -0,0 +1,290 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.internal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.wimpi.modbus.ModbusIOException;
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.msg.ExceptionResponse;
+import net.wimpi.modbus.msg.ModbusRequest;
+import net.wimpi.modbus.msg.ModbusResponse;
+
+/**
+ * Modbus TCP connection with several transactions in flight at the same time.
+ *
+ * Requests are written as soon as there is room in the in-flight window, each with a distinct transaction ID. A
+ * reader thread matches responses to the waiting requests by the transaction ID, so responses may arrive in any
+ * order.
+ *
+ * The connection is established on first use, and re-established on the next request after an I/O error or a
+ * response timeout. Both fail all requests in flight.
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+@NonNullByDefault
+public class PipelinedTCPConnection {
+
+    /**
+     * Maximum length of the unit ID, function code and data following the MBAP header
+     */
+    private static final int MAX_PDU_LENGTH = 254;
+
+    private final Logger logger = LoggerFactory.getLogger(PipelinedTCPConnection.class);
+
+    /**
+     * A single established socket with its reader thread
+     */
+    private class Link {
+        private final Socket socket;
+        private final OutputStream output;
+        private final Map<Integer, CompletableFuture<ModbusResponse>> pending = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        Link(Socket socket) throws IOException {
+            this.socket = socket;
+            this.output = socket.getOutputStream();
+            Thread reader = new Thread(this::readResponses, "OH-modbus-pipeline-" + endpoint.getAddress());
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        synchronized void write(byte[] frame) throws IOException {
+            output.write(frame);
+            output.flush();
+        }
+
+        void close(Exception cause) {
+            closed = true;
+            try {
+                socket.close();
+            } catch (IOException e) {
+                logger.debug("Error closing connection to {}: {}", endpoint, e.getMessage());
+            }
+            pending.values().forEach(future -> future.completeExceptionally(cause));
+            pending.clear();
+        }
+
+        private void readResponses() {
+            try {
+                DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                while (!closed) {
+                    int transactionId = input.readUnsignedShort();
+                    input.readUnsignedShort(); // protocol ID
+                    int length = input.readUnsignedShort();
+                    if (length < 2 || length > MAX_PDU_LENGTH) {
+                        throw new IOException(String.format("Invalid length %d in response header", length));
+                    }
+                    byte[] pdu = new byte[length];
+                    input.readFully(pdu);
+
+                    CompletableFuture<ModbusResponse> future = pending.remove(transactionId);
+                    if (future == null) {
+                        logger.debug("Ignoring response with unexpected transaction ID {} from {}", transactionId,
+                                endpoint);
+                        continue;
+                    }
+                    future.complete(decode(transactionId, pdu));
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    logger.debug("Error reading responses from {}: {}", endpoint, e.getMessage());
+                    invalidate(this, e);
+                }
+            }
+        }
+    }
+
+    private final ModbusTCPSlaveEndpoint endpoint;
+    private final int connectTimeoutMillis;
+    private final int responseTimeoutMillis;
+    private final Semaphore window;
+    private final int windowSize;
+
+    @Nullable
+    private Link link;
+    private int lastTransactionId;
+
+    /**
+     * @param endpoint endpoint to connect to
+     * @param windowSize maximum number of transactions in flight
+     * @param connectTimeoutMillis timeout for establishing the connection, 0 for system default
+     * @param responseTimeoutMillis maximum time to wait for a response
+     */
+    public PipelinedTCPConnection(ModbusTCPSlaveEndpoint endpoint, int windowSize, int connectTimeoutMillis,
+            int responseTimeoutMillis) {
+        this.endpoint = endpoint;
+        this.windowSize = windowSize;
+        this.window = new Semaphore(windowSize, true);
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.responseTimeoutMillis = responseTimeoutMillis;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Get number of transactions currently in flight
+     *
+     * @return transactions in flight
+     */
+    public int getInFlight() {
+        return windowSize - window.availablePermits();
+    }
+
+    /**
+     * Execute a transaction, waiting for room in the window and for the response
+     *
+     * @param request request to send. Transaction ID of the request is overwritten.
+     * @return the response
+     * @throws ModbusIOException on I/O errors and response timeouts
+     * @throws ModbusSlaveException when slave responds with an exception response
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public ModbusResponse execute(ModbusRequest request)
+            throws ModbusIOException, ModbusSlaveException, InterruptedException {
+        window.acquire();
+        try {
+            Link link;
+            int transactionId;
+            CompletableFuture<ModbusResponse> future = new CompletableFuture<>();
+            synchronized (this) {
+                link = connect();
+                transactionId = nextTransactionId(link);
+                link.pending.put(transactionId, future);
+            }
+            request.setTransactionID(transactionId);
+            try {
+                link.write(encode(request));
+            } catch (IOException e) {
+                invalidate(link, e);
+                throw new ModbusIOException(String.format("Error writing request: %s", e.getMessage()));
+            }
+
+            ModbusResponse response;
+            try {
+                response = future.get(responseTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // Late response could be confused with later requests
+                invalidate(link, new IOException("Response timeout"));
+                throw new ModbusIOException(
+                        String.format("No response to transaction %d within %d ms", transactionId,
+                                responseTimeoutMillis));
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                throw new ModbusIOException(String.format("Connection failed while waiting for response: %s",
+                        cause == null ? null : cause.getMessage()));
+            }
+            if (response instanceof ExceptionResponse) {
+                throw new ModbusSlaveException(((ExceptionResponse) response).getExceptionCode());
+            }
+            return response;
+        } finally {
+            window.release();
+        }
+    }
+
+    /**
+     * Close the connection, failing all transactions in flight
+     */
+    public synchronized void close() {
+        Link link = this.link;
+        if (link != null) {
+            this.link = null;
+            link.close(new IOException("Connection closed"));
+        }
+    }
+
+    private Link connect() throws ModbusIOException {
+        Link link = this.link;
+        if (link != null && !link.closed) {
+            return link;
+        }
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(endpoint.getAddress(), endpoint.getPort()), connectTimeoutMillis);
+            link = new Link(socket);
+        } catch (IOException e) {
+            try {
+                socket.close();
+            } catch (IOException e2) {
+                logger.debug("Error closing socket to {}: {}", endpoint, e2.getMessage());
+            }
+            throw new ModbusIOException(String.format("Error connecting to %s: %s", endpoint, e.getMessage()));
+        }
+        logger.debug("Established pipelined connection to {} with window of {} transactions", endpoint, windowSize);
+        this.link = link;
+        return link;
+    }
+
+    private synchronized void invalidate(Link link, Exception cause) {
+        if (this.link == link) {
+            this.link = null;
+        }
+        link.close(cause);
+    }
+
+    /**
+     * Get next transaction ID (1-65535) not used by a transaction in flight
+     */
+    private int nextTransactionId(Link link) {
+        do {
+            lastTransactionId = lastTransactionId % 0xFFFF + 1;
+        } while (link.pending.containsKey(lastTransactionId));
+        return lastTransactionId;
+    }
+
+    private static byte[] encode(ModbusRequest request) throws ModbusIOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAX_PDU_LENGTH + 6);
+        try {
+            // writes the MBAP header, as the request is not headless
+            request.writeTo(new DataOutputStream(bytes));
+        } catch (IOException e) {
+            throw new ModbusIOException(String.format("Error encoding request: %s", e.getMessage()));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ModbusResponse decode(int transactionId, byte[] pdu) throws IOException {
+        ModbusResponse response = ModbusResponse.createModbusResponse(pdu[1] & 0xFF);
+        // header has been consumed already, only unit ID, function code and data remain
+        response.setHeadless();
+        response.readFrom(new DataInputStream(new ByteArrayInputStream(pdu)));
+        response.setTransactionID(transactionId);
+        return response;
+    }
+}
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.Random;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.ByteBufferModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusBitUtilities;
+import org.openhab.io.transport.modbus.ModbusConstants.ValueType;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+
+/**
+ * Tests decoding register data with the primitive methods of {@link ModbusBitUtilities}, and with register arrays
+ * backed by a buffer
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+public class BitUtilitiesExtractPrimitiveTest {
+
+    private static final int REGISTERS = 8;
+
+    /**
+     * Decode value with the primitive method matching the type
+     */
+    private static Optional<DecimalType> extractPrimitive(ByteBuffer buffer, int index, ValueType type) {
+        switch (type) {
+            case BIT:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractBit(buffer, index)));
+            case INT8:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractSInt8(buffer, index)));
+            case UINT8:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractUInt8(buffer, index)));
+            case INT16:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractSInt16(buffer, index)));
+            case UINT16:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractUInt16(buffer, index)));
+            case INT32:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractSInt32(buffer, index)));
+            case UINT32:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractUInt32(buffer, index)));
+            case INT32_SWAP:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractSInt32Swap(buffer, index)));
+            case UINT32_SWAP:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractUInt32Swap(buffer, index)));
+            case FLOAT32:
+                return floatState(ModbusBitUtilities.extractFloat32(buffer, index));
+            case FLOAT32_SWAP:
+                return floatState(ModbusBitUtilities.extractFloat32Swap(buffer, index));
+            case INT64:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractSInt64(buffer, index)));
+            case INT64_SWAP:
+                return Optional.of(new DecimalType(ModbusBitUtilities.extractSInt64Swap(buffer, index)));
+            case UINT64:
+                return Optional.of(new DecimalType(
+                        new BigDecimal(Long.toUnsignedString(ModbusBitUtilities.extractUInt64(buffer, index)))));
+            case UINT64_SWAP:
+                return Optional.of(new DecimalType(
+                        new BigDecimal(Long.toUnsignedString(ModbusBitUtilities.extractUInt64Swap(buffer, index)))));
+            default:
+                throw new IllegalArgumentException(type.toString());
+        }
+    }
+
+    private static Optional<DecimalType> floatState(float value) {
+        return Float.isNaN(value) || Float.isInfinite(value) ? Optional.empty() : Optional.of(new DecimalType(value));
+    }
+
+    /**
+     * Reference decoding, combining the registers of the value most significant first
+     */
+    private static BigInteger reference(int[] registers, int index, ValueType type) {
+        int count = type.getBits() / 16;
+        boolean swap = type.getConfigValue().endsWith("_swap");
+        BigInteger value = BigInteger.ZERO;
+        for (int i = 0; i < count; i++) {
+            int register = registers[index + (swap ? count - 1 - i : i)];
+            value = value.shiftLeft(16).or(BigInteger.valueOf(register));
+        }
+        if (type.getConfigValue().startsWith("int") && value.testBit(type.getBits() - 1)) {
+            value = value.subtract(BigInteger.ONE.shiftLeft(type.getBits()));
+        }
+        return value;
+    }
+
+    private static int itemsPerValue(ValueType type) {
+        return type.getBits() >= 16 ? REGISTERS - type.getBits() / 16 + 1 : REGISTERS * 16 / type.getBits();
+    }
+
+    @Test
+    public void testAllValueTypesMatchExtractState() {
+        Random random = new Random(1234);
+        for (int round = 0; round < 100; round++) {
+            int[] values = new int[REGISTERS];
+            for (int i = 0; i < REGISTERS; i++) {
+                values[i] = random.nextInt(0x10000);
+            }
+            ModbusRegisterArray basic = new BasicModbusRegisterArray(values);
+            ByteBuffer buffer = basic.toByteBuffer();
+            ModbusRegisterArray buffered = new ByteBufferModbusRegisterArray(buffer.duplicate());
+
+            for (ValueType type : ValueType.values()) {
+                for (int index = 0; index < itemsPerValue(type); index++) {
+                    String message = String.format("registers=%s, index=%d, type=%s", basic, index, type);
+                    Optional<DecimalType> expected = ModbusBitUtilities.extractStateFromRegisters(basic, index, type);
+                    assertThat(message, extractPrimitive(buffer, index, type), is(equalTo(expected)));
+                    assertThat(message, ModbusBitUtilities.extractStateFromRegisters(buffered, index, type),
+                            is(equalTo(expected)));
+                    if (type.getBits() >= 16 && !type.getConfigValue().startsWith("float")) {
+                        assertThat(message, expected.get().toBigDecimal().toBigIntegerExact(),
+                                is(equalTo(reference(values, index, type))));
+                    }
+                }
+            }
+            // absolute reads leave the buffer untouched
+            assertThat(buffer.position(), is(equalTo(0)));
+            assertThat(buffer.limit(), is(equalTo(2 * REGISTERS)));
+        }
+    }
+
+    @Test
+    public void testSliceSharesData() {
+        byte[] bytes = new byte[] { 0x00, 0x01, 0x00, 0x02, (byte) 0xff, (byte) 0xfe, 0x00, 0x04 };
+        ByteBufferModbusRegisterArray registers = new ByteBufferModbusRegisterArray(bytes);
+        ByteBufferModbusRegisterArray slice = registers.slice(1, 2);
+
+        assertThat(slice.size(), is(equalTo(2)));
+        assertThat(slice.getRegister(0).toUnsignedShort(), is(equalTo(2)));
+        assertThat(slice.getRegister(1).getValue(), is(equalTo(-2)));
+        assertThat(ModbusBitUtilities.extractSInt16(slice.toByteBuffer(), 1), is(equalTo((short) -2)));
+        assertThat(ModbusBitUtilities.extractUInt32(slice.toByteBuffer(), 0), is(equalTo(0x0002fffeL)));
+
+        bytes[3] = 0x07;
+        assertThat(slice.getRegister(0).toUnsignedShort(), is(equalTo(7)));
+        assertThat(slice.toHexString(), is(equalTo("00 07 ff fe")));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSliceOutOfBounds() {
+        new ByteBufferModbusRegisterArray(new byte[4]).slice(1, 2);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testPrimitiveOutOfBounds() {
+        ModbusBitUtilities.extractSInt32(new ByteBufferModbusRegisterArray(new byte[4]).toByteBuffer(), 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOddNumberOfBytes() {
+        new ByteBufferModbusRegisterArray(new byte[3]);
+    }
+}
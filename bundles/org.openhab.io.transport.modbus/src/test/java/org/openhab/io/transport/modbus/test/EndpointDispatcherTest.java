@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.EndpointDispatcher;
+
+/**
+ * Tests cases for {@link EndpointDispatcher}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+public class EndpointDispatcherTest {
+
+    /**
+     * Executor running the submitted tasks only when asked to
+     */
+    private static class ManualExecutor implements Executor {
+        private final Deque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+    }
+
+    private ManualExecutor executor;
+    private List<String> executed;
+    private List<String> dropped;
+
+    @Before
+    public void setUp() {
+        executor = new ManualExecutor();
+        executed = new ArrayList<>();
+        dropped = new ArrayList<>();
+    }
+
+    private EndpointDispatcher dispatcher(int capacity) {
+        return new EndpointDispatcher(new ModbusTCPSlaveEndpoint("127.0.0.1", 502), executor, capacity);
+    }
+
+    private void poll(EndpointDispatcher dispatcher, String name, Object key, long deadline) {
+        dispatcher.submitPoll(key, deadline, () -> executed.add(name), () -> dropped.add(name));
+    }
+
+    private void write(EndpointDispatcher dispatcher, String name) {
+        dispatcher.submitWrite(() -> executed.add(name), () -> dropped.add(name));
+    }
+
+    @Test
+    public void testWritesBeforePolls() {
+        EndpointDispatcher dispatcher = dispatcher(10);
+        poll(dispatcher, "poll1", null, EndpointDispatcher.NO_DEADLINE);
+        poll(dispatcher, "poll2", null, EndpointDispatcher.NO_DEADLINE);
+        write(dispatcher, "write1");
+        write(dispatcher, "write2");
+
+        executor.runAll();
+
+        assertThat(executed, is(equalTo(Arrays.asList("write1", "write2", "poll1", "poll2"))));
+        assertThat(dispatcher.size(), is(equalTo(0)));
+        assertThat(dispatcher.getMetrics().getQueueWait().getCount(), is(equalTo(4L)));
+    }
+
+    @Test
+    public void testStalePollIsDropped() {
+        EndpointDispatcher dispatcher = dispatcher(10);
+        poll(dispatcher, "stale", "task1", System.currentTimeMillis() - 1);
+        poll(dispatcher, "fresh", "task2", EndpointDispatcher.NO_DEADLINE);
+
+        executor.runAll();
+
+        assertThat(executed, is(equalTo(Arrays.asList("fresh"))));
+        assertThat(dropped, is(equalTo(Arrays.asList("stale"))));
+        assertThat(dispatcher.getMetrics().getDroppedPolls(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testPollOfSameTaskIsNotQueuedTwice() {
+        EndpointDispatcher dispatcher = dispatcher(10);
+        poll(dispatcher, "first", "task", EndpointDispatcher.NO_DEADLINE);
+        poll(dispatcher, "second", "task", EndpointDispatcher.NO_DEADLINE);
+
+        executor.runAll();
+
+        assertThat(executed, is(equalTo(Arrays.asList("first"))));
+        assertThat(dropped, is(equalTo(Arrays.asList("second"))));
+    }
+
+    @Test
+    public void testFullQueueEvictsOldestPoll() {
+        EndpointDispatcher dispatcher = dispatcher(2);
+        poll(dispatcher, "poll1", null, EndpointDispatcher.NO_DEADLINE);
+        poll(dispatcher, "poll2", null, EndpointDispatcher.NO_DEADLINE);
+        write(dispatcher, "write");
+
+        executor.runAll();
+
+        assertThat(executed, is(equalTo(Arrays.asList("write", "poll2"))));
+        assertThat(dropped, is(equalTo(Arrays.asList("poll1"))));
+        assertThat(dispatcher.getMetrics().getRejectedTasks(), is(equalTo(1L)));
+    }
+
+    @Test
+    public void testQueueFullOfWritesRejectsWrite() {
+        EndpointDispatcher dispatcher = dispatcher(2);
+        write(dispatcher, "write1");
+        write(dispatcher, "write2");
+        write(dispatcher, "write3");
+
+        executor.runAll();
+
+        assertThat(executed, is(equalTo(Arrays.asList("write1", "write2"))));
+        assertThat(dropped, is(equalTo(Arrays.asList("write3"))));
+    }
+
+    @Test
+    public void testOperationsAreHandedToExecutorOneAtATime() {
+        EndpointDispatcher dispatcher = dispatcher(10);
+        poll(dispatcher, "poll1", null, EndpointDispatcher.NO_DEADLINE);
+        poll(dispatcher, "poll2", null, EndpointDispatcher.NO_DEADLINE);
+
+        assertThat(executor.tasks.size(), is(equalTo(1)));
+        executor.tasks.poll().run();
+        assertThat(executed, is(equalTo(Arrays.asList("poll1"))));
+        // the next operation is submitted separately, letting other endpoints run in-between
+        assertThat(executor.tasks.size(), is(equalTo(1)));
+        executor.tasks.poll().run();
+        assertThat(executed, is(equalTo(Arrays.asList("poll1", "poll2"))));
+        assertThat(executor.tasks.size(), is(equalTo(0)));
+    }
+
+    @Test
+    public void testConcurrentOperationsWithPipelining() {
+        EndpointDispatcher dispatcher = dispatcher(10);
+        dispatcher.setMaxConcurrent(2);
+        poll(dispatcher, "poll1", null, EndpointDispatcher.NO_DEADLINE);
+        poll(dispatcher, "poll2", null, EndpointDispatcher.NO_DEADLINE);
+        poll(dispatcher, "poll3", null, EndpointDispatcher.NO_DEADLINE);
+
+        assertThat(executor.tasks.size(), is(equalTo(2)));
+        executor.runAll();
+        assertThat(executed, is(equalTo(Arrays.asList("poll1", "poll2", "poll3"))));
+
+        // lowering the limit takes effect as the running operations complete
+        dispatcher.setMaxConcurrent(1);
+        poll(dispatcher, "poll4", null, EndpointDispatcher.NO_DEADLINE);
+        poll(dispatcher, "poll5", null, EndpointDispatcher.NO_DEADLINE);
+        assertThat(executor.tasks.size(), is(equalTo(1)));
+
+        // raising the limit starts the queued operations right away
+        dispatcher.setMaxConcurrent(3);
+        assertThat(executor.tasks.size(), is(equalTo(3)));
+        executor.runAll();
+        assertThat(executed.size(), is(equalTo(5)));
+        assertThat(dispatcher.size(), is(equalTo(0)));
+    }
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.LatencyHistogram;
+
+/**
+ * Tests cases for {@link LatencyHistogram}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void testEmpty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.getCount(), is(equalTo(0L)));
+        assertThat(histogram.getMeanMillis(), is(equalTo(0.0)));
+        assertThat(histogram.getPercentileMillis(50), is(equalTo(0L)));
+    }
+
+    @Test
+    public void testRecord() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(3);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(150);
+        }
+
+        assertThat(histogram.getCount(), is(equalTo(100L)));
+        assertThat(histogram.getTotalMillis(), is(equalTo(90 * 3L + 10 * 150L)));
+        assertThat(histogram.getMaxMillis(), is(equalTo(150L)));
+        assertThat(histogram.getPercentileMillis(50), is(equalTo(5L)));
+        assertThat(histogram.getPercentileMillis(90), is(equalTo(5L)));
+        assertThat(histogram.getPercentileMillis(95), is(equalTo(150L)));
+
+        long[] counts = histogram.getBucketCounts();
+        assertThat(counts.length, is(equalTo(histogram.getBucketLimitsMillis().length + 1)));
+        assertThat(counts[2], is(equalTo(90L)));
+        assertThat(counts[7], is(equalTo(10L)));
+    }
+
+    @Test
+    public void testAboveLastBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(60_000);
+
+        long[] counts = histogram.getBucketCounts();
+        assertThat(counts[counts.length - 1], is(equalTo(1L)));
+        assertThat(histogram.getPercentileMillis(99), is(equalTo(60_000L)));
+    }
+}
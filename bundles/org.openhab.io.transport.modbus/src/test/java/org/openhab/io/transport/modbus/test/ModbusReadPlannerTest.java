@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicBitArray;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicModbusRegisterArray;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.PollTask;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.CoalescedPollTask;
+import org.openhab.io.transport.modbus.internal.ModbusReadPlanner;
+
+/**
+ * Tests cases for {@link ModbusReadPlanner}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+public class ModbusReadPlannerTest {
+
+    private static final ModbusSlaveEndpoint ENDPOINT = new ModbusTCPSlaveEndpoint("127.0.0.1", 502);
+
+    private static class RecordingCallback implements ModbusReadCallback {
+        List<Object> received = new ArrayList<>();
+
+        @Override
+        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+            received.add(registers);
+        }
+
+        @Override
+        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+            received.add(bits);
+        }
+
+        @Override
+        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+            received.add(error);
+        }
+    }
+
+    private static BasicPollTaskImpl task(ModbusSlaveEndpoint endpoint, int unitId,
+            ModbusReadFunctionCode functionCode, int start, int length) {
+        return new BasicPollTaskImpl(endpoint,
+                new BasicModbusReadRequestBlueprint(unitId, functionCode, start, length, 1), new RecordingCallback());
+    }
+
+    private static BasicPollTaskImpl holding(int start, int length) {
+        return task(ENDPOINT, 1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, start, length);
+    }
+
+    @Test
+    public void testAdjacentAndOverlappingRangesAreCombined() {
+        List<PollTask> plan = new ModbusReadPlanner(0)
+                .plan(Arrays.asList(holding(10, 5), holding(0, 10), holding(12, 8)));
+
+        assertThat(plan.size(), is(equalTo(1)));
+        assertThat(plan.get(0), is(instanceOf(CoalescedPollTask.class)));
+        assertThat(plan.get(0).getRequest().getReference(), is(equalTo(0)));
+        assertThat(plan.get(0).getRequest().getDataLength(), is(equalTo(20)));
+        assertThat(((CoalescedPollTask) plan.get(0)).getMembers().size(), is(equalTo(3)));
+    }
+
+    @Test
+    public void testGapLimitsCombining() {
+        List<PollTask> tasks = Arrays.asList(holding(0, 5), holding(8, 2));
+
+        assertThat(new ModbusReadPlanner(2).plan(tasks).size(), is(equalTo(2)));
+
+        List<PollTask> plan = new ModbusReadPlanner(3).plan(tasks);
+        assertThat(plan.size(), is(equalTo(1)));
+        assertThat(plan.get(0).getRequest().getDataLength(), is(equalTo(10)));
+    }
+
+    @Test
+    public void testMaxLengthIsRespected() {
+        List<PollTask> plan = new ModbusReadPlanner(0).plan(Arrays.asList(holding(0, 100), holding(100, 25),
+                holding(125, 1)));
+
+        assertThat(plan.size(), is(equalTo(2)));
+        assertThat(plan.get(0).getRequest().getDataLength(), is(equalTo(ModbusReadPlanner.MAX_REGISTERS_PER_READ)));
+        assertThat(plan.get(1).getRequest().getReference(), is(equalTo(125)));
+    }
+
+    @Test
+    public void testSingleTaskIsNotWrapped() {
+        BasicPollTaskImpl task = holding(0, 5);
+        List<PollTask> plan = new ModbusReadPlanner(0).plan(Arrays.asList(task, holding(100, 5)));
+
+        assertThat(plan.size(), is(equalTo(2)));
+        assertThat(plan.get(0), is(sameInstance(task)));
+    }
+
+    @Test
+    public void testIncompatibleTasksAreNotCombined() {
+        List<PollTask> plan = new ModbusReadPlanner(0).plan(Arrays.asList(holding(0, 5),
+                task(ENDPOINT, 2, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 5, 5),
+                task(ENDPOINT, 1, ModbusReadFunctionCode.READ_INPUT_REGISTERS, 5, 5),
+                task(new ModbusTCPSlaveEndpoint("127.0.0.2", 502), 1, ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS,
+                        5, 5)));
+
+        assertThat(plan.size(), is(equalTo(4)));
+    }
+
+    @Test
+    public void testRegistersAreSplitToMembers() {
+        BasicPollTaskImpl first = holding(0, 2);
+        BasicPollTaskImpl second = holding(3, 2);
+        CoalescedPollTask coalesced = (CoalescedPollTask) new ModbusReadPlanner(1)
+                .plan(Arrays.asList(first, second)).get(0);
+
+        coalesced.getCallback().onRegisters(coalesced.getRequest(), new BasicModbusRegisterArray(10, 11, 12, 13, 14));
+
+        ModbusRegisterArray firstRegisters = (ModbusRegisterArray) ((RecordingCallback) first.getCallback()).received
+                .get(0);
+        ModbusRegisterArray secondRegisters = (ModbusRegisterArray) ((RecordingCallback) second.getCallback()).received
+                .get(0);
+        assertThat(firstRegisters.size(), is(equalTo(2)));
+        assertThat(firstRegisters.getRegister(0).toUnsignedShort(), is(equalTo(10)));
+        assertThat(firstRegisters.getRegister(1).toUnsignedShort(), is(equalTo(11)));
+        assertThat(secondRegisters.size(), is(equalTo(2)));
+        assertThat(secondRegisters.getRegister(0).toUnsignedShort(), is(equalTo(13)));
+        assertThat(secondRegisters.getRegister(1).toUnsignedShort(), is(equalTo(14)));
+    }
+
+    @Test
+    public void testBitsAreSplitToMembers() {
+        BasicPollTaskImpl first = task(ENDPOINT, 1, ModbusReadFunctionCode.READ_COILS, 0, 2);
+        BasicPollTaskImpl second = task(ENDPOINT, 1, ModbusReadFunctionCode.READ_COILS, 1, 3);
+        CoalescedPollTask coalesced = (CoalescedPollTask) new ModbusReadPlanner(0)
+                .plan(Arrays.asList(first, second)).get(0);
+
+        coalesced.getCallback().onBits(coalesced.getRequest(), new BasicBitArray(true, false, true, true));
+
+        assertThat(((RecordingCallback) first.getCallback()).received.get(0),
+                is(equalTo(new BasicBitArray(true, false))));
+        assertThat(((RecordingCallback) second.getCallback()).received.get(0),
+                is(equalTo(new BasicBitArray(false, true, true))));
+    }
+}
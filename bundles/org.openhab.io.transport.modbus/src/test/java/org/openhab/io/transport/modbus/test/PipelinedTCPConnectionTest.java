@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openhab.io.transport.modbus.endpoint.ModbusTCPSlaveEndpoint;
+import org.openhab.io.transport.modbus.internal.PipelinedTCPConnection;
+
+import net.wimpi.modbus.ModbusSlaveException;
+import net.wimpi.modbus.msg.ReadMultipleRegistersRequest;
+import net.wimpi.modbus.msg.ReadMultipleRegistersResponse;
+
+/**
+ * Tests pipelined transactions against a stand-in slave answering concurrently, in varying order.
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+public class PipelinedTCPConnectionTest {
+
+    private static final int RESPONSE_DELAY_MILLIS = 20;
+    /**
+     * Registers starting from this address are not mapped, and read with exception response
+     */
+    private static final int UNMAPPED_REFERENCE = 1000;
+
+    /**
+     * Slave answering read holding registers requests with register values equal to their addresses. Each request is
+     * answered after a delay, varying by transaction ID so that consecutive responses arrive in reverse order.
+     */
+    private static class StandInSlave implements Runnable {
+        private final ServerSocket serverSocket;
+        private final ScheduledExecutorService responder = Executors.newScheduledThreadPool(8);
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        StandInSlave() throws IOException {
+            serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(this, "stand-in-slave");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        @Override
+        public void run() {
+            try (Socket socket = serverSocket.accept()) {
+                DataInputStream input = new DataInputStream(socket.getInputStream());
+                OutputStream output = socket.getOutputStream();
+                while (true) {
+                    int transactionId = input.readUnsignedShort();
+                    input.readUnsignedShort(); // protocol ID
+                    byte[] pdu = new byte[input.readUnsignedShort()];
+                    input.readFully(pdu);
+                    requests.incrementAndGet();
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+                    byte[] response = respond(transactionId, pdu);
+                    long delay = RESPONSE_DELAY_MILLIS + (4 - transactionId % 4);
+                    responder.schedule(() -> {
+                        inFlight.decrementAndGet();
+                        synchronized (output) {
+                            output.write(response);
+                            output.flush();
+                        }
+                        return null;
+                    }, delay, TimeUnit.MILLISECONDS);
+                }
+            } catch (IOException e) {
+                // connection closed
+            }
+        }
+
+        private static byte[] respond(int transactionId, byte[] pdu) throws IOException {
+            int unitId = pdu[0] & 0xFF;
+            int functionCode = pdu[1] & 0xFF;
+            int reference = ((pdu[2] & 0xFF) << 8) | (pdu[3] & 0xFF);
+            int count = ((pdu[4] & 0xFF) << 8) | (pdu[5] & 0xFF);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeShort(transactionId);
+            out.writeShort(0);
+            if (functionCode != 3 || reference + count > UNMAPPED_REFERENCE) {
+                // illegal data address
+                out.writeShort(3);
+                out.writeByte(unitId);
+                out.writeByte(functionCode | 0x80);
+                out.writeByte(2);
+            } else {
+                out.writeShort(3 + 2 * count);
+                out.writeByte(unitId);
+                out.writeByte(functionCode);
+                out.writeByte(2 * count);
+                for (int i = 0; i < count; i++) {
+                    out.writeShort(reference + i);
+                }
+            }
+            return bytes.toByteArray();
+        }
+
+        void close() throws IOException {
+            responder.shutdownNow();
+            serverSocket.close();
+        }
+    }
+
+    private StandInSlave slave;
+    private ExecutorService clients;
+
+    @Before
+    public void setUp() throws IOException {
+        slave = new StandInSlave();
+        clients = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        clients.shutdownNow();
+        slave.close();
+    }
+
+    private PipelinedTCPConnection connection(int window) {
+        return new PipelinedTCPConnection(new ModbusTCPSlaveEndpoint("127.0.0.1", slave.getPort()), window, 1000,
+                5000);
+    }
+
+    /**
+     * Reads registers concurrently, checking each response matches its request
+     *
+     * @return milliseconds taken
+     */
+    private long readAll(PipelinedTCPConnection connection, int requests) throws Exception {
+        long start = System.currentTimeMillis();
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            int reference = i * 5;
+            results.add(clients.submit(() -> {
+                ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) connection
+                        .execute(new ReadMultipleRegistersRequest(reference, 5));
+                return response.getWordCount() == 5 && response.getRegisterValue(0) == reference
+                        && response.getRegisterValue(4) == reference + 4;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertThat(result.get(10, TimeUnit.SECONDS), is(true));
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    @Test
+    public void testPipelinedThroughput() throws Exception {
+        int requests = 40;
+        PipelinedTCPConnection sequential = connection(1);
+        long sequentialMillis = readAll(sequential, requests);
+        sequential.close();
+        assertThat(slave.maxInFlight.get(), is(equalTo(1)));
+
+        // Stand-in slave accepts one connection only
+        slave.close();
+        slave = new StandInSlave();
+
+        PipelinedTCPConnection pipelined = connection(8);
+        long pipelinedMillis = readAll(pipelined, requests);
+        pipelined.close();
+
+        assertThat(slave.requests.get(), is(equalTo(requests)));
+        assertThat(slave.maxInFlight.get() > 1, is(true));
+        assertThat(String.format("pipelined took %d ms, sequential %d ms", pipelinedMillis, sequentialMillis),
+                pipelinedMillis * 2 < sequentialMillis, is(true));
+    }
+
+    @Test
+    public void testExceptionResponse() throws Exception {
+        PipelinedTCPConnection connection = connection(4);
+        try {
+            connection.execute(new ReadMultipleRegistersRequest(UNMAPPED_REFERENCE, 2));
+            fail("Expected exception response");
+        } catch (ModbusSlaveException e) {
+            assertThat(e.getType(), is(equalTo(2)));
+        }
+        // connection is still usable after an exception response
+        ReadMultipleRegistersResponse response = (ReadMultipleRegistersResponse) connection
+                .execute(new ReadMultipleRegistersRequest(7, 1));
+        assertThat(response.getRegisterValue(0), is(equalTo(7)));
+        assertThat(connection.getInFlight(), is(equalTo(0)));
+        connection.close();
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.io.transport.modbus.test;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.openhab.io.transport.modbus.BasicModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.BasicPollTaskImpl;
+import org.openhab.io.transport.modbus.BitArray;
+import org.openhab.io.transport.modbus.ModbusReadCallback;
+import org.openhab.io.transport.modbus.ModbusReadFunctionCode;
+import org.openhab.io.transport.modbus.ModbusReadRequestBlueprint;
+import org.openhab.io.transport.modbus.ModbusRegisterArray;
+import org.openhab.io.transport.modbus.ModbusSlaveErrorResponseException;
+import org.openhab.io.transport.modbus.endpoint.ModbusSlaveEndpoint;
+
+import net.wimpi.modbus.procimg.SimpleRegister;
+
+/**
+ * Tests combining regular polls against a simulated slave, comparing the number of round trips and the poll cycle
+ * latency with and without read coalescing.
+ *
+ * @author openHAB Contributors - Initial contribution
+ *
+ */
+public class ReadCoalescingTest extends IntegrationTestSupport {
+
+    private static final int TASKS = 4;
+    private static final int REGISTERS_PER_TASK = 10;
+    /**
+     * Long enough period so that only the first poll cycle is observed
+     */
+    private static final long POLL_PERIOD_MILLIS = 10_000;
+    /**
+     * Delay of the first poll, so that all tasks are registered before the first poll cycle
+     */
+    private static final long INITIAL_DELAY_MILLIS = 100;
+
+    private void generateData(int registers) {
+        for (int i = 0; i < registers; i++) {
+            spi.addRegister(new SimpleRegister(i));
+        }
+    }
+
+    private void useCoalescingManager(int maxGap) {
+        modbusManager.close();
+        Map<String, Object> config = new HashMap<>();
+        config.put("readCoalescing", true);
+        config.put("readCoalescingMaxGap", maxGap);
+        modbusManager = new NonOSGIModbusManager(config);
+    }
+
+    /**
+     * Registers adjacent polls and waits for the first poll cycle to complete
+     *
+     * @return milliseconds from registration until all callbacks were called
+     */
+    private long pollCycle(List<BasicPollTaskImpl> registered) throws InterruptedException {
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+        CountDownLatch callbackCalled = new CountDownLatch(TASKS);
+        AtomicInteger unexpectedCount = new AtomicInteger();
+
+        for (int i = 0; i < TASKS; i++) {
+            int start = i * REGISTERS_PER_TASK;
+            registered.add(new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                    ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, start, REGISTERS_PER_TASK, 1),
+                    new ModbusReadCallback() {
+
+                        @Override
+                        public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                            if (registers.size() != REGISTERS_PER_TASK
+                                    || registers.getRegister(0).toUnsignedShort() != start) {
+                                unexpectedCount.incrementAndGet();
+                            }
+                            callbackCalled.countDown();
+                        }
+
+                        @Override
+                        public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                            unexpectedCount.incrementAndGet();
+                            callbackCalled.countDown();
+                        }
+
+                        @Override
+                        public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                            unexpectedCount.incrementAndGet();
+                            callbackCalled.countDown();
+                        }
+                    }));
+        }
+
+        long start = System.currentTimeMillis();
+        for (BasicPollTaskImpl task : registered) {
+            modbusManager.registerRegularPoll(task, POLL_PERIOD_MILLIS, INITIAL_DELAY_MILLIS);
+        }
+        assertTrue(callbackCalled.await(5, TimeUnit.SECONDS));
+        long latency = System.currentTimeMillis() - start;
+        assertThat(unexpectedCount.get(), is(equalTo(0)));
+        return latency;
+    }
+
+    @Test
+    public void testRoundTripsAndLatency() throws InterruptedException {
+        generateData(TASKS * REGISTERS_PER_TASK);
+
+        List<BasicPollTaskImpl> tasks = new ArrayList<>();
+        long separateLatency = pollCycle(tasks);
+        // one round trip per task
+        waitForRequests(TASKS);
+        tasks.forEach(modbusManager::unregisterRegularPoll);
+
+        useCoalescingManager(0);
+        tasks.clear();
+        long coalescedLatency = pollCycle(tasks);
+        // single round trip for all the tasks
+        waitForRequests(TASKS + 1);
+        tasks.forEach(modbusManager::unregisterRegularPoll);
+
+        // Separate requests pay the inter-transaction delay between each other
+        assertThat(String.format("coalesced cycle took %d ms, separate cycle %d ms", coalescedLatency,
+                separateLatency), coalescedLatency < separateLatency, is(true));
+    }
+
+    /**
+     * Slave rejects the combined request covering unmapped registers, tasks are then polled individually
+     */
+    @Test
+    public void testFallbackOnSlaveErrorResponse() throws InterruptedException {
+        generateData(10);
+        useCoalescingManager(100);
+        ModbusSlaveEndpoint endpoint = getEndpoint();
+
+        CountDownLatch callbackCalled = new CountDownLatch(2);
+        AtomicReference<ModbusRegisterArray> firstRegisters = new AtomicReference<>();
+        AtomicReference<Exception> secondError = new AtomicReference<>();
+        AtomicInteger unexpectedCount = new AtomicInteger();
+
+        BasicPollTaskImpl first = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 0, 5, 1), new ModbusReadCallback() {
+
+                    @Override
+                    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                        firstRegisters.set(registers);
+                        callbackCalled.countDown();
+                    }
+
+                    @Override
+                    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                        unexpectedCount.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                        unexpectedCount.incrementAndGet();
+                    }
+                });
+        BasicPollTaskImpl second = new BasicPollTaskImpl(endpoint, new BasicModbusReadRequestBlueprint(SLAVE_UNIT_ID,
+                ModbusReadFunctionCode.READ_MULTIPLE_REGISTERS, 50, 5, 1), new ModbusReadCallback() {
+
+                    @Override
+                    public void onRegisters(ModbusReadRequestBlueprint request, ModbusRegisterArray registers) {
+                        unexpectedCount.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onError(ModbusReadRequestBlueprint request, Exception error) {
+                        secondError.set(error);
+                        callbackCalled.countDown();
+                    }
+
+                    @Override
+                    public void onBits(ModbusReadRequestBlueprint request, BitArray bits) {
+                        unexpectedCount.incrementAndGet();
+                    }
+                });
+
+        modbusManager.registerRegularPoll(first, POLL_PERIOD_MILLIS, INITIAL_DELAY_MILLIS);
+        modbusManager.registerRegularPoll(second, POLL_PERIOD_MILLIS, INITIAL_DELAY_MILLIS);
+        assertTrue(callbackCalled.await(5, TimeUnit.SECONDS));
+        // combined request, and the two individual ones
+        waitForRequests(3);
+
+        assertThat(unexpectedCount.get(), is(equalTo(0)));
+        assertThat(firstRegisters.get().size(), is(equalTo(5)));
+        assertThat(secondError.get(), is(instanceOf(ModbusSlaveErrorResponseException.class)));
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coalesces database commits. Writes are only marked as pending, the commit itself runs once the commit window has
+ * elapsed or as soon as the number of pending writes reaches the configured threshold.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbCommitScheduler {
+
+    private final Logger logger = LoggerFactory.getLogger(MapDbCommitScheduler.class);
+
+    private final ScheduledExecutorService scheduler;
+    private final Runnable commit;
+    private final long windowMillis;
+    private final int threshold;
+
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+    private final AtomicLong commitCount = new AtomicLong();
+    private final long startTime = System.nanoTime();
+
+    private @Nullable ScheduledFuture<?> scheduledCommit;
+
+    /**
+     * @param scheduler the executor to run commits on
+     * @param commit the actual commit operation
+     * @param windowMillis the maximum time writes are held back before committing, 0 commits immediately
+     * @param threshold the number of pending writes that triggers an immediate commit
+     */
+    public MapDbCommitScheduler(ScheduledExecutorService scheduler, Runnable commit, long windowMillis,
+            int threshold) {
+        this.scheduler = scheduler;
+        this.commit = commit;
+        this.windowMillis = Math.max(windowMillis, 0);
+        this.threshold = Math.max(threshold, 1);
+    }
+
+    /**
+     * Marks a write as pending and makes sure a commit will follow.
+     */
+    public void markDirty() {
+        int pending = pendingWrites.incrementAndGet();
+        synchronized (this) {
+            ScheduledFuture<?> future = scheduledCommit;
+            if (pending >= threshold || windowMillis == 0) {
+                // commit right away unless an immediate commit is already on its way
+                if (future == null || future.getDelay(TimeUnit.MILLISECONDS) > 0) {
+                    if (future != null) {
+                        future.cancel(false);
+                    }
+                    scheduledCommit = scheduler.schedule(this::commitNow, 0, TimeUnit.MILLISECONDS);
+                }
+            } else if (future == null) {
+                scheduledCommit = scheduler.schedule(this::commitNow, windowMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Commits all pending writes in the calling thread.
+     */
+    public void flush() {
+        synchronized (this) {
+            ScheduledFuture<?> future = scheduledCommit;
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+        commitNow();
+    }
+
+    private void commitNow() {
+        synchronized (this) {
+            scheduledCommit = null;
+        }
+        int pending = pendingWrites.getAndSet(0);
+        if (pending == 0) {
+            return;
+        }
+        try {
+            commit.run();
+            commitCount.incrementAndGet();
+            logger.trace("Committed {} pending writes", pending);
+        } catch (RuntimeException e) {
+            logger.warn("Committing {} pending writes failed: {}", pending, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the number of writes that have not been committed yet
+     */
+    public int getPendingWrites() {
+        return pendingWrites.get();
+    }
+
+    /**
+     * @return the number of commits since this scheduler has been created
+     */
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * @return the average number of commits per second since this scheduler has been created
+     */
+    public double getCommitsPerSecond() {
+        long elapsed = System.nanoTime() - startTime;
+        return elapsed <= 0 ? 0 : commitCount.get() * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+    }
+}
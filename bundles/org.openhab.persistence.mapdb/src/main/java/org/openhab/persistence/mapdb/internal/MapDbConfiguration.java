@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+/**
+ * Configuration of the MapDB persistence service.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class MapDbConfiguration {
+
+    /** Maximum time in milliseconds stored values are held back before they are committed, 0 commits immediately */
+    public long commitWindowMillis = 1000;
+
+    /** Number of pending writes which triggers a commit before the commit window has elapsed */
+    public int commitThreshold = 500;
+
+    /** Keep every stored state instead of only the latest one per item */
+    public boolean historyEnabled = false;
+
+    /** Number of days history entries are kept, 0 keeps them forever */
+    public int historyRetentionDays = 0;
+
+    /** Age in days after which history entries are downsampled, 0 disables downsampling */
+    public int historyDownsampleAfterDays = 0;
+
+    /** Length of a downsampling interval in minutes */
+    public int historyDownsampleMinutes = 15;
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+import org.mapdb.BTreeKeySerializer;
+import org.mapdb.BTreeMap;
+import org.mapdb.DB;
+import org.mapdb.Fun;
+import org.mapdb.Fun.Tuple2;
+import org.mapdb.Serializer;
+
+/**
+ * Keeps the full history of item states in a MapDB BTree keyed by (item name, timestamp), so that time ranges of a
+ * single item can be read with one range scan.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbHistoryStore {
+
+    private static final String HISTORY_MAP_NAME = "itemHistory";
+
+    private final BTreeMap<Tuple2<String, Long>, byte[]> history;
+
+    private final StateCodec codec;
+
+    public MapDbHistoryStore(DB db, StateCodec codec) {
+        this.history = db.createTreeMap(HISTORY_MAP_NAME).keySerializer(BTreeKeySerializer.TUPLE2)
+                .valueSerializer(Serializer.BYTE_ARRAY).makeOrGet();
+        this.codec = codec;
+    }
+
+    public void store(String name, Date timestamp, State state) {
+        history.put(Fun.t2(name, timestamp.getTime()), codec.encode(state));
+    }
+
+    /**
+     * @return true if at least one state of the given item is stored
+     */
+    public boolean contains(String name) {
+        return !itemRange(name, Long.MIN_VALUE, Long.MAX_VALUE).isEmpty();
+    }
+
+    /**
+     * Returns all stored states matching the given filter, honouring the date range, state filter, ordering and paging
+     * of the filter.
+     */
+    public List<HistoricItem> query(FilterCriteria filter) {
+        List<HistoricItem> result = new ArrayList<>();
+        int skip = filter.getPageNumber() * filter.getPageSize();
+        int limit = filter.getPageSize();
+
+        for (Entry<Tuple2<String, Long>, byte[]> entry : range(filter).entrySet()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (!inDateRange(entry.getKey(), filter)) {
+                continue;
+            }
+            State state = codec.decode(entry.getValue());
+            if (state == null || !matches(state, filter)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            MapDbItem item = new MapDbItem();
+            item.setName(entry.getKey().a);
+            item.setState(state);
+            item.setTimestamp(new Date(entry.getKey().b));
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * Removes all stored states matching the given filter. Paging is ignored.
+     *
+     * @return true if at least one entry has been removed
+     */
+    public boolean remove(FilterCriteria filter) {
+        List<Tuple2<String, Long>> toRemove = new ArrayList<>();
+        for (Entry<Tuple2<String, Long>, byte[]> entry : range(filter).entrySet()) {
+            if (!inDateRange(entry.getKey(), filter)) {
+                continue;
+            }
+            State state = codec.decode(entry.getValue());
+            if (state == null || matches(state, filter)) {
+                toRemove.add(entry.getKey());
+            }
+        }
+        toRemove.forEach(history::remove);
+        return !toRemove.isEmpty();
+    }
+
+    /**
+     * Bounds the size of the history: entries older than the retention period are deleted and entries older than the
+     * downsampling age are reduced to the latest value per downsampling interval.
+     *
+     * @param now the current time in milliseconds
+     * @param retentionDays the number of days to keep, 0 to keep everything
+     * @param downsampleAfterDays the age in days after which entries are downsampled, 0 to disable downsampling
+     * @param downsampleMinutes the length of a downsampling interval in minutes
+     * @return the number of removed entries
+     */
+    public int applyRetention(long now, int retentionDays, int downsampleAfterDays, int downsampleMinutes) {
+        long retentionLimit = retentionDays > 0 ? now - TimeUnit.DAYS.toMillis(retentionDays) : Long.MIN_VALUE;
+        long downsampleLimit = downsampleAfterDays > 0 && downsampleMinutes > 0
+                ? now - TimeUnit.DAYS.toMillis(downsampleAfterDays)
+                : Long.MIN_VALUE;
+        long interval = TimeUnit.MINUTES.toMillis(Math.max(downsampleMinutes, 1));
+
+        List<Tuple2<String, Long>> toRemove = new ArrayList<>();
+        Tuple2<String, Long> first = history.isEmpty() ? null : history.firstKey();
+        while (first != null) {
+            String name = first.a;
+            Tuple2<String, Long> previous = null;
+            for (Tuple2<String, Long> key : itemRange(name, Long.MIN_VALUE, Math.max(retentionLimit, downsampleLimit))
+                    .keySet()) {
+                if (key.b < retentionLimit) {
+                    toRemove.add(key);
+                    continue;
+                }
+                if (key.b < downsampleLimit && previous != null && previous.b / interval == key.b / interval) {
+                    // keep only the latest value of each interval
+                    toRemove.add(previous);
+                }
+                previous = key;
+            }
+            // jump to the first entry of the next item
+            first = history.higherKey(Fun.t2(name, Long.MAX_VALUE));
+        }
+        toRemove.forEach(history::remove);
+        return toRemove.size();
+    }
+
+    /**
+     * Returns the entries of the filtered item within the date range or, without an item name, the entries of all
+     * items. The latter still have to be checked with {@link #inDateRange(Tuple2, FilterCriteria)}.
+     */
+    private NavigableMap<Tuple2<String, Long>, byte[]> range(FilterCriteria filter) {
+        long begin = filter.getBeginDate() != null ? filter.getBeginDate().getTime() : Long.MIN_VALUE;
+        long end = filter.getEndDate() != null ? filter.getEndDate().getTime() : Long.MAX_VALUE;
+        NavigableMap<Tuple2<String, Long>, byte[]> range;
+        String name = filter.getItemName();
+        if (name == null) {
+            range = history;
+        } else {
+            range = itemRange(name, begin, end);
+        }
+        return filter.getOrdering() == Ordering.DESCENDING ? range.descendingMap() : range;
+    }
+
+    private NavigableMap<Tuple2<String, Long>, byte[]> itemRange(String name, long begin, long end) {
+        return history.subMap(Fun.t2(name, begin), true, Fun.t2(name, end), true);
+    }
+
+    private static boolean inDateRange(Tuple2<String, Long> key, FilterCriteria filter) {
+        Date begin = filter.getBeginDate();
+        Date end = filter.getEndDate();
+        return (begin == null || key.b >= begin.getTime()) && (end == null || key.b <= end.getTime());
+    }
+
+    private static boolean matches(State state, FilterCriteria filter) {
+        State expected = filter.getState();
+        if (expected == null) {
+            return true;
+        }
+        switch (filter.getOperator()) {
+            case EQ:
+                return state.equals(expected);
+            case NEQ:
+                return !state.equals(expected);
+            default:
+                Integer comparison = compare(state, expected);
+                if (comparison == null) {
+                    return false;
+                }
+                switch (filter.getOperator()) {
+                    case GT:
+                        return comparison > 0;
+                    case GTE:
+                        return comparison >= 0;
+                    case LT:
+                        return comparison < 0;
+                    case LTE:
+                        return comparison <= 0;
+                    default:
+                        return false;
+                }
+        }
+    }
+
+    private static @Nullable Integer compare(State state, State expected) {
+        if (state instanceof DecimalType && expected instanceof DecimalType) {
+            return ((DecimalType) state).toBigDecimal().compareTo(((DecimalType) expected).toBigDecimal());
+        }
+        return null;
+    }
+}
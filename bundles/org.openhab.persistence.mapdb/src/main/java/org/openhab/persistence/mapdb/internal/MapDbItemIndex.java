@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Keeps the deserialized latest value of every stored item in memory, so single item queries do not have to decode the
+ * stored value again.
+ *
+ * The index is filled in bulk by reading the whole store once and deserializing the values in parallel on the common
+ * fork-join pool, afterwards it is kept up to date by the persistence service.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class MapDbItemIndex {
+
+    private final Map<String, MapDbItem> items = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the content of this index with the deserialized values of the given store.
+     *
+     * @param store the map of item names to serialized items
+     * @param deserializer converts the name and the serialized value of an item, must be thread-safe
+     * @return the number of loaded items
+     */
+    public <V> int load(Map<String, V> store, BiFunction<String, V, Optional<MapDbItem>> deserializer) {
+        // a single sequential scan over the store, the expensive part is done in parallel
+        List<Entry<String, V>> entries = new ArrayList<>(store.entrySet());
+        items.clear();
+        entries.parallelStream().forEach(entry -> deserializer.apply(entry.getKey(), entry.getValue())
+                .ifPresent(item -> items.put(entry.getKey(), item)));
+        return items.size();
+    }
+
+    public @Nullable MapDbItem get(String name) {
+        return items.get(name);
+    }
+
+    public void put(String name, MapDbItem item) {
+        items.put(name, item);
+    }
+
+    public @Nullable MapDbItem remove(String name) {
+        return items.remove(name);
+    }
+
+    public Collection<MapDbItem> values() {
+        return Collections.unmodifiableCollection(items.values());
+    }
+
+    public int size() {
+        return items.size();
+    }
+}
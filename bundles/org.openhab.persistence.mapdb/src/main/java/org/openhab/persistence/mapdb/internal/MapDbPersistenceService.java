@@ -15,21 +15,28 @@ package org.openhab.persistence.mapdb.internal;
 import java.io.File;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.config.core.ConfigConstants;
+import org.eclipse.smarthome.config.core.ConfigurableService;
+import org.eclipse.smarthome.config.core.Configuration;
 import org.eclipse.smarthome.core.common.ThreadPoolManager;
 import org.eclipse.smarthome.core.items.Item;
 import org.eclipse.smarthome.core.persistence.FilterCriteria;
 import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.persistence.ModifiablePersistenceService;
 import org.eclipse.smarthome.core.persistence.PersistenceItemInfo;
 import org.eclipse.smarthome.core.persistence.PersistenceService;
 import org.eclipse.smarthome.core.persistence.QueryablePersistenceService;
@@ -37,6 +44,7 @@ import org.eclipse.smarthome.core.types.State;
 import org.eclipse.smarthome.core.types.UnDefType;
 import org.mapdb.DB;
 import org.mapdb.DBMaker;
+import org.osgi.framework.Constants;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,11 +61,18 @@ import com.google.gson.GsonBuilder;
  * @author Martin Kühl - Port to Eclipse SmartHome
  */
 @NonNullByDefault
-@Component(service = { PersistenceService.class, QueryablePersistenceService.class })
-public class MapDbPersistenceService implements QueryablePersistenceService {
+@Component(service = { PersistenceService.class, QueryablePersistenceService.class,
+        ModifiablePersistenceService.class }, configurationPid = "org.openhab.mapdb", property = {
+                Constants.SERVICE_PID + "=org.openhab.mapdb",
+                ConfigurableService.SERVICE_PROPERTY_DESCRIPTION_URI + "=persistence:mapdb",
+                ConfigurableService.SERVICE_PROPERTY_LABEL + "=MapDB Persistence Service",
+                ConfigurableService.SERVICE_PROPERTY_CATEGORY + "=persistence" })
+public class MapDbPersistenceService implements ModifiablePersistenceService {
 
     private static final String SERVICE_NAME = "mapdb";
 
+    private static final long RETENTION_INTERVAL_HOURS = 1;
+
     private static final String DB_FOLDER_NAME = ConfigConstants.getUserDataFolder() + File.separator + "persistence" + File.separator + "mapdb";
 
     private static final String DB_FILE_NAME = "storage.mapdb";
@@ -65,22 +80,40 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
     private final Logger logger = LoggerFactory.getLogger(MapDbPersistenceService.class);
 
     @NonNullByDefault({})
-    private ExecutorService threadPool;
+    private ScheduledExecutorService scheduler;
+
+    @NonNullByDefault({})
+    private MapDbCommitScheduler commitScheduler;
 
     /** holds the local instance of the MapDB database */
     @NonNullByDefault({})
     private DB db;
+    /** item names to their latest value, binary encoded or as JSON if stored by a former version */
     @NonNullByDefault({})
-    private Map<String, String> map;
+    private Map<String, Object> map;
+
+    /** the deserialized latest values of all items in {@link #map} */
+    private final MapDbItemIndex index = new MapDbItemIndex();
+
+    /** only set if the history mode is enabled */
+    private @Nullable MapDbHistoryStore historyStore;
+    private @Nullable ScheduledFuture<?> retentionJob;
 
+    private MapDbConfiguration config = new MapDbConfiguration();
+
+    private final StateCodec codec = new StateCodec();
+
+    /** only used to read the values stored by former versions */
     private transient Gson mapper = new GsonBuilder()
             .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
             .create();
 
-    public void activate() {
+    public void activate(Map<String, Object> properties) {
         logger.debug("MapDB persistence service is being activated");
 
-        threadPool = ThreadPoolManager.getPool(getClass().getSimpleName());
+        config = new Configuration(properties).as(MapDbConfiguration.class);
+
+        scheduler = ThreadPoolManager.getScheduledPool(getClass().getSimpleName());
 
         File folder = new File(DB_FOLDER_NAME);
         if (!folder.exists()) {
@@ -94,15 +127,39 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         File dbFile = new File(DB_FOLDER_NAME, DB_FILE_NAME);
         db = DBMaker.newFileDB(dbFile).closeOnJvmShutdown().make();
         map = db.createTreeMap("itemStore").makeOrGet();
+        long start = System.nanoTime();
+        int loaded = index.load(map, this::deserialize);
+        logger.debug("Loaded {} items in {} ms", loaded, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        migrateJsonValues();
+        commitScheduler = new MapDbCommitScheduler(scheduler, db::commit, config.commitWindowMillis,
+                config.commitThreshold);
+        if (config.historyEnabled) {
+            MapDbHistoryStore history = new MapDbHistoryStore(db, codec);
+            historyStore = history;
+            if (config.historyRetentionDays > 0 || config.historyDownsampleAfterDays > 0) {
+                retentionJob = scheduler.scheduleWithFixedDelay(() -> applyRetention(history), 0,
+                        RETENTION_INTERVAL_HOURS, TimeUnit.HOURS);
+            }
+        }
         logger.debug("MapDB persistence service is now activated");
     }
 
     public void deactivate() {
         logger.debug("MapDB persistence service deactivated");
+        ScheduledFuture<?> job = retentionJob;
+        if (job != null) {
+            job.cancel(false);
+            retentionJob = null;
+        }
+        historyStore = null;
+        if (commitScheduler != null) {
+            commitScheduler.flush();
+            logger.debug("MapDB persistence service committed {} times, {} commits per second on average",
+                    commitScheduler.getCommitCount(), commitScheduler.getCommitsPerSecond());
+        }
         if (db != null) {
             db.close();
         }
-        threadPool.shutdown();
     }
 
     @Override
@@ -117,10 +174,7 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
 
     @Override
     public Set<PersistenceItemInfo> getItemInfo() {
-        return map.values().stream()
-                .map(this::deserialize)
-                .flatMap(MapDbPersistenceService::streamOptional)
-                .collect(Collectors.<PersistenceItemInfo>toSet());
+        return new HashSet<>(index.values());
     }
 
     @Override
@@ -141,35 +195,90 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         logger.debug("store called for {}", alias);
 
         State state = item.getState();
+        Date timestamp = new Date();
         MapDbItem mItem = new MapDbItem();
         mItem.setName(alias);
         mItem.setState(state);
-        mItem.setTimestamp(new Date());
-        String json = serialize(mItem);
-        map.put(alias, json);
+        mItem.setTimestamp(timestamp);
+        map.put(alias, serialize(mItem));
+        index.put(alias, mItem);
+        MapDbHistoryStore history = historyStore;
+        if (history != null) {
+            history.store(alias, timestamp, state);
+        }
         commit();
         logger.debug("Stored '{}' with state '{}' in MapDB database", alias, state.toString());
     }
 
+    @Override
+    public void store(Item item, Date date, State state) {
+        if (state instanceof UnDefType) {
+            return;
+        }
+        String name = item.getName();
+        MapDbHistoryStore history = historyStore;
+        if (history != null) {
+            history.store(name, date, state);
+        }
+        // without history only the latest value is kept, older values would overwrite it
+        MapDbItem latest = index.get(name);
+        if (latest == null || !latest.getTimestamp().after(date)) {
+            MapDbItem mItem = new MapDbItem();
+            mItem.setName(name);
+            mItem.setState(state);
+            mItem.setTimestamp(date);
+            map.put(name, serialize(mItem));
+            index.put(name, mItem);
+        } else if (history == null) {
+            logger.debug("Ignoring store of '{}' for {}: a newer value is stored already", name, date);
+            return;
+        }
+        commit();
+        logger.debug("Stored '{}' with state '{}' for {} in MapDB database", name, state, date);
+    }
+
+    @Override
+    public boolean remove(FilterCriteria filter) throws IllegalArgumentException {
+        MapDbHistoryStore history = historyStore;
+        if (history == null) {
+            String name = filter.getItemName();
+            if (name == null) {
+                throw new IllegalArgumentException("Item name must not be null");
+            }
+            index.remove(name);
+            boolean removed = map.remove(name) != null;
+            commit();
+            return removed;
+        }
+        boolean removed = history.remove(filter);
+        commit();
+        return removed;
+    }
+
     @Override
     public Iterable<HistoricItem> query(FilterCriteria filter) {
-        String json = map.get(filter.getItemName());
-        if (json == null) {
-            return Collections.emptyList();
+        MapDbHistoryStore history = historyStore;
+        String name = filter.getItemName();
+        if (history != null && (name == null || history.contains(name))) {
+            return history.query(filter);
         }
-        Optional<MapDbItem> item = deserialize(json);
-        if (!item.isPresent()) {
+        // the item has been stored before the history mode was enabled, only its latest value is known
+        MapDbItem item = name == null ? null : index.get(name);
+        if (item == null) {
             return Collections.emptyList();
         }
-        return Collections.singletonList(item.get());
+        return Collections.singletonList(item);
     }
 
-    private String serialize(MapDbItem item) {
-        return mapper.toJson(item);
+    private byte[] serialize(MapDbItem item) {
+        return codec.encode(item.getTimestamp(), item.getState());
     }
 
-    private Optional<MapDbItem> deserialize(String json) {
-        MapDbItem item = mapper.<MapDbItem>fromJson(json, MapDbItem.class);
+    private Optional<MapDbItem> deserialize(String name, Object value) {
+        if (value instanceof byte[]) {
+            return Optional.ofNullable(codec.decodeItem(name, (byte[]) value));
+        }
+        MapDbItem item = mapper.<MapDbItem>fromJson(value.toString(), MapDbItem.class);
         if (item == null || !item.isValid()) {
             logger.warn("Deserialized invalid item: {}", item);
             return Optional.empty();
@@ -177,14 +286,55 @@ public class MapDbPersistenceService implements QueryablePersistenceService {
         return Optional.of(item);
     }
 
+    /**
+     * Rewrites the values stored as JSON by former versions in the binary encoding. Values which cannot be parsed
+     * are left untouched.
+     */
+    private void migrateJsonValues() {
+        List<String> names = map.entrySet().stream().filter(entry -> entry.getValue() instanceof String)
+                .map(Entry::getKey).collect(Collectors.toList());
+        int migrated = 0;
+        for (String name : names) {
+            MapDbItem item = index.get(name);
+            if (item != null) {
+                map.put(name, serialize(item));
+                migrated++;
+            }
+        }
+        if (migrated > 0) {
+            db.commit();
+            logger.info("Converted {} stored items to the binary encoding", migrated);
+        }
+    }
+
     private void commit() {
-        threadPool.submit(() -> db.commit());
+        commitScheduler.markDirty();
     }
 
-    private static <T> Stream<T> streamOptional(Optional<T> opt) {
-        if (!opt.isPresent()) {
-            return Stream.empty();
+    /**
+     * @return the number of stored values which have not been committed to disk yet
+     */
+    public int getPendingWrites() {
+        return commitScheduler.getPendingWrites();
+    }
+
+    /**
+     * @return the average number of database commits per second since activation
+     */
+    public double getCommitsPerSecond() {
+        return commitScheduler.getCommitsPerSecond();
+    }
+
+    private void applyRetention(MapDbHistoryStore history) {
+        try {
+            int removed = history.applyRetention(System.currentTimeMillis(), config.historyRetentionDays,
+                    config.historyDownsampleAfterDays, config.historyDownsampleMinutes);
+            if (removed > 0) {
+                logger.debug("Removed {} history entries due to retention policy", removed);
+                commit();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Applying the history retention policy failed: {}", e.getMessage());
         }
-        return Stream.of(opt.get());
     }
 }
@@ -0,0 +1,241 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.PointType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.library.types.UpDownType;
+import org.eclipse.smarthome.core.types.State;
+import org.eclipse.smarthome.core.types.TypeParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Encodes {@link State} values into a compact byte representation for the item store and the history store.
+ *
+ * The first byte is a tag identifying the state type and encoding. The most common types (decimal, on/off, percent,
+ * HSB, date time and quantity) are written in a dedicated binary form. Other well-known types are mapped to a fixed
+ * tag followed by their full string representation, all remaining types are written with their class name and full
+ * string representation.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class StateCodec {
+
+    private static final byte TAG_CLASS_NAME = 0;
+
+    private static final byte TAG_BINARY_DECIMAL = 0x40;
+    private static final byte TAG_BINARY_ON_OFF = 0x41;
+    private static final byte TAG_BINARY_PERCENT = 0x42;
+    private static final byte TAG_BINARY_HSB = 0x43;
+    private static final byte TAG_BINARY_DATE_TIME = 0x44;
+    private static final byte TAG_BINARY_QUANTITY = 0x45;
+
+    /** The position of a type in this list is its tag - only ever append to this list! */
+    private static final List<Class<? extends State>> KNOWN_TYPES = Collections.unmodifiableList(Arrays.asList( //
+            DecimalType.class, OnOffType.class, PercentType.class, HSBType.class, DateTimeType.class,
+            QuantityType.class, StringType.class, OpenClosedType.class, UpDownType.class, PointType.class));
+
+    private final Logger logger = LoggerFactory.getLogger(StateCodec.class);
+
+    public byte[] encode(State state) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (!writeBinary(out, state)) {
+                int index = KNOWN_TYPES.indexOf(state.getClass());
+                if (index < 0) {
+                    out.writeByte(TAG_CLASS_NAME);
+                    out.writeUTF(state.getClass().getName());
+                } else {
+                    out.writeByte(index + 1);
+                }
+                out.writeUTF(state.toFullString());
+            }
+        } catch (IOException e) {
+            // cannot happen for an in-memory stream
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encodes a state together with the time it has been stored, as kept for the latest value of an item.
+     */
+    public byte[] encode(Date timestamp, State state) {
+        byte[] encodedState = encode(state);
+        return ByteBuffer.allocate(Long.BYTES + encodedState.length).putLong(timestamp.getTime()).put(encodedState)
+                .array();
+    }
+
+    public @Nullable State decode(byte[] data) {
+        return decode(data, 0);
+    }
+
+    /**
+     * Decodes a value written by {@link #encode(Date, State)}.
+     *
+     * @param name the name of the item
+     * @return the item or null if the data cannot be decoded
+     */
+    public @Nullable MapDbItem decodeItem(String name, byte[] data) {
+        if (data.length <= Long.BYTES) {
+            logger.warn("Couldn't decode stored item '{}': only {} bytes", name, data.length);
+            return null;
+        }
+        State state = decode(data, Long.BYTES);
+        if (state == null) {
+            return null;
+        }
+        MapDbItem item = new MapDbItem();
+        item.setName(name);
+        item.setState(state);
+        item.setTimestamp(new Date(ByteBuffer.wrap(data).getLong()));
+        return item;
+    }
+
+    private @Nullable State decode(byte[] data, int offset) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(data, offset, data.length - offset))) {
+            int tag = in.readUnsignedByte();
+            if (tag >= TAG_BINARY_DECIMAL) {
+                return readBinary(in, tag);
+            }
+            Class<? extends State> valueType = readType(in, tag);
+            return TypeParser.parseState(Collections.singletonList(valueType), in.readUTF());
+        } catch (IOException | ClassNotFoundException | RuntimeException e) {
+            logger.warn("Couldn't decode stored state: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    private boolean writeBinary(DataOutputStream out, State state) throws IOException {
+        // exact class checks, subclasses like PercentType must not be written as their super class
+        Class<?> type = state.getClass();
+        if (type == DecimalType.class) {
+            out.writeByte(TAG_BINARY_DECIMAL);
+            writeDecimal(out, ((DecimalType) state).toBigDecimal());
+        } else if (type == OnOffType.class) {
+            out.writeByte(TAG_BINARY_ON_OFF);
+            out.writeBoolean(state == OnOffType.ON);
+        } else if (type == PercentType.class) {
+            out.writeByte(TAG_BINARY_PERCENT);
+            writeDecimal(out, ((PercentType) state).toBigDecimal());
+        } else if (type == HSBType.class) {
+            HSBType hsb = (HSBType) state;
+            out.writeByte(TAG_BINARY_HSB);
+            writeDecimal(out, hsb.getHue().toBigDecimal());
+            writeDecimal(out, hsb.getSaturation().toBigDecimal());
+            writeDecimal(out, hsb.getBrightness().toBigDecimal());
+        } else if (type == DateTimeType.class) {
+            ZonedDateTime dateTime = ((DateTimeType) state).getZonedDateTime();
+            out.writeByte(TAG_BINARY_DATE_TIME);
+            out.writeLong(dateTime.toInstant().getEpochSecond());
+            out.writeInt(dateTime.getNano());
+            out.writeUTF(dateTime.getZone().getId());
+        } else if (type == QuantityType.class) {
+            QuantityType<?> quantity = (QuantityType<?>) state;
+            // the unit is stored by its textual id, which is what the string constructor parses
+            String fullString = quantity.toFullString();
+            int separator = fullString.indexOf(' ');
+            String unit = separator < 0 ? "" : fullString.substring(separator + 1);
+            out.writeByte(TAG_BINARY_QUANTITY);
+            writeDecimal(out, quantity.toBigDecimal());
+            out.writeUTF(unit);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private State readBinary(DataInputStream in, int tag) throws IOException {
+        switch (tag) {
+            case TAG_BINARY_DECIMAL:
+                return new DecimalType(readDecimal(in));
+            case TAG_BINARY_ON_OFF:
+                return in.readBoolean() ? OnOffType.ON : OnOffType.OFF;
+            case TAG_BINARY_PERCENT:
+                return new PercentType(readDecimal(in));
+            case TAG_BINARY_HSB:
+                return new HSBType(new DecimalType(readDecimal(in)), new PercentType(readDecimal(in)),
+                        new PercentType(readDecimal(in)));
+            case TAG_BINARY_DATE_TIME:
+                Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                return new DateTimeType(ZonedDateTime.ofInstant(instant, ZoneId.of(in.readUTF())));
+            case TAG_BINARY_QUANTITY:
+                String value = readDecimal(in).toPlainString();
+                String unit = in.readUTF();
+                return unit.isEmpty() ? new QuantityType<>(value) : new QuantityType<>(value + " " + unit);
+            default:
+                throw new IOException("Unknown state tag " + tag);
+        }
+    }
+
+    private Class<? extends State> readType(DataInputStream in, int tag) throws IOException, ClassNotFoundException {
+        if (tag == TAG_CLASS_NAME) {
+            return Class.forName(in.readUTF()).asSubclass(State.class);
+        }
+        return KNOWN_TYPES.get(tag - 1);
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 64 && value.scale() > Byte.MIN_VALUE && value.scale() <= Byte.MAX_VALUE) {
+            // fits into a long, which covers nearly all sensor values
+            out.writeByte(value.scale());
+            out.writeLong(unscaled.longValue());
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.writeByte(Byte.MIN_VALUE);
+            out.writeInt(value.scale());
+            out.writeShort(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        byte scale = in.readByte();
+        if (scale != Byte.MIN_VALUE) {
+            return BigDecimal.valueOf(in.readLong(), scale);
+        }
+        int bigScale = in.readInt();
+        byte[] bytes = new byte[in.readUnsignedShort()];
+        in.readFully(bytes);
+        return new BigDecimal(new BigInteger(bytes), bigScale);
+    }
+}
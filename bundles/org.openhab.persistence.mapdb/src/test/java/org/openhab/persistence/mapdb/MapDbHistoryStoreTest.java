@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.persistence.FilterCriteria;
+import org.eclipse.smarthome.core.persistence.FilterCriteria.Ordering;
+import org.eclipse.smarthome.core.persistence.HistoricItem;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapdb.DBMaker;
+import org.openhab.persistence.mapdb.internal.MapDbHistoryStore;
+import org.openhab.persistence.mapdb.internal.StateCodec;
+
+/**
+ * Tests cases for {@link MapDbHistoryStore}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class MapDbHistoryStoreTest {
+    private MapDbHistoryStore store;
+
+    @Before
+    public void setUp() {
+        store = new MapDbHistoryStore(DBMaker.newMemoryDB().make(), new StateCodec());
+        for (int i = 0; i < 10; i++) {
+            store.store("a", new Date(i * 1000L), new DecimalType(i));
+            store.store("b", new Date(i * 1000L), new DecimalType(100 + i));
+        }
+    }
+
+    @Test
+    public void queryShouldHonourDateRangeAndOrdering() {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("a");
+        filter.setBeginDate(new Date(2000));
+        filter.setEndDate(new Date(4000));
+        filter.setOrdering(Ordering.ASCENDING);
+
+        assertThat(states(store.query(filter)), is(equalTo(decimals(2, 3, 4))));
+
+        filter.setOrdering(Ordering.DESCENDING);
+        assertThat(states(store.query(filter)), is(equalTo(decimals(4, 3, 2))));
+    }
+
+    @Test
+    public void queryShouldHonourPaging() {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("b");
+        filter.setOrdering(Ordering.ASCENDING);
+        filter.setPageSize(3);
+        filter.setPageNumber(1);
+
+        assertThat(states(store.query(filter)), is(equalTo(decimals(103, 104, 105))));
+    }
+
+    @Test
+    public void removeShouldOnlyRemoveTheGivenRange() {
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("a");
+        filter.setEndDate(new Date(4999));
+
+        assertThat(store.remove(filter), is(true));
+
+        FilterCriteria all = new FilterCriteria();
+        all.setItemName("a");
+        all.setOrdering(Ordering.ASCENDING);
+        assertThat(states(store.query(all)), is(equalTo(decimals(5, 6, 7, 8, 9))));
+        all.setItemName("b");
+        assertThat(store.query(all).size(), is(10));
+    }
+
+    @Test
+    public void removeWithoutItemNameShouldHonourDateRange() {
+        store.store("c", new Date(20000), new DecimalType(200));
+        FilterCriteria filter = new FilterCriteria();
+        filter.setBeginDate(new Date(3000));
+        filter.setEndDate(new Date(5000));
+
+        assertThat(store.remove(filter), is(true));
+
+        FilterCriteria all = new FilterCriteria();
+        all.setItemName("a");
+        all.setOrdering(Ordering.ASCENDING);
+        assertThat(states(store.query(all)), is(equalTo(decimals(0, 1, 2, 6, 7, 8, 9))));
+        all.setItemName("b");
+        assertThat(states(store.query(all)), is(equalTo(decimals(100, 101, 102, 106, 107, 108, 109))));
+        all.setItemName("c");
+        assertThat(states(store.query(all)), is(equalTo(decimals(200))));
+    }
+
+    @Test
+    public void containsShouldOnlyReportItemsWithHistory() {
+        assertThat(store.contains("a"), is(true));
+        assertThat(store.contains("c"), is(false));
+
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("a");
+        store.remove(filter);
+        assertThat(store.contains("a"), is(false));
+        assertThat(store.contains("b"), is(true));
+    }
+
+    @Test
+    public void retentionShouldRemoveOldAndDownsampleAgedEntries() {
+        long now = TimeUnit.DAYS.toMillis(3);
+        store.store("a", new Date(TimeUnit.DAYS.toMillis(2)), new DecimalType(20));
+        store.store("a", new Date(TimeUnit.DAYS.toMillis(2) + 1000), new DecimalType(21));
+        store.store("a", new Date(now), new DecimalType(30));
+
+        // retention of 2 days removes the initial entries, the two entries of day 2 fall into one interval
+        store.applyRetention(now, 2, 0, 15);
+        store.applyRetention(now + 2000, 0, 1, 15);
+
+        FilterCriteria filter = new FilterCriteria();
+        filter.setItemName("a");
+        filter.setOrdering(Ordering.ASCENDING);
+        assertThat(states(store.query(filter)), is(equalTo(decimals(21, 30))));
+    }
+
+    private static List<State> states(List<HistoricItem> items) {
+        return items.stream().map(HistoricItem::getState).collect(Collectors.toList());
+    }
+
+    private static List<State> decimals(int... values) {
+        return Arrays.stream(values).mapToObj(DecimalType::new).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Test;
+import org.mapdb.DBMaker;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.MapDbItemIndex;
+import org.openhab.persistence.mapdb.internal.StateTypeAdapter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * Tests cases for {@link MapDbItemIndex}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class MapDbItemIndexTest {
+    private static final int ITEM_COUNT = 50_000;
+
+    Gson mapper = new GsonBuilder()
+        .registerTypeHierarchyAdapter(State.class, new StateTypeAdapter())
+        .create();
+
+    @Test
+    public void loadShouldDeserializeAllStoredItems() {
+        Map<String, String> store = DBMaker.newMemoryDB().make().createTreeMap("itemStore").makeOrGet();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            MapDbItem item = new MapDbItem();
+            item.setName("item" + i);
+            item.setState(new DecimalType(i));
+            item.setTimestamp(new Date());
+            store.put(item.getName(), mapper.toJson(item));
+        }
+        store.put("invalid", "{}");
+
+        MapDbItemIndex index = new MapDbItemIndex();
+        int loaded = index.load(store, (name, json) -> {
+            MapDbItem item = mapper.fromJson(json, MapDbItem.class);
+            return item.getName().isEmpty() ? Optional.empty() : Optional.of(item);
+        });
+
+        assertThat(loaded, is(ITEM_COUNT));
+        assertThat(index.get("item4711").getState(), is(equalTo(new DecimalType(4711))));
+        assertThat(index.get("invalid"), is(nullValue()));
+    }
+}
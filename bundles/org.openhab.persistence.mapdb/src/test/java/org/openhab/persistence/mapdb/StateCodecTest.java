@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.persistence.mapdb;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.Date;
+
+import org.eclipse.smarthome.core.library.types.DateTimeType;
+import org.eclipse.smarthome.core.library.types.DecimalType;
+import org.eclipse.smarthome.core.library.types.HSBType;
+import org.eclipse.smarthome.core.library.types.OnOffType;
+import org.eclipse.smarthome.core.library.types.OpenClosedType;
+import org.eclipse.smarthome.core.library.types.PercentType;
+import org.eclipse.smarthome.core.library.types.QuantityType;
+import org.eclipse.smarthome.core.library.types.StringType;
+import org.eclipse.smarthome.core.types.State;
+import org.junit.Test;
+import org.openhab.persistence.mapdb.internal.MapDbItem;
+import org.openhab.persistence.mapdb.internal.StateCodec;
+
+/**
+ * Tests cases for {@link StateCodec}.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class StateCodecTest {
+    StateCodec codec = new StateCodec();
+
+    @Test
+    public void binaryRoundtripShouldRecreateTheWrittenState() {
+        assertThat(roundtrip(new DecimalType("-12.345")), is(equalTo(new DecimalType("-12.345"))));
+        assertThat(roundtrip(new DecimalType(new BigDecimal("123456789012345678901234567890.5"))),
+                is(equalTo(new DecimalType(new BigDecimal("123456789012345678901234567890.5")))));
+        assertThat(roundtrip(OnOffType.ON), is(equalTo(OnOffType.ON)));
+        assertThat(roundtrip(OnOffType.OFF), is(equalTo(OnOffType.OFF)));
+        assertThat(roundtrip(PercentType.HUNDRED), is(equalTo(PercentType.HUNDRED)));
+        assertThat(roundtrip(HSBType.GREEN), is(equalTo(HSBType.GREEN)));
+        assertThat(roundtrip(new QuantityType<>("21.5 °C")), is(equalTo(new QuantityType<>("21.5 °C"))));
+        assertThat(roundtrip(new QuantityType<>("42")), is(equalTo(new QuantityType<>("42"))));
+
+        DateTimeType dateTime = new DateTimeType("2019-03-14T15:09:26.535+0100");
+        assertThat(((DateTimeType) roundtrip(dateTime)).getZonedDateTime(), is(equalTo(dateTime.getZonedDateTime())));
+    }
+
+    @Test
+    public void stringRoundtripShouldRecreateTheWrittenState() {
+        assertThat(roundtrip(StringType.valueOf("test")), is(equalTo(StringType.valueOf("test"))));
+        assertThat(roundtrip(OpenClosedType.CLOSED), is(equalTo(OpenClosedType.CLOSED)));
+    }
+
+    @Test
+    public void binaryEncodingShouldBeCompact() {
+        assertThat(codec.encode(OnOffType.ON).length, is(2));
+        assertThat(codec.encode(new DecimalType("21.5")).length, is(10));
+    }
+
+    @Test
+    public void itemRoundtripShouldRecreateStateAndTimestamp() {
+        Date timestamp = new Date(1552572566535L);
+        MapDbItem item = codec.decodeItem("item", codec.encode(timestamp, new DecimalType("21.5")));
+
+        assertThat(item.getName(), is("item"));
+        assertThat(item.getState(), is(equalTo(new DecimalType("21.5"))));
+        assertThat(item.getTimestamp(), is(timestamp));
+        assertThat(codec.decodeItem("item", new byte[4]), is(nullValue()));
+    }
+
+    private State roundtrip(State state) {
+        return codec.decode(codec.encode(state));
+    }
+}
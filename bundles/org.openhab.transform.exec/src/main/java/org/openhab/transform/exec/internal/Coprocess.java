@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-lived external program which reads one input per line from stdin and answers each with one line on stdout.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class Coprocess {
+
+    private final Logger logger = LoggerFactory.getLogger(Coprocess.class);
+
+    private final String commandLine;
+    private final Process process;
+    private final Writer writer;
+
+    /** lines read from stdout, an empty optional marks the end of the stream */
+    private final BlockingQueue<Optional<String>> responses = new LinkedBlockingQueue<>();
+
+    public Coprocess(String commandLine, String[] command) throws IOException {
+        this.commandLine = commandLine;
+        this.process = new ProcessBuilder(command).start();
+        this.writer = new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8);
+
+        startReader("stdout", process.getInputStream(), line -> responses.add(Optional.of(line)),
+                () -> responses.add(Optional.empty()));
+        startReader("stderr", process.getErrorStream(),
+                line -> logger.debug("coprocess '{}' reported: {}", commandLine, line), () -> {
+                });
+    }
+
+    /**
+     * Sends an input to the program and waits for its answer.
+     *
+     * @param input the input, line breaks are replaced by spaces
+     * @param timeout the maximum time to wait for the answer in milliseconds
+     * @return the answer
+     * @throws IOException if the program cannot be written to or has terminated
+     * @throws TimeoutException if the program did not answer in time
+     */
+    public String request(String input, long timeout) throws IOException, TimeoutException, InterruptedException {
+        // drop answers to earlier requests, which might have arrived after their timeout
+        responses.removeIf(Optional::isPresent);
+
+        writer.write(input.replace('\r', ' ').replace('\n', ' '));
+        writer.write('\n');
+        writer.flush();
+
+        Optional<String> response = responses.poll(timeout, TimeUnit.MILLISECONDS);
+        if (response == null) {
+            throw new TimeoutException("coprocess '" + commandLine + "' did not answer within " + timeout + " ms");
+        }
+        if (!response.isPresent()) {
+            // keep the end marker for subsequent requests
+            responses.add(response);
+            throw new IOException("coprocess '" + commandLine + "' has terminated");
+        }
+        return response.get();
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public void destroy() {
+        process.destroy();
+    }
+
+    private void startReader(String name, InputStream stream, Consumer<String> consumer, Runnable onEnd) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    consumer.accept(line);
+                }
+            } catch (IOException e) {
+                logger.debug("reading {} of coprocess '{}' failed: {}", name, commandLine, e.getMessage());
+            } finally {
+                onEnd.run();
+            }
+        }, "OH-transform-exec-" + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A small pool of {@link Coprocess}es running the same command line.
+ * <p>
+ * At most {@code size} requests are processed concurrently, further callers wait for a free process up to the
+ * request timeout. Processes which time out or terminate are discarded and replaced on the next request.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class CoprocessPool {
+
+    private static final String CMD_LINE_DELIMITER = "@@";
+
+    private final Logger logger = LoggerFactory.getLogger(CoprocessPool.class);
+
+    private final String commandLine;
+    private final String[] command;
+    private final long timeout;
+
+    private final Semaphore permits;
+    private final BlockingQueue<Coprocess> idle = new LinkedBlockingQueue<>();
+    private volatile boolean closed;
+
+    /**
+     * @param commandLine the command line of the program, arguments are separated like for {@code ExecUtil}
+     * @param size the maximum number of processes
+     * @param timeout the maximum time to wait for a free process and for its answer in milliseconds
+     */
+    public CoprocessPool(String commandLine, int size, long timeout) {
+        this.commandLine = commandLine;
+        this.command = commandLine.contains(CMD_LINE_DELIMITER) ? commandLine.split(CMD_LINE_DELIMITER)
+                : commandLine.split(" ");
+        this.permits = new Semaphore(size, true);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sends the input to a free process of the pool and returns its answer.
+     *
+     * @throws TransformationException if no process became available or the process did not answer in time
+     */
+    public String request(String input) throws TransformationException {
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new TransformationException(
+                        "no coprocess of '" + commandLine + "' became available within " + timeout + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransformationException("interrupted while waiting for coprocess '" + commandLine + "'", e);
+        }
+
+        Coprocess coprocess = null;
+        try {
+            coprocess = borrow();
+            String result = coprocess.request(input, timeout);
+            release(coprocess);
+            return result;
+        } catch (IOException | TimeoutException e) {
+            discard(coprocess);
+            throw new TransformationException(e.getMessage(), e);
+        } catch (InterruptedException e) {
+            discard(coprocess);
+            Thread.currentThread().interrupt();
+            throw new TransformationException("interrupted while waiting for coprocess '" + commandLine + "'", e);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Terminates all idle processes. Processes in use are terminated when they are returned.
+     */
+    public void close() {
+        closed = true;
+        Coprocess coprocess;
+        while ((coprocess = idle.poll()) != null) {
+            coprocess.destroy();
+        }
+    }
+
+    private Coprocess borrow() throws IOException {
+        Coprocess coprocess;
+        while ((coprocess = idle.poll()) != null) {
+            if (coprocess.isAlive()) {
+                return coprocess;
+            }
+            logger.debug("coprocess '{}' has terminated, restarting it", commandLine);
+        }
+        logger.debug("starting coprocess '{}'", commandLine);
+        return new Coprocess(commandLine, command);
+    }
+
+    private void release(Coprocess coprocess) {
+        if (closed) {
+            coprocess.destroy();
+        } else {
+            idle.add(coprocess);
+        }
+    }
+
+    private void discard(@Nullable Coprocess coprocess) {
+        if (coprocess != null) {
+            coprocess.destroy();
+        }
+    }
+}
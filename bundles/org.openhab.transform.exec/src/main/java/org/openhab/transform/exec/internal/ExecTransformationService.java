@@ -12,12 +12,16 @@
  */
 package org.openhab.transform.exec.internal;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
 import org.eclipse.smarthome.io.net.exec.ExecUtil;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -31,13 +35,28 @@ import org.slf4j.LoggerFactory;
 @Component(immediate = true, property = { "smarthome.transform=EXEC" })
 public class ExecTransformationService implements TransformationService {
 
+    /** command lines with this prefix are run as long-lived coprocesses which are fed the input on stdin */
+    private static final String COPROCESS_PREFIX = "coprocess:";
+    private static final int COPROCESS_POOL_SIZE = 2;
+    private static final long TIMEOUT = 5000;
+
     private final Logger logger = LoggerFactory.getLogger(ExecTransformationService.class);
 
+    private final Map<String, CoprocessPool> coprocessPools = new ConcurrentHashMap<>();
+
+    @Deactivate
+    protected void deactivate() {
+        coprocessPools.values().forEach(CoprocessPool::close);
+        coprocessPools.clear();
+    }
+
     /**
      * Transforms the input <code>source</code> by the command line.
      *
      * @param commandLine the command to execute. Command line should contain %s string,
-     *                        which will be replaced by the input data.
+     *                        which will be replaced by the input data. If it starts with
+     *                        <code>coprocess:</code>, the rest is started as a long-lived program
+     *                        which reads the input from stdin and answers with one line on stdout.
      * @param source      the input to transform
      */
     @Override
@@ -50,8 +69,15 @@ public class ExecTransformationService implements TransformationService {
 
         long startTime = System.currentTimeMillis();
 
-        String formattedCommandLine = String.format(commandLine, source);
-        String result = ExecUtil.executeCommandLineAndWaitResponse(formattedCommandLine, 5000);
+        String result;
+        if (commandLine.startsWith(COPROCESS_PREFIX)) {
+            String coprocessCommandLine = commandLine.substring(COPROCESS_PREFIX.length()).trim();
+            result = coprocessPools.computeIfAbsent(coprocessCommandLine,
+                    key -> new CoprocessPool(key, COPROCESS_POOL_SIZE, TIMEOUT)).request(source);
+        } else {
+            String formattedCommandLine = String.format(commandLine, source);
+            result = ExecUtil.executeCommandLineAndWaitResponse(formattedCommandLine, (int) TIMEOUT);
+        }
         logger.trace("command line execution elapsed {} ms", System.currentTimeMillis() - startTime);
 
         return result;
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.exec.internal;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+
+import org.eclipse.smarthome.core.transform.TransformationException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the {@link CoprocessPool} with small shell scripts, which answer every line with their process id and the
+ * line.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class CoprocessPoolTest {
+
+    private static final String ECHO = "sh@@-c@@while read line; do echo \"$$ $line\"; done";
+    private static final String SLOW_ECHO = "sh@@-c@@while read line; do if [ \"$line\" = slow ]; then sleep 5; fi; "
+            + "echo \"$$ $line\"; done";
+    private static final String ECHO_ONCE = "sh@@-c@@read line; echo \"$$ $line\"";
+
+    private CoprocessPool pool;
+
+    @Before
+    public void setUp() {
+        assumeTrue(new File("/bin/sh").canExecute());
+    }
+
+    @After
+    public void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void requestShouldReuseTheProcess() throws TransformationException {
+        pool = new CoprocessPool(ECHO, 1, 5000);
+
+        String first = pool.request("a");
+        String second = pool.request("multi\nline");
+
+        assertThat(first, endsWith(" a"));
+        assertThat(second, endsWith(" multi line"));
+        assertThat(pid(second), is(pid(first)));
+    }
+
+    @Test
+    public void requestShouldReplaceTimedOutProcess() throws TransformationException {
+        pool = new CoprocessPool(SLOW_ECHO, 1, 500);
+        String first = pool.request("a");
+
+        try {
+            pool.request("slow");
+            fail("The request should have timed out");
+        } catch (TransformationException e) {
+            assertThat(e.getMessage(), containsString("did not answer"));
+        }
+
+        String second = pool.request("b");
+        assertThat(second, endsWith(" b"));
+        assertThat(pid(second), is(not(pid(first))));
+    }
+
+    @Test
+    public void requestShouldRestartTerminatedProcess() throws TransformationException {
+        pool = new CoprocessPool(ECHO_ONCE, 1, 5000);
+        String first = pool.request("a");
+
+        String second;
+        try {
+            second = pool.request("b");
+        } catch (TransformationException e) {
+            // the process terminated while the request was sent, the next request starts a new one
+            second = pool.request("b");
+        }
+        assertThat(second, endsWith(" b"));
+        assertThat(pid(second), is(not(pid(first))));
+    }
+
+    @Test(expected = TransformationException.class)
+    public void requestShouldFailForUnknownProgram() throws TransformationException {
+        pool = new CoprocessPool("/nonexistent/program", 1, 500);
+        pool.request("a");
+    }
+
+    private static String pid(String response) {
+        return response.substring(0, response.indexOf(' '));
+    }
+}
@@ -62,4 +62,32 @@ public class JinjaTransformationServiceTest {
         Assert.assertEquals("Hello world!", transformedResponse);
     }
 
+    @Test
+    public void testCachedTemplateWithDifferentValues() throws TransformationException {
+
+        String template = "{{value_json.state}}";
+        // method under test
+        String first = processor.transform(template, "{\"state\":\"ON\"}");
+        String second = processor.transform(template, "{\"state\":\"OFF\"}");
+
+        // Asserts
+        Assert.assertEquals("ON", first);
+        Assert.assertEquals("OFF", second);
+    }
+
+    @Test
+    public void testNestedArraysAndIteration() throws TransformationException {
+
+        String json = "{\"dev\":{\"ids\":[\"a\",\"b\"],\"count\":2}}";
+        // method under test
+        String index = processor.transform("{{value_json.dev.ids[1]}}", json);
+        String loop = processor.transform("{% for id in value_json.dev.ids %}{{id}};{% endfor %}", json);
+        String length = processor.transform("{{value_json.dev.ids|length}}", json);
+
+        // Asserts
+        Assert.assertEquals("b", index);
+        Assert.assertEquals("a;b;", loop);
+        Assert.assertEquals("2", length);
+    }
+
 }
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.jsonpath.internal;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+import com.jayway.jsonpath.Configuration;
+import com.jayway.jsonpath.InvalidJsonException;
+import com.jayway.jsonpath.InvalidPathException;
+import com.jayway.jsonpath.JsonPath;
+
+/**
+ * Caches compiled {@link JsonPath} expressions and recently parsed JSON documents.
+ * <p>
+ * Compiled expressions are kept in a bounded LRU cache. Parsed documents are only kept for a short time, which is
+ * enough for all channels fed by the same message to share a single parse of the payload.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class JSonPathCache {
+
+    private static class ParsedDocument {
+        final String source;
+        final Object document;
+        final long expiresAt;
+
+        ParsedDocument(String source, Object document, long expiresAt) {
+            this.source = source;
+            this.document = document;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, JsonPath> paths;
+    private final Deque<ParsedDocument> documents = new ArrayDeque<>();
+    private final int maxDocuments;
+    private final long documentTtlMillis;
+
+    /**
+     * @param maxPaths the maximum number of compiled expressions to keep
+     * @param maxDocuments the maximum number of parsed documents to keep
+     * @param documentTtlMillis the time a parsed document is kept
+     */
+    public JSonPathCache(int maxPaths, int maxDocuments, long documentTtlMillis) {
+        this.paths = new LinkedHashMap<String, JsonPath>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, JsonPath> eldest) {
+                return size() > maxPaths;
+            }
+        };
+        this.maxDocuments = maxDocuments;
+        this.documentTtlMillis = documentTtlMillis;
+    }
+
+    /**
+     * Returns the compiled form of the given expression.
+     *
+     * @throws InvalidPathException if the expression is invalid
+     */
+    public JsonPath getPath(String jsonPathExpression) {
+        synchronized (paths) {
+            JsonPath path = paths.get(jsonPathExpression);
+            if (path != null) {
+                return path;
+            }
+        }
+        JsonPath path = JsonPath.compile(jsonPathExpression);
+        synchronized (paths) {
+            paths.put(jsonPathExpression, path);
+        }
+        return path;
+    }
+
+    /**
+     * Returns the parsed form of the given JSON document, reusing a recent parse of an equal document.
+     *
+     * @throws InvalidJsonException if the document is not valid JSON
+     */
+    public Object getDocument(String source) {
+        long now = System.currentTimeMillis();
+        synchronized (documents) {
+            for (Iterator<ParsedDocument> it = documents.iterator(); it.hasNext();) {
+                ParsedDocument parsed = it.next();
+                if (parsed.expiresAt < now) {
+                    it.remove();
+                } else if (parsed.source == source || parsed.source.equals(source)) {
+                    return parsed.document;
+                }
+            }
+        }
+        Object document = Configuration.defaultConfiguration().jsonProvider().parse(source);
+        synchronized (documents) {
+            documents.addFirst(new ParsedDocument(source, document, now + documentTtlMillis));
+            while (documents.size() > maxDocuments) {
+                documents.removeLast();
+            }
+        }
+        return document;
+    }
+
+    public int getPathCount() {
+        synchronized (paths) {
+            return paths.size();
+        }
+    }
+}
@@ -43,6 +43,13 @@ public class JSonPathTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(JSonPathTransformationService.class);
 
+    private static final int PATH_CACHE_SIZE = 512;
+    private static final int DOCUMENT_CACHE_SIZE = 8;
+    private static final long DOCUMENT_CACHE_TTL_MILLIS = 1000;
+
+    private final JSonPathCache cache = new JSonPathCache(PATH_CACHE_SIZE, DOCUMENT_CACHE_SIZE,
+            DOCUMENT_CACHE_TTL_MILLIS);
+
     /**
      * Transforms the input <code>source</code> by JSonPath expression.
      *
@@ -60,15 +67,7 @@ public class JSonPathTransformationService implements TransformationService {
         logger.debug("about to transform '{}' by the function '{}'", source, jsonPathExpression);
 
         try {
-            Object transformationResult = JsonPath.read(source, jsonPathExpression);
-            logger.debug("transformation resulted in '{}'", transformationResult);
-            if (transformationResult == null) {
-                return null;
-            } else if (transformationResult instanceof List) {
-                return flattenList((List<?>) transformationResult);
-            } else {
-                return transformationResult.toString();
-            }
+            return read(cache.getPath(jsonPathExpression), cache.getDocument(source));
         } catch (PathNotFoundException e) {
             throw new TransformationException("Invalid path '" + jsonPathExpression + "' in '" + source + "'");
         } catch (InvalidPathException | InvalidJsonException e) {
@@ -76,6 +75,18 @@ public class JSonPathTransformationService implements TransformationService {
         }
     }
 
+    private @Nullable String read(JsonPath path, Object document) {
+        Object transformationResult = path.read(document);
+        logger.debug("transformation resulted in '{}'", transformationResult);
+        if (transformationResult == null) {
+            return null;
+        } else if (transformationResult instanceof List) {
+            return flattenList((List<?>) transformationResult);
+        } else {
+            return transformationResult.toString();
+        }
+    }
+
     private String flattenList(List<?> list) {
         if (list.size() == 1) {
             return list.get(0).toString();
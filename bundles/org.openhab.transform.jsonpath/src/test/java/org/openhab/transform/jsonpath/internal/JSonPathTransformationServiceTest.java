@@ -129,4 +129,12 @@ public class JSonPathTransformationServiceTest {
         String transformedResponse = processor.transform("$.data", json);
         assertEquals(list, transformedResponse);
     }
+
+    @Test
+    public void testSharedDocumentIsNotModified() throws TransformationException {
+        String json = new String(jsonArray.toCharArray());
+        assertEquals("bob", processor.transform("$[0].name", json));
+        assertEquals("alice", processor.transform("$[1].name", jsonArray));
+        assertEquals("bob", processor.transform("$[0].name", json));
+    }
 }
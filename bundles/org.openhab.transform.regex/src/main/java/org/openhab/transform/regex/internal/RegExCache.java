@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.regex.internal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * A bounded LRU cache of parsed and compiled regular expressions, so that the expression of a transformation is only
+ * parsed once and not on every transformed value.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class RegExCache {
+
+    private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
+
+    /**
+     * A parsed regular expression, either in extraction form {@code <regex>} or in substitution form
+     * {@code s/<regex>/<substitution>/<options>}.
+     */
+    public static class CompiledRegEx {
+        private final Pattern pattern;
+        private final @Nullable String substitution;
+        private final boolean global;
+        private final int groupCount;
+
+        private CompiledRegEx(Pattern pattern, @Nullable String substitution, boolean global) {
+            this.pattern = pattern;
+            this.substitution = substitution;
+            this.global = global;
+            this.groupCount = pattern.matcher("").groupCount();
+        }
+
+        public Pattern getPattern() {
+            return pattern;
+        }
+
+        public boolean isSubstitution() {
+            return substitution != null;
+        }
+
+        public @Nullable String getSubstitution() {
+            return substitution;
+        }
+
+        /**
+         * @return true if all occurrences are to be substituted, false if only the first one is
+         */
+        public boolean isGlobal() {
+            return global;
+        }
+
+        public int getGroupCount() {
+            return groupCount;
+        }
+    }
+
+    private final int maxSize;
+    private final Map<String, CompiledRegEx> cache;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public RegExCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = new LinkedHashMap<String, CompiledRegEx>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, CompiledRegEx> eldest) {
+                if (size() > RegExCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the compiled form of the given expression, parsing and compiling it if it is not cached yet.
+     *
+     * @param regExpression the expression as given to the transformation
+     * @return the compiled expression
+     * @throws PatternSyntaxException if the expression is not a valid regular expression
+     */
+    public CompiledRegEx get(String regExpression) {
+        synchronized (cache) {
+            CompiledRegEx compiled = cache.get(regExpression);
+            if (compiled != null) {
+                hits++;
+                return compiled;
+            }
+            misses++;
+        }
+        // compile outside of the lock, a concurrent duplicate compilation is harmless
+        CompiledRegEx compiled = compile(regExpression);
+        synchronized (cache) {
+            cache.put(regExpression, compiled);
+        }
+        return compiled;
+    }
+
+    private static CompiledRegEx compile(String regExpression) {
+        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
+        if (substMatcher.matches()) {
+            return new CompiledRegEx(Pattern.compile(substMatcher.group(1)), substMatcher.group(2),
+                    substMatcher.group(3).equals("g"));
+        }
+        return new CompiledRegEx(Pattern.compile("^" + regExpression + "$", Pattern.DOTALL), null, false);
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getHits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    public long getMisses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    public long getEvictions() {
+        synchronized (cache) {
+            return evictions;
+        }
+    }
+}
@@ -13,12 +13,12 @@
 package org.openhab.transform.regex.internal;
 
 import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
 import org.eclipse.jdt.annotation.Nullable;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.eclipse.smarthome.core.transform.TransformationService;
+import org.openhab.transform.regex.internal.RegExCache.CompiledRegEx;
 import org.osgi.service.component.annotations.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +38,9 @@ public class RegExTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(RegExTransformationService.class);
 
-    private static final Pattern SUBSTR_PATTERN = Pattern.compile("^s/(.*?[^\\\\])/(.*?[^\\\\])/(.*)$");
+    private static final int CACHE_SIZE = 256;
+
+    private final RegExCache cache = new RegExCache(CACHE_SIZE);
 
     @Override
     public @Nullable String transform(String regExpression, String source) throws TransformationException {
@@ -50,23 +52,19 @@ public class RegExTransformationService implements TransformationService {
 
         String result = "";
 
-        Matcher substMatcher = SUBSTR_PATTERN.matcher(regExpression);
-        if (substMatcher.matches()) {
+        CompiledRegEx compiled = cache.get(regExpression);
+        String substitution = compiled.getSubstitution();
+        if (substitution != null) {
             logger.debug("Using substitution form of regex transformation");
-            String regex = substMatcher.group(1);
-            String substitution = substMatcher.group(2);
-            String options = substMatcher.group(3);
-            if (options.equals("g")) {
-                result = source.trim().replaceAll(regex, substitution);
+            Matcher substMatcher = compiled.getPattern().matcher(source.trim());
+            if (compiled.isGlobal()) {
+                return substMatcher.replaceAll(substitution);
             } else {
-                result = source.trim().replaceFirst(regex, substitution);
-            }
-            if (result != null) {
-                return result;
+                return substMatcher.replaceFirst(substitution);
             }
         }
 
-        Matcher matcher = Pattern.compile("^" + regExpression + "$", Pattern.DOTALL).matcher(source.trim());
+        Matcher matcher = compiled.getPattern().matcher(source.trim());
         if (!matcher.matches()) {
             logger.debug(
                     "the given regex '^{}$' doesn't match the given content '{}' -> couldn't compute transformation",
@@ -76,7 +74,7 @@ public class RegExTransformationService implements TransformationService {
         matcher.reset();
 
         while (matcher.find()) {
-            if (matcher.groupCount() == 0) {
+            if (compiled.getGroupCount() == 0) {
                 logger.info(
                         "the given regular expression '^{}$' doesn't contain a group. No content will be extracted and returned!",
                         regExpression);
@@ -85,7 +83,7 @@ public class RegExTransformationService implements TransformationService {
 
             result = matcher.group(1);
 
-            if (matcher.groupCount() > 1) {
+            if (compiled.getGroupCount() > 1) {
                 logger.debug(
                         "the given regular expression '^{}$' contains more than one group. Only the first group will be returned!",
                         regExpression);
@@ -95,4 +93,11 @@ public class RegExTransformationService implements TransformationService {
         return result;
     }
 
+    /**
+     * @return the cache of compiled expressions, for statistics
+     */
+    RegExCache getCache() {
+        return cache;
+    }
+
 }
@@ -17,7 +17,6 @@ import static org.junit.Assert.assertEquals;
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
 import org.junit.Test;
-import org.openhab.transform.regex.internal.RegExTransformationService;
 
 /**
  * @author Thomas.Eichstaedt-Engelen
@@ -79,4 +78,32 @@ public class RegExTransformationServiceTest extends AbstractTransformationServic
         // Asserts
         assertEquals("varX=12 varY=54 ", transformedResponse);
     }
+
+    @Test
+    public void testTransformByRegex_compiledExpressionIsCached() throws TransformationException {
+        // method under test
+        processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "X12,Y54");
+        String transformedResponse = processor.transform("s/([A-Z]+)([0-9]+),*/var$1=$2 /g", "Z1");
+
+        // Asserts
+        assertEquals("varZ=1 ", transformedResponse);
+        assertEquals(1, processor.getCache().getMisses());
+        assertEquals(1, processor.getCache().getHits());
+    }
+
+    @Test
+    public void testRegExCache_evictsLeastRecentlyUsed() {
+        RegExCache cache = new RegExCache(2);
+        cache.get("a(.*)");
+        cache.get("b(.*)");
+        cache.get("a(.*)");
+        cache.get("c(.*)");
+        cache.get("a(.*)");
+
+        // Asserts
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.get("a(.*)").getGroupCount());
+    }
 }
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.scale.internal;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A compiled scale file, answering which range a value falls into by binary search.
+ * <p>
+ * All range limits split the number line into elementary segments: the limits themselves and the open intervals
+ * between them. Every value within one segment is contained in the same ranges, so the label of the first matching
+ * range (in file order) is computed once per segment when the file is loaded.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+public class ScaleTable {
+
+    private static final String FORMAT_VALUE = "%value%";
+    private static final String FORMAT_LABEL = "%label%";
+
+    /** the sorted distinct range limits */
+    private final BigDecimal[] limits;
+    /** the limits as doubles, for the double fast path */
+    private final double[] limitDoubles;
+    /** the label of each limit, null if no range contains it */
+    private final String[] limitLabels;
+    /** the label of the open interval below each limit, the last one is above all limits */
+    private final String[] gapLabels;
+
+    private final String nonNumericLabel;
+
+    /** the format split into literal text and placeholders */
+    private final List<String> formatParts;
+
+    /**
+     * @param ranges the ranges and labels in file order
+     * @param nonNumericLabel the label for non numeric values, may be null
+     * @param format the presentation format using the %value% and %label% placeholders
+     */
+    public ScaleTable(Map<Range, String> ranges, String nonNumericLabel, String format) {
+        TreeSet<BigDecimal> limitSet = new TreeSet<>();
+        for (Range range : ranges.keySet()) {
+            if (range.min != null) {
+                limitSet.add(range.min);
+            }
+            if (range.max != null) {
+                limitSet.add(range.max);
+            }
+        }
+        limits = limitSet.toArray(new BigDecimal[limitSet.size()]);
+        limitDoubles = new double[limits.length];
+        limitLabels = new String[limits.length];
+        gapLabels = new String[limits.length + 1];
+
+        for (int i = 0; i < limits.length; i++) {
+            limitDoubles[i] = limits[i].doubleValue();
+            limitLabels[i] = firstMatch(ranges, limits[i]);
+        }
+        for (int i = 0; i <= limits.length; i++) {
+            gapLabels[i] = firstMatch(ranges, gapRepresentative(i));
+        }
+
+        this.nonNumericLabel = nonNumericLabel;
+        this.formatParts = parseFormat(format);
+    }
+
+    /**
+     * @return the label of the first range containing the value, null if there is none
+     */
+    public String getLabel(BigDecimal value) {
+        int index = Arrays.binarySearch(limits, value);
+        return index >= 0 ? limitLabels[index] : gapLabels[-index - 1];
+    }
+
+    /**
+     * Looks up the label using double comparisons only.
+     * <p>
+     * Rounding to double is monotonic, so if the rounded value lies strictly between two rounded limits, the exact
+     * value lies strictly between the exact limits as well. Only values which round to a limit need an exact
+     * comparison.
+     *
+     * @param value the value, parsed to the nearest double
+     * @param exactValue provides the exact value if the double comparison is not conclusive
+     * @return the label of the first range containing the value, null if there is none
+     */
+    public String getLabel(double value, String exactValue) {
+        int index = Arrays.binarySearch(limitDoubles, value);
+        // binarySearch orders -0.0 before 0.0, while both are equal to a limit of zero
+        if (index >= 0 || value == 0) {
+            return getLabel(new BigDecimal(exactValue));
+        }
+        return gapLabels[-index - 1];
+    }
+
+    public String getNonNumericLabel() {
+        return nonNumericLabel;
+    }
+
+    public String format(String value, String label) {
+        StringBuilder result = new StringBuilder();
+        for (String part : formatParts) {
+            if (part == FORMAT_VALUE) {
+                result.append(value);
+            } else if (part == FORMAT_LABEL) {
+                result.append(label);
+            } else {
+                result.append(part);
+            }
+        }
+        return result.toString();
+    }
+
+    private BigDecimal gapRepresentative(int gap) {
+        if (limits.length == 0) {
+            return BigDecimal.ZERO;
+        } else if (gap == 0) {
+            return limits[0].subtract(BigDecimal.ONE);
+        } else if (gap == limits.length) {
+            return limits[limits.length - 1].add(BigDecimal.ONE);
+        } else {
+            return limits[gap - 1].add(limits[gap]).divide(BigDecimal.valueOf(2));
+        }
+    }
+
+    private static String firstMatch(Map<Range, String> ranges, BigDecimal value) {
+        return ranges.entrySet().stream().filter(entry -> entry.getKey().contains(value)).findFirst()
+                .map(Map.Entry::getValue).orElse(null);
+    }
+
+    /**
+     * Splits the format into parts, using the placeholder constants themselves as markers.
+     */
+    private static List<String> parseFormat(String format) {
+        List<String> parts = new ArrayList<>();
+        int start = 0;
+        while (start < format.length()) {
+            int value = format.indexOf(FORMAT_VALUE, start);
+            int label = format.indexOf(FORMAT_LABEL, start);
+            int next = value < 0 ? label : label < 0 ? value : Math.min(value, label);
+            if (next < 0) {
+                parts.add(format.substring(start));
+                break;
+            }
+            if (next > start) {
+                parts.add(format.substring(start, next));
+            }
+            String placeholder = next == value ? FORMAT_VALUE : FORMAT_LABEL;
+            parts.add(placeholder);
+            start = next + placeholder.length();
+        }
+        return parts;
+    }
+}
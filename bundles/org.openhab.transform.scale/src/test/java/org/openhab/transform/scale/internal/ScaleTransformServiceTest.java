@@ -14,7 +14,10 @@ package org.openhab.transform.scale.internal;
 
 import static org.junit.Assert.fail;
 
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
 import java.util.Locale;
+import java.util.Map;
 
 import javax.measure.quantity.Dimensionless;
 
@@ -150,4 +153,33 @@ public class ScaleTransformServiceTest {
         Assert.assertEquals("Correcte (992) !", transformedResponse);
     }
 
+    @Test
+    public void testEvaluationOrderAtLimits() throws TransformationException {
+        // ]..15[=first, [10..17[=second, [15..[=last
+        String evaluationOrder = "scale/evaluationorder.scale";
+
+        Assert.assertEquals("first", processor.transform(evaluationOrder, "14.999"));
+        Assert.assertEquals("second", processor.transform(evaluationOrder, "15"));
+        Assert.assertEquals("second", processor.transform(evaluationOrder, "15.000"));
+        Assert.assertEquals("last", processor.transform(evaluationOrder, "17"));
+        Assert.assertEquals("first", processor.transform(evaluationOrder, "-0"));
+        Assert.assertEquals("last", processor.transform(evaluationOrder, "1E3"));
+    }
+
+    @Test
+    public void testScaleTableLookup() {
+        Map<Range, String> ranges = new LinkedHashMap<>();
+        ranges.put(Range.closedOpen(new BigDecimal("0.1"), new BigDecimal("0.3")), "a");
+        ranges.put(Range.closed(new BigDecimal("0.3"), new BigDecimal("1")), "b");
+        ScaleTable table = new ScaleTable(ranges, null, "%label% [%value%]");
+
+        Assert.assertNull(table.getLabel(0.09999, "0.09999"));
+        Assert.assertEquals("a", table.getLabel(0.1, "0.1"));
+        Assert.assertEquals("a", table.getLabel(new BigDecimal("0.29999999999999999999")));
+        Assert.assertEquals("b", table.getLabel(0.3, "0.3"));
+        Assert.assertEquals("b", table.getLabel(1, "1"));
+        Assert.assertNull(table.getLabel(new BigDecimal("1.000000000000000000001")));
+        Assert.assertEquals("b [0.5]", table.format("0.5", "b"));
+    }
+
 }
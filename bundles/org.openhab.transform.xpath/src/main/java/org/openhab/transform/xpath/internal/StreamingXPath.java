@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2010-2019 Contributors to the openHAB project
+ *
+ * See the NOTICE file(s) distributed with this work for additional
+ * information.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License 2.0 which is available at
+ * http://www.eclipse.org/legal/epl-2.0
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ */
+package org.openhab.transform.xpath.internal;
+
+import java.io.StringReader;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.eclipse.jdt.annotation.NonNullByDefault;
+import org.eclipse.jdt.annotation.Nullable;
+
+/**
+ * Evaluates simple absolute XPath expressions like {@code /root/child/@attribute} on a StAX stream, so that large
+ * documents can be queried without building a DOM.
+ * <p>
+ * Only location paths made of unprefixed child steps, optionally ending in an attribute step, are supported. The
+ * result is the string value of the first matching node in document order, just like the string result of the
+ * equivalent XPath expression evaluated on a DOM.
+ *
+ * @author openHAB Contributors - Initial contribution
+ */
+@NonNullByDefault
+public class StreamingXPath {
+
+    private static final Pattern SIMPLE_PATH = Pattern
+            .compile("(/[A-Za-z_][\\w.\\-]*)+(/@[A-Za-z_][\\w.\\-]*)?");
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final String[] steps;
+    private final @Nullable String attribute;
+
+    private StreamingXPath(String[] steps, @Nullable String attribute) {
+        this.steps = steps;
+        this.attribute = attribute;
+    }
+
+    /**
+     * Creates a streaming evaluator for the given expression.
+     *
+     * @return the evaluator or null if the expression is not supported for streaming evaluation
+     */
+    public static @Nullable StreamingXPath compile(String xpathExpression) {
+        String expression = xpathExpression.trim();
+        if (!SIMPLE_PATH.matcher(expression).matches()) {
+            return null;
+        }
+        String attribute = null;
+        int attributeStart = expression.indexOf("/@");
+        if (attributeStart >= 0) {
+            attribute = expression.substring(attributeStart + 2);
+            expression = expression.substring(0, attributeStart);
+        }
+        return new StreamingXPath(expression.substring(1).split("/"), attribute);
+    }
+
+    /**
+     * Evaluates this expression on the given document.
+     *
+     * @return the string value of the first matching node, an empty string if there is none
+     * @throws XMLStreamException if the document is not well-formed
+     */
+    public String evaluate(String source) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(new StringReader(source));
+        try {
+            int depth = 0;
+            // the depth up to which the currently open elements match the steps
+            int matched = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    if (matched == depth - 1 && depth <= steps.length && matches(reader, steps[depth - 1])) {
+                        matched = depth;
+                        if (matched == steps.length) {
+                            String attributeName = attribute;
+                            if (attributeName == null) {
+                                return readStringValue(reader);
+                            }
+                            String value = getAttributeValue(reader, attributeName);
+                            if (value != null) {
+                                return value;
+                            }
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (matched == depth) {
+                        matched--;
+                    }
+                    depth--;
+                }
+            }
+            return "";
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static boolean matches(XMLStreamReader reader, String name) {
+        String namespace = reader.getNamespaceURI();
+        return name.equals(reader.getLocalName()) && (namespace == null || namespace.isEmpty());
+    }
+
+    private static @Nullable String getAttributeValue(XMLStreamReader reader, String name) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            String namespace = reader.getAttributeNamespace(i);
+            if (name.equals(reader.getAttributeLocalName(i)) && (namespace == null || namespace.isEmpty())) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Concatenates all descendant text of the current element, leaving the reader at its end tag.
+     */
+    private static String readStringValue(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder value = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    depth++;
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    depth--;
+                    break;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    value.append(reader.getText());
+                    break;
+                default:
+                    break;
+            }
+        }
+        return value.toString();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+}
@@ -13,12 +13,18 @@
 package org.openhab.transform.xpath.internal;
 
 import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
 import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
 import javax.xml.xpath.XPathFactory;
 
 import org.eclipse.jdt.annotation.NonNullByDefault;
@@ -43,6 +49,49 @@ public class XPathTransformationService implements TransformationService {
 
     private final Logger logger = LoggerFactory.getLogger(XPathTransformationService.class);
 
+    /** Sources of at least this length are evaluated on a stream if the expression allows it */
+    private static final int STREAMING_THRESHOLD = 64 * 1024;
+
+    private static final int EXPRESSION_CACHE_SIZE = 64;
+
+    /**
+     * Neither {@link DocumentBuilder} nor {@link XPathExpression} are thread-safe, so each thread gets its own builder
+     * and its own cache of compiled expressions.
+     */
+    private static class ThreadContext {
+        final DocumentBuilder builder;
+        final XPath xpath = XPathFactory.newInstance().newXPath();
+        final Map<String, XPathExpression> expressions = new LinkedHashMap<String, XPathExpression>(16, 0.75f,
+                true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.@Nullable Entry<String, XPathExpression> eldest) {
+                return size() > EXPRESSION_CACHE_SIZE;
+            }
+        };
+
+        ThreadContext() throws ParserConfigurationException {
+            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
+            domFactory.setNamespaceAware(true);
+            domFactory.setValidating(false);
+            builder = domFactory.newDocumentBuilder();
+        }
+
+        XPathExpression compile(String xpathExpression) throws XPathExpressionException {
+            XPathExpression expr = expressions.get(xpathExpression);
+            if (expr == null) {
+                expr = xpath.compile(xpathExpression);
+                expressions.put(xpathExpression, expr);
+            }
+            return expr;
+        }
+    }
+
+    private final ThreadLocal<@Nullable ThreadContext> threadContext = new ThreadLocal<>();
+
+    private final Map<String, Optional<StreamingXPath>> streamingExpressions = new ConcurrentHashMap<>();
+
     @Override
     public @Nullable String transform(String xpathExpression, String source) throws TransformationException {
         if (xpathExpression == null || source == null) {
@@ -51,35 +100,55 @@ public class XPathTransformationService implements TransformationService {
 
         logger.debug("about to transform '{}' by the function '{}'", source, xpathExpression);
 
-        StringReader stringReader = null;
-
         try {
-            DocumentBuilderFactory domFactory = DocumentBuilderFactory.newInstance();
-            domFactory.setNamespaceAware(true);
-            domFactory.setValidating(false);
-            DocumentBuilder builder = domFactory.newDocumentBuilder();
-
-            stringReader = new StringReader(source);
-            InputSource inputSource = new InputSource(stringReader);
-            inputSource.setEncoding("UTF-8");
-
-            Document doc = builder.parse(inputSource);
-
-            XPath xpath = XPathFactory.newInstance().newXPath();
-            XPathExpression expr = xpath.compile(xpathExpression);
-
-            String transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            String transformationResult;
+            StreamingXPath streamingXPath = getStreamingXPath(xpathExpression, source);
+            if (streamingXPath != null) {
+                transformationResult = streamingXPath.evaluate(source);
+            } else {
+                ThreadContext context = getThreadContext();
+                XPathExpression expr = context.compile(xpathExpression);
+
+                InputSource inputSource = new InputSource(new StringReader(source));
+                inputSource.setEncoding("UTF-8");
+
+                Document doc;
+                try {
+                    doc = context.builder.parse(inputSource);
+                } finally {
+                    context.builder.reset();
+                }
+                transformationResult = (String) expr.evaluate(doc, XPathConstants.STRING);
+            }
 
             logger.debug("transformation resulted in '{}'", transformationResult);
 
             return transformationResult;
         } catch (Exception e) {
             throw new TransformationException("transformation throws exceptions", e);
-        } finally {
-            if (stringReader != null) {
-                stringReader.close();
-            }
         }
     }
 
+    private @Nullable StreamingXPath getStreamingXPath(String xpathExpression, String source) {
+        // documents with a DTD may declare entities, these are only handled by the DOM parser
+        if (source.length() < STREAMING_THRESHOLD || source.contains("<!DOCTYPE")) {
+            return null;
+        }
+        if (streamingExpressions.size() > EXPRESSION_CACHE_SIZE) {
+            streamingExpressions.clear();
+        }
+        return streamingExpressions
+                .computeIfAbsent(xpathExpression, expression -> Optional.ofNullable(StreamingXPath.compile(expression)))
+                .orElse(null);
+    }
+
+    private ThreadContext getThreadContext() throws ParserConfigurationException {
+        ThreadContext context = threadContext.get();
+        if (context == null) {
+            context = new ThreadContext();
+            threadContext.set(context);
+        }
+        return context;
+    }
+
 }
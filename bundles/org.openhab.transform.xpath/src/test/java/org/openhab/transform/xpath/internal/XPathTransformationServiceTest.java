@@ -12,12 +12,11 @@
  */
 package org.openhab.transform.xpath.internal;
 
-import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.*;
 
 import org.eclipse.smarthome.core.transform.TransformationException;
 import org.junit.Before;
 import org.junit.Test;
-import org.openhab.transform.xpath.internal.XPathTransformationService;
 
 /**
  * @author Thomas.Eichstaedt-Engelen
@@ -41,4 +40,30 @@ public class XPathTransformationServiceTest extends AbstractTransformationServic
         assertEquals("8", transformedResponse);
     }
 
+    @Test
+    public void testTransformByXPath_largeDocumentIsStreamed() throws TransformationException {
+        StringBuilder largeSource = new StringBuilder("<root><padding>");
+        while (largeSource.length() < 100_000) {
+            largeSource.append("<entry id=\"x\">filler</entry>");
+        }
+        largeSource.append("</padding><item><value unit=\"C\">21<![CDATA[.5]]></value></item>"
+                + "<item><value unit=\"F\">70</value></item></root>");
+
+        // streamed
+        assertEquals("C", processor.transform("/root/item/value/@unit", largeSource.toString()));
+        assertEquals("21.5", processor.transform("/root/item/value", largeSource.toString()));
+        assertEquals("", processor.transform("/root/missing", largeSource.toString()));
+
+        // evaluated on the DOM
+        assertEquals("F", processor.transform("/root/item[2]/value/@unit", largeSource.toString()));
+    }
+
+    @Test
+    public void testStreamingXPath_unsupportedExpressions() {
+        assertNull(StreamingXPath.compile("//current_conditions/temp_c/@data"));
+        assertNull(StreamingXPath.compile("/root/item[2]"));
+        assertNull(StreamingXPath.compile("count(/root/item)"));
+        assertNotNull(StreamingXPath.compile("/root/item/@id"));
+    }
+
 }